@@ -0,0 +1,53 @@
+package app.benchmark;
+
+import app.entities.Carport;
+import app.entities.MaterialLine;
+import app.entities.PricingDetails;
+import app.exceptions.DatabaseException;
+import app.exceptions.MaterialNotFoundException;
+import app.services.BomService;
+import app.services.IBomService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BomServiceBenchmark
+{
+    @Param({"240", "420", "600", "780"})
+    private int length;
+
+    @Param({"240", "420", "600"})
+    private int width;
+
+    @Param({CarportGrid.NO_SHED, "FULL_WIDTH", "LEFT"})
+    private String shed;
+
+    private IBomService bomService;
+    private Carport carport;
+
+    @Setup(Level.Trial)
+    public void setup() throws DatabaseException, MaterialNotFoundException
+    {
+        bomService = new BomService(new InMemoryMaterialVariantMapper());
+        carport = CarportGrid.createCarport(length, width, shed);
+
+        // Loads the catalog snapshot outside the measured loop
+        bomService.getBillOfMaterialByCarport(carport);
+    }
+
+    @Benchmark
+    public List<MaterialLine> billOfMaterial() throws DatabaseException, MaterialNotFoundException
+    {
+        return bomService.getBillOfMaterialByCarport(carport);
+    }
+
+    @Benchmark
+    public PricingDetails billOfMaterialWithPrice() throws DatabaseException, MaterialNotFoundException
+    {
+        return bomService.calculateCarportPrice(bomService.getBillOfMaterialByCarport(carport));
+    }
+}
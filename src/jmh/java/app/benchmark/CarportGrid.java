@@ -0,0 +1,35 @@
+package app.benchmark;
+
+import app.entities.Carport;
+import app.entities.Shed;
+import app.enums.RoofType;
+import app.enums.ShedPlacement;
+
+/***
+ * Builds the carports used by the benchmarks. Shed widths follow the same rule as
+ * CarportService.getShedPlacement: full width is the carport width minus 2 x 35 cm.
+ */
+final class CarportGrid
+{
+    static final String NO_SHED = "NONE";
+    private static final int SHED_SIDE_MARGIN_CM = 35;
+
+    private CarportGrid()
+    {
+    }
+
+    static Carport createCarport(int length, int width, String shedOption)
+    {
+        Shed shed = null;
+
+        if (!NO_SHED.equals(shedOption))
+        {
+            ShedPlacement placement = ShedPlacement.valueOf(shedOption);
+            int fullShedWidth = width - 2 * SHED_SIDE_MARGIN_CM;
+            int shedWidth = placement == ShedPlacement.FULL_WIDTH ? fullShedWidth : fullShedWidth / 2;
+            shed = new Shed(0, length / 2, shedWidth, placement);
+        }
+
+        return new Carport(0, length, width, RoofType.TRAPEZ_ROOF, shed);
+    }
+}
@@ -0,0 +1,102 @@
+package app.benchmark;
+
+import app.entities.Material;
+import app.entities.MaterialVariant;
+import app.enums.MaterialCategory;
+import app.enums.MaterialType;
+import app.persistence.MaterialVariantMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * Stand-in for MaterialVariantMapper holding the same catalog as sql/migrations/V3__reference_data.sql,
+ * so the benchmarks measure the calculation and not the database.
+ */
+public class InMemoryMaterialVariantMapper extends MaterialVariantMapper
+{
+    private final List<MaterialVariant> variants = new ArrayList<>();
+    private int nextVariantId = 1;
+
+    public InMemoryMaterialVariantMapper()
+    {
+        super(null);
+
+        Material post = material(1, "trykimp.  Stolpe", MaterialCategory.WOOD_AND_ROOFING, MaterialType.POST, 97, 97, "stk");
+        Material beam = material(2, "spærtræ ubh. ", MaterialCategory.WOOD_AND_ROOFING, MaterialType.BEAM, 45, 195, "stk");
+        Material rafter = material(3, "spærtræ ubh.", MaterialCategory.WOOD_AND_ROOFING, MaterialType.RAFTER, 45, 195, "stk");
+        Material roof = material(4, "Plastmo Ecolite blåtonet", MaterialCategory.WOOD_AND_ROOFING, MaterialType.ROOF, 109, 5, "stk");
+        Material roofScrews = material(5, "Plastmo Bundskruer", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.FASTENER, null, null, "pakke");
+        Material fittingRight = material(6, "Universal højre", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.FITTING, null, null, "stk");
+        Material fittingLeft = material(7, "Universal venstre", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.FITTING, null, null, "stk");
+        Material metalStrap = material(8, "hulbånd", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.METAL_STRAP, 20, 1, "Rulle");
+        Material bracketScrews = material(9, "Beslagskruer", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.FASTENER, null, null, "Pakke");
+        Material carriageBolt = material(10, "bræddebolt", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.FASTENER, 10, 120, "Stk");
+        Material washer = material(11, "firkantskiver", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.WASHER, 40, 40, "Stk");
+        Material underFascia = material(12, "trykimp. Brædt", MaterialCategory.WOOD_AND_ROOFING, MaterialType.UNDER_FASCIA_BOARD, 25, 200, "stk");
+        Material overFascia = material(13, "trykimp. Brædt", MaterialCategory.WOOD_AND_ROOFING, MaterialType.OVER_FASCIA_BOARD, 25, 125, "stk");
+        Material waterBoard = material(14, "trykimp. Brædt", MaterialCategory.WOOD_AND_ROOFING, MaterialType.WATER_BOARD, 19, 100, "stk");
+
+        addVariant(post, 300, 177.48, 1);
+
+        double[] woodPrices = {127.08, 152.49, 177.91, 203.32, 228.74, 383.76, 422.13, 460.51};
+        for (int i = 0; i < woodPrices.length; i++)
+        {
+            addVariant(beam, 300 + i * 60, woodPrices[i], 1);
+            addVariant(rafter, 300 + i * 60, woodPrices[i], 1);
+        }
+
+        addVariant(roof, 240, 111.20, 1);
+        addVariant(roof, 300, 143.20, 1);
+        addVariant(roof, 360, 159.20, 1);
+        addVariant(roof, 420, 191.20, 1);
+        addVariant(roof, 480, 215.20, 1);
+        addVariant(roof, 600, 271.20, 1);
+
+        addVariant(roofScrews, null, 343.20, 200);
+        addVariant(fittingRight, null, 43.96, 1);
+        addVariant(fittingLeft, null, 43.96, 1);
+        addVariant(metalStrap, 1000, 239.75, 1);
+        addVariant(bracketScrews, 5, 189.75, 250);
+        addVariant(carriageBolt, 12, 23.46, 1);
+        addVariant(washer, 1, 12.57, 1);
+
+        double[] underFasciaPrices = {117.48, 140.80, 164.47, 187.96, 211.46, 268.56};
+        double[] overFasciaPrices = {83.88, 97.49, 117.43, 134.20, 150.93, 128.56};
+        for (int i = 0; i < underFasciaPrices.length; i++)
+        {
+            addVariant(underFascia, 300 + i * 60, underFasciaPrices[i], 1);
+            addVariant(overFascia, 300 + i * 60, overFasciaPrices[i], 1);
+        }
+
+        double[] waterBoardPrices = {43.08, 51.68, 60.29, 68.92, 77.54};
+        for (int i = 0; i < waterBoardPrices.length; i++)
+        {
+            addVariant(waterBoard, 300 + i * 60, waterBoardPrices[i], 1);
+        }
+    }
+
+    @Override
+    public List<MaterialVariant> getAllMaterialVariants()
+    {
+        return new ArrayList<>(variants);
+    }
+
+    @Override
+    public List<MaterialVariant> getAllVariantsByType(MaterialType materialType)
+    {
+        return variants.stream()
+                .filter(variant -> variant.getMaterial().getType() == materialType)
+                .toList();
+    }
+
+    private Material material(int materialId, String name, MaterialCategory category, MaterialType type, Integer width, Integer height, String unit)
+    {
+        return new Material(materialId, name, category, type, width, height, unit, "benchmark");
+    }
+
+    private void addVariant(Material material, Integer length, double unitPrice, int piecesPerUnit)
+    {
+        variants.add(new MaterialVariant(nextVariantId++, material.getMaterialId(), length, unitPrice, piecesPerUnit, material));
+    }
+}
@@ -0,0 +1,74 @@
+package app.benchmark;
+
+import app.dto.RafterCalculationDTO;
+import app.entities.Carport;
+import app.util.PartCalculator;
+import app.util.PostPlacementCalculatorUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PartCalculatorBenchmark
+{
+    private static final double RAFTER_WIDTH_CM = 4.5;
+    private static final int BEAM_MAX_VARIANT_LENGTH_CM = 720;
+
+    @Param({"240", "420", "600", "780"})
+    private int length;
+
+    @Param({"240", "420", "600"})
+    private int width;
+
+    @Param({CarportGrid.NO_SHED, "FULL_WIDTH", "LEFT"})
+    private String shed;
+
+    private Carport carport;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        carport = CarportGrid.createCarport(length, width, shed);
+    }
+
+    @Benchmark
+    public void partCalculator(Blackhole blackhole)
+    {
+        if (carport.getShed() != null)
+        {
+            blackhole.consume(PartCalculator.calculateNumberOfPostsWithShed(carport.getLength(), carport.getShed()));
+        }
+        else
+        {
+            blackhole.consume(PartCalculator.calculateNumberOfPostsWithOutShed(carport.getLength()));
+        }
+        blackhole.consume(PartCalculator.calculateNumberOfRafters(carport.getLength()));
+        blackhole.consume(PartCalculator.calculateNumberOfRoofTileRows(carport.getWidth(), 109));
+        blackhole.consume(PartCalculator.calculateNumberOfRoofScrewPackagesNeeded(carport.getWidth(), carport.getLength(), 200));
+        blackhole.consume(PartCalculator.calculateNumberOfperforatedStripRools(carport, 1000));
+        blackhole.consume(PartCalculator.calculateNumberOfCarriageBoltsAndWashers(carport, BEAM_MAX_VARIANT_LENGTH_CM));
+        blackhole.consume(PartCalculator.calculateNumberOfBracketScrewsNeeded(carport, 250));
+    }
+
+    @Benchmark
+    public RafterCalculationDTO rafters()
+    {
+        return PartCalculator.calculateRafters(carport.getLength(), RAFTER_WIDTH_CM);
+    }
+
+    @Benchmark
+    public List<Double> postPlacements()
+    {
+        return PostPlacementCalculatorUtil.calculatePostPlacements(carport);
+    }
+
+    @Benchmark
+    public int centerPostPlacement()
+    {
+        return PostPlacementCalculatorUtil.calculateCenterPostPlacement(carport);
+    }
+}
@@ -0,0 +1,94 @@
+package app.benchmark;
+
+import app.entities.Carport;
+import app.entities.PricingDetails;
+import app.enums.RoofType;
+import app.exceptions.DatabaseException;
+import app.exceptions.MaterialNotFoundException;
+import app.services.*;
+import app.util.CarportDimensions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Latency of the price preview endpoint's calculation, sampled so the p99 can be read directly.
+ * Cycles through every form combination, as customers clicking through the selects would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PricePreviewBenchmark
+{
+    private IBomService calculatedBomService;
+    private PrecomputedBomService precomputedBomService;
+    private Carport[] carports;
+
+    @State(Scope.Thread)
+    public static class Cursor
+    {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws DatabaseException
+    {
+        IMaterialCatalogService catalogService = new MaterialCatalogService(new InMemoryMaterialVariantMapper());
+        ICarportService carportService = new CarportService(null);
+        calculatedBomService = new BomService(catalogService);
+        precomputedBomService = new PrecomputedBomService(calculatedBomService, catalogService, carportService);
+        precomputedBomService.warmUp();
+
+        List<Carport> formCarports = new ArrayList<>();
+
+        for (int width : CarportDimensions.getCarportWidths())
+        {
+            for (int length : CarportDimensions.getCarportLengths())
+            {
+                formCarports.add(new Carport(0, length, width, RoofType.TRAPEZ_ROOF, null));
+                formCarports.add(new Carport(0, length, width, RoofType.TRAPEZ_ROOF, carportService.createShedWithPlacement(width, 210, length / 2 / 30 * 30)));
+            }
+        }
+        carports = formCarports.stream()
+                .filter(carport -> isValid(carportService, carport))
+                .toArray(Carport[]::new);
+    }
+
+    @Benchmark
+    public PricingDetails precomputed(Cursor cursor) throws DatabaseException, MaterialNotFoundException
+    {
+        return price(precomputedBomService, nextCarport(cursor));
+    }
+
+    @Benchmark
+    public PricingDetails calculated(Cursor cursor) throws DatabaseException, MaterialNotFoundException
+    {
+        return price(calculatedBomService, nextCarport(cursor));
+    }
+
+    private PricingDetails price(IBomService bomService, Carport carport) throws DatabaseException, MaterialNotFoundException
+    {
+        return bomService.calculateCarportPrice(bomService.getBillOfMaterialByCarport(carport));
+    }
+
+    private Carport nextCarport(Cursor cursor)
+    {
+        cursor.next = (cursor.next + 1) % carports.length;
+        return carports[cursor.next];
+    }
+
+    private static boolean isValid(ICarportService carportService, Carport carport)
+    {
+        try
+        {
+            carportService.validateCarport(carport);
+            return true;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package app.benchmark;
+
+import app.entities.Carport;
+import app.entities.MaterialLine;
+import app.entities.PricingDetails;
+import app.entities.Shed;
+import app.enums.RoofType;
+import app.services.BomService;
+import app.services.CarportService;
+import app.services.IBomService;
+import app.services.ICarportService;
+import app.util.LatencyHistogram;
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/***
+ * Load test for concurrent quote submissions, run once on Jetty's platform thread pool and once on virtual threads.
+ * The handler does what a submission costs in production: parse the form, calculate the bill of material,
+ * hold a pooled connection for the inserts and then wait on SendGrid. The database and SendGrid are simulated
+ * with sleeps, and the connection pool with a semaphore of the same size as Hikari's.
+ * Options as key=value arguments: clients, seconds, pool, dbMillis, mailMillis.
+ */
+public class QuoteSubmissionLoadTest
+{
+    private static final String FORM = "carportWidth=600&carportLength=780&roofType=TRAPEZ_ROOF&shedWidth=530&shedLength=210";
+
+    private final int clients;
+    private final int seconds;
+    private final int dbMillis;
+    private final int mailMillis;
+    private final Semaphore connections;
+    private final ICarportService carportService = new CarportService(null);
+    private final IBomService bomService = new BomService(new InMemoryMaterialVariantMapper());
+
+    public QuoteSubmissionLoadTest(Map<String, Integer> options)
+    {
+        this.clients = options.getOrDefault("clients", 800);
+        this.seconds = options.getOrDefault("seconds", 15);
+        this.dbMillis = options.getOrDefault("dbMillis", 3);
+        this.mailMillis = options.getOrDefault("mailMillis", 150);
+        this.connections = new Semaphore(options.getOrDefault("pool", 10), true);
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        Map<String, Integer> options = new HashMap<>();
+
+        for (String arg : args)
+        {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], Integer.parseInt(option[1]));
+        }
+
+        QuoteSubmissionLoadTest loadTest = new QuoteSubmissionLoadTest(options);
+
+        for (boolean useVirtualThreads : List.of(false, true))
+        {
+            loadTest.run(useVirtualThreads);
+        }
+    }
+
+    private void run(boolean useVirtualThreads) throws InterruptedException
+    {
+        Javalin app = Javalin.create(config -> config.useVirtualThreads = useVirtualThreads)
+                .post("/request-carport", this::submitQuote)
+                .start(0);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + "/request-carport"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(FORM))
+                .build();
+
+        // Warm-up so class loading and the JIT do not count against the first run
+        runClients(request, Math.min(clients, 50), 3);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongAdder failures = runClients(request, clients, seconds, histogram);
+
+        // Percentiles are bucket upper bounds, so cap them at the largest latency actually seen
+        double maxMillis = histogram.getMaxMillis();
+
+        System.out.printf("%-9s threads: %d clients, %6.0f quotes/s, p50 <= %.0f ms, p99 <= %.0f ms, max %.0f ms, %d failed%n",
+                useVirtualThreads ? "virtual" : "platform",
+                clients,
+                histogram.getCount() / (double) seconds,
+                Math.min(histogram.getPercentileMillis(50), maxMillis),
+                Math.min(histogram.getPercentileMillis(99), maxMillis),
+                maxMillis,
+                failures.sum());
+
+        app.stop();
+    }
+
+    private void submitQuote(Context ctx) throws Exception
+    {
+        int carportWidth = Integer.parseInt(ctx.formParam("carportWidth"));
+        int carportLength = Integer.parseInt(ctx.formParam("carportLength"));
+        Shed shed = carportService.createShedWithPlacement(carportWidth,
+                Integer.parseInt(ctx.formParam("shedWidth")),
+                Integer.parseInt(ctx.formParam("shedLength")));
+        Carport carport = new Carport(0, carportLength, carportWidth, RoofType.valueOf(ctx.formParam("roofType")), shed);
+        carportService.validateCarport(carport);
+
+        List<MaterialLine> billOfMaterial = bomService.getBillOfMaterialByCarport(carport);
+        PricingDetails pricingDetails = bomService.calculateCarportPrice(billOfMaterial);
+
+        // Carport, shed, order and material line inserts on one pooled connection
+        connections.acquire();
+
+        try
+        {
+            Thread.sleep(dbMillis);
+        }
+        finally
+        {
+            connections.release();
+        }
+
+        // SendGrid request confirmation
+        Thread.sleep(mailMillis);
+
+        ctx.result(String.valueOf(pricingDetails.getTotalPrice()));
+    }
+
+    private void runClients(HttpRequest request, int clientCount, int durationSeconds) throws InterruptedException
+    {
+        runClients(request, clientCount, durationSeconds, new LatencyHistogram());
+    }
+
+    private LongAdder runClients(HttpRequest request, int clientCount, int durationSeconds, LatencyHistogram histogram) throws InterruptedException
+    {
+        LongAdder failures = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            for (int i = 0; i < clientCount; i++)
+            {
+                // Ramp up over about a second instead of opening every connection in the same instant
+                Thread.sleep(Math.max(1, 1000 / clientCount));
+
+                executor.execute(() ->
+                {
+                    while (System.nanoTime() < deadline)
+                    {
+                        long start = System.nanoTime();
+
+                        try
+                        {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+
+                            if (response.statusCode() == 200)
+                            {
+                                histogram.recordNanos(System.nanoTime() - start);
+                            }
+                            else
+                            {
+                                failures.increment();
+                            }
+                        }
+                        catch (Exception e)
+                        {
+                            failures.increment();
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS);
+        }
+        return failures;
+    }
+}
@@ -1,13 +1,22 @@
 package app;
 
 import app.config.SessionConfig;
+import app.config.StreamingTemplateRenderer;
 import app.config.ThymeleafConfig;
 import app.controllers.*;
+import app.exceptions.DatabaseException;
 import app.persistence.*;
 import app.services.*;
+import app.util.AppProperties;
 import app.util.BeforeHandlersUtil;
+import app.util.RequestMetrics;
 import io.javalin.Javalin;
+import io.javalin.rendering.FileRenderer;
 import io.javalin.rendering.template.JavalinThymeleaf;
+import org.thymeleaf.TemplateEngine;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class Main
 {
@@ -20,13 +29,32 @@ public class Main
 
     public static void main(String[] args)
     {
+        IEmailService emailService = createEmailService();
+
+        if (emailService == null || !migrateDatabase())
+        {
+            connectionPool.close();
+            return;
+        }
+
+        boolean useVirtualThreads = useVirtualThreads();
+        TemplateEngine templateEngine = ThymeleafConfig.templateEngine();
+
+        if (ThymeleafConfig.isCacheEnabled())
+        {
+            ThymeleafConfig.warmUp(templateEngine);
+        }
+
         Javalin app = Javalin.create(config ->
         {
+            config.useVirtualThreads = useVirtualThreads;
             config.staticFiles.add("/public");
             config.jetty.modifyServletContextHandler(handler ->  handler.setSessionHandler(SessionConfig.sessionConfig()));
-            config.fileRenderer(new JavalinThymeleaf(ThymeleafConfig.templateEngine()));
+            config.fileRenderer(timedFileRenderer(new JavalinThymeleaf(templateEngine)));
         }).start(7070);
 
+        Logger.getLogger("web").log(Level.INFO, useVirtualThreads ? "Requests håndteres på virtuelle tråde" : "Requests håndteres på Jettys platformtråde");
+
         UserMapper userMapper = new UserMapper(connectionPool);
         ZipCodeMapper zipCodeMapper = new ZipCodeMapper(connectionPool);
         ShedMapper shedMapper = new ShedMapper(connectionPool);
@@ -35,21 +63,42 @@ public class Main
         MaterialLineMapper materialLineMapper = new MaterialLineMapper(connectionPool);
         MaterialMapper materialMapper = new MaterialMapper(connectionPool);
         OrderMapper orderMapper = new OrderMapper(connectionPool);
+        EmailOutboxMapper emailOutboxMapper = new EmailOutboxMapper(connectionPool);
+        MaterialImportMapper materialImportMapper = new MaterialImportMapper(connectionPool);
 
-        IBomService bomService = new BomService(materialVariantMapper);
-        IUserService userService = new UserService(userMapper, zipCodeMapper);
+        IMaterialCatalogService materialCatalogService = new MaterialCatalogService(materialVariantMapper);
         ICarportService carportService = new CarportService(carportMapper);
-        IEmailService emailService = new SendGridEmailService();
-        IMaterialService materialService = new MaterialService(materialLineMapper, materialVariantMapper, materialMapper, connectionPool);
-        IOrderService orderService = new OrderService(userMapper, materialLineMapper, shedMapper, carportMapper, orderMapper, bomService, emailService, connectionPool);
+        PrecomputedBomService bomService = new PrecomputedBomService(new BomService(materialCatalogService), materialCatalogService, carportService);
+        IZipCodeService zipCodeService = new ZipCodeService(zipCodeMapper);
+        PasswordHasher passwordHasher = new PasswordHasher(
+                chooseBcryptCost(),
+                AppProperties.getInt("password.hashing.threads", Runtime.getRuntime().availableProcessors()),
+                AppProperties.getInt("password.hashing.queue.size", 64),
+                AppProperties.getInt("password.hashing.timeout.millis", 5000));
+        IUserService userService = new UserService(userMapper, zipCodeService, passwordHasher);
+        IMaterialService materialService = new MaterialService(materialLineMapper, materialVariantMapper, materialMapper, materialImportMapper, materialCatalogService, connectionPool);
+        OrderStatusCounter orderStatusCounter = new OrderStatusCounter(orderMapper);
+        IOrderService orderService = new OrderService(materialLineMapper, shedMapper, carportMapper, orderMapper, bomService, emailOutboxMapper, orderStatusCounter, connectionPool);
+        OrderExpiryScheduler orderExpiryScheduler = new OrderExpiryScheduler(orderMapper, orderStatusCounter,
+                AppProperties.getInt("order.expiry.interval.minutes", 5),
+                AppProperties.getInt("order.expiry.batch.size", 500));
+        EmailOutboxDispatcher emailOutboxDispatcher = new EmailOutboxDispatcher(emailOutboxMapper, userMapper, orderService, emailService,
+                AppProperties.getInt("email.outbox.interval.seconds", 10),
+                AppProperties.getInt("email.outbox.batch.size", 50),
+                AppProperties.getInt("email.outbox.max.attempts", 8));
 
         UserController userController = new UserController(userService);
-        CarportController carportController = new CarportController(carportService, userService, emailService, orderService);
+        CarportController carportController = new CarportController(carportService, userService, orderService, bomService);
         SellerController sellerController = new SellerController(orderService, carportService, materialService);
-        CustomerController customerController = new CustomerController(orderService, carportService, emailService);
-        OrderController orderController = new OrderController(orderService, carportService);
-        MaterialController materialController = new MaterialController(materialService);
+        CustomerController customerController = new CustomerController(orderService, carportService);
+        StreamingTemplateRenderer streamingTemplateRenderer = new StreamingTemplateRenderer(templateEngine,
+                AppProperties.getBoolean("thymeleaf.streaming.enabled", true));
+
+        OrderController orderController = new OrderController(orderService, carportService, streamingTemplateRenderer);
+        MaterialController materialController = new MaterialController(materialService, streamingTemplateRenderer);
+        MetricsController metricsController = new MetricsController(connectionPool, carportService, orderExpiryScheduler, bomService, emailOutboxDispatcher, templateEngine, passwordHasher);
 
+        metricsController.addRoutes(app);
         app.before(ctx -> BeforeHandlersUtil.addBagdeCount(ctx, orderService));
         userController.addRoutes(app);
         carportController.addRoutes(app);
@@ -57,5 +106,126 @@ public class Main
         customerController.addRoutes(app);
         orderController.addRoutes(app);
         materialController.addRoutes(app);
+
+        loadZipCodes(zipCodeService);
+        orderExpiryScheduler.start();
+        emailOutboxDispatcher.start();
+
+        if (AppProperties.getBoolean("bom.table.warmup", false))
+        {
+            bomService.startWarmUp();
+        }
+
+        app.events(event -> event.serverStopping(() ->
+        {
+            orderExpiryScheduler.stop();
+            emailOutboxDispatcher.stop();
+            bomService.stop();
+            passwordHasher.stop();
+        }));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> app.stop()));
+    }
+
+    /***
+     * Every ctx.render is recorded as a span, so template rendering shows up in the request metrics.
+     */
+    private static FileRenderer timedFileRenderer(FileRenderer fileRenderer)
+    {
+        return (filePath, model, ctx) ->
+        {
+            try (RequestMetrics.Span span = RequestMetrics.span("ctx.render"))
+            {
+                return fileRenderer.render(filePath, model, ctx);
+            }
+        };
+    }
+
+    /***
+     * Applies pending schema migrations before anything touches the database. Set db.migrate.enabled=false
+     * when the schema is managed by hand.
+     * @return false when the database could not be migrated and the app should not start
+     */
+    private static boolean migrateDatabase()
+    {
+        if (!AppProperties.getBoolean("db.migrate.enabled", true))
+        {
+            return true;
+        }
+
+        try
+        {
+            new MigrationRunner(connectionPool).migrate();
+            return true;
+        }
+        catch (DatabaseException e)
+        {
+            Logger.getLogger("web").log(Level.SEVERE, "Databasen kunne ikke migreres, appen startes ikke: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /***
+     * Loads the zip codes once the migrations have run. If the database is not reachable yet,
+     * they are loaded by the first lookup instead.
+     */
+    private static void loadZipCodes(IZipCodeService zipCodeService)
+    {
+        try
+        {
+            zipCodeService.reloadZipCodes();
+        }
+        catch (DatabaseException e)
+        {
+            Logger.getLogger("web").log(Level.WARNING, "Postnumrene kunne ikke indlæses ved opstart: " + e.getMessage());
+        }
+    }
+
+    /***
+     * With password.bcrypt.target.millis set, the cost is the highest one that hashes within that
+     * budget on this machine, so the same setting fits a laptop and the production server.
+     * Existing hashes are moved to the chosen cost as their users log in.
+     */
+    private static int chooseBcryptCost()
+    {
+        int targetMillis = AppProperties.getInt("password.bcrypt.target.millis", 0);
+
+        if (targetMillis <= 0)
+        {
+            return AppProperties.getInt("password.bcrypt.cost", 10);
+        }
+        return PasswordHasher.benchmarkCost(targetMillis,
+                AppProperties.getInt("password.bcrypt.min.cost", 10),
+                AppProperties.getInt("password.bcrypt.max.cost", 16));
+    }
+
+    /***
+     * The fake that only logs emails is opt-in with email.fake.enabled=true, for running the app offline.
+     * Otherwise a SendGrid API key is required, and null is returned so the app refuses to start without one.
+     */
+    private static IEmailService createEmailService()
+    {
+        if (AppProperties.getBoolean("email.fake.enabled", false))
+        {
+            Logger.getLogger("web").log(Level.WARNING, "email.fake.enabled er slået til, emails bliver kun logget og ikke sendt");
+            return new FakeEmailService();
+        }
+
+        String apiKey = System.getenv("SENDGRID_API_KEY");
+
+        if (apiKey == null || apiKey.isBlank())
+        {
+            Logger.getLogger("web").log(Level.SEVERE, "SENDGRID_API_KEY er ikke sat. Sæt den, eller slå email.fake.enabled til for at køre uden at sende emails");
+            return null;
+        }
+        return new SendGridEmailService();
+    }
+
+    /***
+     * Opt-in with the environment variable VIRTUAL_THREADS=true. Each request then runs on its own
+     * virtual thread, so blocking JDBC and SendGrid calls no longer tie up one of Jetty's platform threads.
+     */
+    private static boolean useVirtualThreads()
+    {
+        return Boolean.parseBoolean(System.getenv("VIRTUAL_THREADS"));
     }
 }
@@ -0,0 +1,68 @@
+package app.config;
+
+import app.util.RequestMetrics;
+import io.javalin.http.Context;
+import org.thymeleaf.IThrottledTemplateProcessor;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.IServletWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/***
+ * Renders a template straight into the response instead of building the whole page as one String
+ * like ctx.render does. Thymeleaf's throttled processor renders a chunk at a time, and every chunk
+ * is flushed, so Jetty sends the page with chunked transfer encoding while the th:each over a long
+ * list is still running. Used for the large admin listings; thymeleaf.streaming.enabled=false
+ * falls back to ctx.render.
+ */
+public class StreamingTemplateRenderer
+{
+    private static final int CHUNK_SIZE_BYTES = 16 * 1024;
+
+    private final TemplateEngine templateEngine;
+    private final boolean enabled;
+
+    public StreamingTemplateRenderer(TemplateEngine templateEngine, boolean enabled)
+    {
+        this.templateEngine = templateEngine;
+        this.enabled = enabled;
+    }
+
+    /***
+     * The model is read from the request attributes, as with ctx.render. The response is committed
+     * with the first chunk, so everything that can fail must be done before this is called.
+     */
+    public void render(Context ctx, String templateName) throws IOException
+    {
+        if (!enabled)
+        {
+            ctx.render(templateName);
+            return;
+        }
+
+        IServletWebExchange exchange = JakartaServletWebApplication.buildApplication(ctx.req().getServletContext())
+                .buildExchange(ctx.req(), ctx.res());
+        WebContext context = new WebContext(exchange, exchange.getLocale(), new HashMap<>());
+
+        ctx.contentType("text/html; charset=utf-8");
+
+        try (RequestMetrics.Span span = RequestMetrics.span("ctx.render"))
+        {
+            IThrottledTemplateProcessor processor = templateEngine.processThrottled(templateName, context);
+            // Thymeleaf writes in small pieces, and Javalin decides on gzip from the size of the first write
+            OutputStream output = new BufferedOutputStream(ctx.outputStream(), CHUNK_SIZE_BYTES);
+
+            while (!processor.isFinished())
+            {
+                processor.process(CHUNK_SIZE_BYTES, output, StandardCharsets.UTF_8);
+                output.flush();
+            }
+        }
+    }
+}
@@ -1,17 +1,190 @@
 package app.config;
 
+import app.dto.CacheStatisticsDTO;
+import app.util.AppProperties;
 import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.TemplateSpec;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.StandardCache;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.context.IWebContext;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.linkbuilder.StandardLinkBuilder;
+import org.thymeleaf.templatemode.TemplateMode;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.*;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/***
+ * In production (thymeleaf.cache.enabled, default true) parsed templates are cached for good,
+ * or for thymeleaf.cache.ttl.seconds, and every template is parsed once by warmUp() at startup.
+ * Set thymeleaf.cache.enabled=false while developing to see template changes without a restart.
+ */
 public class ThymeleafConfig
 {
+    private static final String TEMPLATE_FOLDER = "templates";
+    private static final String TEMPLATE_SUFFIX = ".html";
+    private static final Locale DANISH = Locale.forLanguageTag("da-DK");
+
     public static TemplateEngine templateEngine()
     {
         TemplateEngine templateEngine = new TemplateEngine();
         ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
-        templateResolver.setPrefix("/templates/");
-        templateResolver.setSuffix(".html");
+        templateResolver.setPrefix("/" + TEMPLATE_FOLDER + "/");
+        templateResolver.setSuffix(TEMPLATE_SUFFIX);
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding("UTF-8");
+        templateResolver.setCacheable(isCacheEnabled());
+
+        int cacheTtlSeconds = AppProperties.getInt("thymeleaf.cache.ttl.seconds", 0);
+
+        if (cacheTtlSeconds > 0)
+        {
+            templateResolver.setCacheTTLMs(cacheTtlSeconds * 1000L);
+        }
         templateEngine.setTemplateResolver(templateResolver);
+
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(AppProperties.getInt("thymeleaf.template.cache.size", 200));
+        cacheManager.setExpressionCacheMaxSize(AppProperties.getInt("thymeleaf.expression.cache.size", 500));
+        cacheManager.setTemplateCacheEnableCounters(true);
+        cacheManager.setExpressionCacheEnableCounters(true);
+        templateEngine.setCacheManager(cacheManager);
+
+        // Pages always render with a web context, only the warm-up renders without one
+        templateEngine.setLinkBuilder(new StandardLinkBuilder()
+        {
+            @Override
+            protected String computeContextPath(IExpressionContext context, String base, Map<String, Object> parameters)
+            {
+                return context instanceof IWebContext ? super.computeContextPath(context, base, parameters) : "";
+            }
+        });
         return templateEngine;
     }
-}
\ No newline at end of file
+
+    public static boolean isCacheEnabled()
+    {
+        return AppProperties.getBoolean("thymeleaf.cache.enabled", true);
+    }
+
+    /***
+     * Renders every template once without a model, so the first visitor does not pay for parsing.
+     * A template is parsed completely before it is rendered, so it is cached even when rendering stops
+     * at a value only a real request has; fragments are cached per page as far as rendering gets.
+     * The template manager is called directly, since TemplateEngine.process logs every one of those
+     * expected stops as an ERROR with a stack trace, which would look like a real failure at startup.
+     * @return the number of templates parsed
+     */
+    public static int warmUp(TemplateEngine templateEngine)
+    {
+        long start = System.nanoTime();
+        List<String> templateNames = findTemplateNames();
+        Context context = new Context(DANISH);
+        context.setVariable("session", Map.of());
+        TemplateManager templateManager = templateEngine.getConfiguration().getTemplateManager();
+        int partial = 0;
+
+        for (String templateName : templateNames)
+        {
+            try
+            {
+                // The same spec as TemplateEngine.process(String, ...), so the warm-up fills the entries pages use
+                templateManager.parseAndProcess(new TemplateSpec(templateName, (Map<String, Object>) null), context, Writer.nullWriter());
+            }
+            catch (RuntimeException e)
+            {
+                partial++;
+                Logger.getLogger("web").log(Level.FINE, "Skabelonen " + templateName + " blev kun delvist varmet op: " + e.getMessage());
+            }
+        }
+
+        Logger.getLogger("web").log(Level.INFO, String.format("%d Thymeleaf skabeloner varmet op på %d ms (%d kun delvist)",
+                templateNames.size(), (System.nanoTime() - start) / 1_000_000, partial));
+        return templateNames.size();
+    }
+
+    /***
+     * @return statistics for the cache of parsed templates and the cache of parsed expressions
+     */
+    public static List<CacheStatisticsDTO> getCacheStatistics(TemplateEngine templateEngine)
+    {
+        List<CacheStatisticsDTO> statistics = new ArrayList<>();
+        addCacheStatistics(statistics, templateEngine.getCacheManager().getTemplateCache());
+        addCacheStatistics(statistics, templateEngine.getCacheManager().getExpressionCache());
+        return statistics;
+    }
+
+    static List<String> findTemplateNames()
+    {
+        URL folder = Thread.currentThread().getContextClassLoader().getResource(TEMPLATE_FOLDER);
+
+        if (folder == null)
+        {
+            return List.of();
+        }
+
+        try
+        {
+            URI uri = folder.toURI();
+
+            if (!"jar".equals(uri.getScheme()))
+            {
+                return listTemplateNames(Path.of(uri));
+            }
+
+            // Inside the shaded jar the folder has to be opened as a zip file system
+            try (FileSystem jar = FileSystems.newFileSystem(uri, Map.of()))
+            {
+                return listTemplateNames(jar.getPath(TEMPLATE_FOLDER));
+            }
+        }
+        catch (IOException | URISyntaxException e)
+        {
+            Logger.getLogger("web").log(Level.WARNING, "Kunne ikke finde Thymeleaf skabelonerne: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static List<String> listTemplateNames(Path folder) throws IOException
+    {
+        try (Stream<Path> files = Files.list(folder))
+        {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(fileName -> fileName.endsWith(TEMPLATE_SUFFIX))
+                    .map(fileName -> fileName.substring(0, fileName.length() - TEMPLATE_SUFFIX.length()))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /***
+     * Thymeleaf does not count evictions, so entries that were put but are no longer cached are counted instead
+     */
+    private static void addCacheStatistics(List<CacheStatisticsDTO> statistics, ICache<?, ?> cache)
+    {
+        if (cache instanceof StandardCache<?, ?> standardCache)
+        {
+            statistics.add(new CacheStatisticsDTO(
+                    standardCache.getName(),
+                    standardCache.size(),
+                    standardCache.getMaxSize(),
+                    standardCache.getHitCount(),
+                    standardCache.getMissCount(),
+                    Math.max(standardCache.getPutCount() - standardCache.size(), 0),
+                    standardCache.getGetCount() == 0 ? 0 : standardCache.getHitRatio()
+            ));
+        }
+    }
+}
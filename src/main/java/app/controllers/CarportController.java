@@ -1,34 +1,40 @@
 package app.controllers;
 
 import app.dto.CreateOrderRequestDTO;
+import app.dto.PricePreviewDTO;
 import app.dto.UserDTO;
 import app.entities.*;
 import app.enums.Role;
 import app.enums.RoofType;
 import app.exceptions.DatabaseException;
+import app.exceptions.MaterialNotFoundException;
 import app.services.*;
-import app.services.svg.CarportSvgSide;
-import app.services.svg.CarportSvgTop;
+import app.util.CarportDimensions;
+import app.util.PriceFormatUtil;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class CarportController
 {
     private ICarportService carportService;
     private IUserService userService;
-    private IEmailService emailService;
     private IOrderService orderService;
+    private IBomService bomService;
 
-    public CarportController(ICarportService carportService, IUserService userService, IEmailService emailService, IOrderService orderService)
+    public CarportController(ICarportService carportService, IUserService userService, IOrderService orderService, IBomService bomService)
     {
         this.carportService = carportService;
         this.userService = userService;
-        this.emailService = emailService;
         this.orderService = orderService;
+        this.bomService = bomService;
     }
 
     public void addRoutes(Javalin app)
@@ -38,6 +44,7 @@ public class CarportController
         app.get("/request-offer-contact", ctx -> showRequestOfferContact(ctx));
         app.get("/show-carport-drawing/{id}", ctx -> showCarportDrawing(ctx));
         app.get("/requests/{id}/update-carport", ctx -> showUpdateCarportFormular(ctx));
+        app.get("/api/carport/price-preview", ctx -> showPricePreview(ctx));
 
         app.post("/request-carport", ctx -> handleCarportRequest(ctx));
         app.post("/confirm-request", ctx -> confirmCarportRequest(ctx));
@@ -140,8 +147,8 @@ public class CarportController
         {
             Order order = orderService.getOrderById(orderId);
             Carport carport = carportService.getCarportByCarportId(order.getCarportId());
-            CarportSvgTop carportSvgTop = carportService.getCarportTopSvgView(carport);
-            CarportSvgSide carportSvgSide = carportService.getCarportSideSvgView(carport);
+            String carportSvgTop = carportService.getCarportTopSvgView(carport);
+            String carportSvgSide = carportService.getCarportSideSvgView(carport);
 
             displayMessages(ctx);
             ctx.attribute("order", order);
@@ -221,8 +228,8 @@ public class CarportController
                     customerNote
             );
 
+            // The request confirmation is queued with the order and sent by the outbox dispatcher
             Order createdOrder = orderService.createPendingOrder(createOrderRequest);
-            emailService.sendRequestConfirmation(userFromContactPage);
 
             ctx.sessionAttribute("order", createdOrder);
             ctx.render("request-confirmation");
@@ -262,6 +269,59 @@ public class CarportController
         }
     }
 
+    /***
+     * Indicative price while the customer picks dimensions on the carport form.
+     * Only the dimensions the form offers are accepted, so the lookup is served from the
+     * precomputed bill of material table and the cached catalog without touching the database.
+     */
+    private void showPricePreview(Context ctx)
+    {
+        try
+        {
+            Carport carport = buildCarport(ctx::queryParam);
+
+            if (!isFormDimension(carport))
+            {
+                throw new IllegalArgumentException("Målene findes ikke i vores standardprogram");
+            }
+
+            List<MaterialLine> billOfMaterial = bomService.getBillOfMaterialByCarport(carport);
+            PricingDetails pricingDetails = bomService.calculateCarportPrice(billOfMaterial);
+
+            ctx.header("Cache-Control", "private, max-age=60");
+            ctx.json(new PricePreviewDTO(
+                    carport.getLength(),
+                    carport.getWidth(),
+                    pricingDetails.getPriceWithoutVat(),
+                    pricingDetails.getTotalPrice(),
+                    PriceFormatUtil.getFormattedPrice(pricingDetails.getTotalPrice())
+            ));
+        }
+        catch (NumberFormatException e)
+        {
+            ctx.status(HttpStatus.BAD_REQUEST).json(Map.of("error", "Mål skal være et tal"));
+        }
+        catch (IllegalArgumentException e)
+        {
+            ctx.status(HttpStatus.BAD_REQUEST).json(Map.of("error", e.getMessage()));
+        }
+        catch (DatabaseException | MaterialNotFoundException e)
+        {
+            Logger.getLogger("web").log(Level.WARNING, "Kunne ikke beregne vejledende pris: " + e.getMessage());
+            ctx.status(HttpStatus.SERVICE_UNAVAILABLE).json(Map.of("error", "Prisen kan ikke beregnes lige nu"));
+        }
+    }
+
+    private boolean isFormDimension(Carport carport)
+    {
+        Shed shed = carport.getShed();
+
+        return CarportDimensions.getCarportWidths().contains(carport.getWidth())
+                && CarportDimensions.getCarportLengths().contains(carport.getLength())
+                && (shed == null || (CarportDimensions.getShedWidths().contains(shed.getWidth())
+                && CarportDimensions.getShedLengths().contains(shed.getLength())));
+    }
+
     private void showCarportFormular(Context ctx)
     {
         if(!requireLogin(ctx)) {return;}
@@ -273,17 +333,10 @@ public class CarportController
 
     private void fillCarportDimensionAttributes(Context ctx)
     {
-        List<Integer> carportWidthDimensions = getDimensionFromTo(240, 600, 30);
-        ctx.attribute("carportWidths", carportWidthDimensions);
-
-        List<Integer> carportLengthDimensions = getDimensionFromTo(240, 780, 30);
-        ctx.attribute("carportLengths", carportLengthDimensions);
-
-        List<Integer> shedWidthDimensions = getDimensionFromTo(200, 530, 30);
-        ctx.attribute("shedWidths", shedWidthDimensions);
-
-        List<Integer> shedLengthDimensions = getDimensionFromTo(150, 720, 30);
-        ctx.attribute("shedLengths", shedLengthDimensions);
+        ctx.attribute("carportWidths", CarportDimensions.getCarportWidths());
+        ctx.attribute("carportLengths", CarportDimensions.getCarportLengths());
+        ctx.attribute("shedWidths", CarportDimensions.getShedWidths());
+        ctx.attribute("shedLengths", CarportDimensions.getShedLengths());
     }
 
     private void showBuildCarportPage(Context ctx)
@@ -294,11 +347,16 @@ public class CarportController
 
     private Carport buildCarportFromRequest(Context ctx)
     {
-        int carportWidth = Integer.parseInt(ctx.formParam("carportWidth").trim());
-        int carportLength = Integer.parseInt(ctx.formParam("carportLength").trim());
-        String roofType = ctx.formParam("roofType").trim();
-        String shedWidthString = ctx.formParam("shedWidth").trim();
-        String shedLengthString = ctx.formParam("shedLength").trim();
+        return buildCarport(ctx::formParam);
+    }
+
+    private Carport buildCarport(Function<String, String> parameters)
+    {
+        int carportWidth = Integer.parseInt(getRequiredParameter(parameters, "carportWidth"));
+        int carportLength = Integer.parseInt(getRequiredParameter(parameters, "carportLength"));
+        String roofType = getRequiredParameter(parameters, "roofType");
+        String shedWidthString = getRequiredParameter(parameters, "shedWidth");
+        String shedLengthString = getRequiredParameter(parameters, "shedLength");
 
         Shed shed = null;
 
@@ -325,15 +383,15 @@ public class CarportController
         return carport;
     }
 
-    private List<Integer> getDimensionFromTo(int from, int to, int increment)
+    private String getRequiredParameter(Function<String, String> parameters, String name)
     {
-        List<Integer> dimensions = new ArrayList<>();
+        String value = parameters.apply(name);
 
-        for(int i = from; i <= to; i+= increment)
+        if (value == null || value.isBlank())
         {
-            dimensions.add(i);
+            throw new IllegalArgumentException("Alle carport mål skal være udfyldt");
         }
-        return dimensions;
+        return value.trim();
     }
 
     private boolean requireLogin(Context ctx)
@@ -4,14 +4,10 @@ import app.dto.CustomerOfferDTO;
 import app.dto.OrderOverviewDTO;
 import app.dto.UserDTO;
 import app.entities.Order;
-import app.entities.OrderDetail;
 import app.enums.OrderStatus;
 import app.exceptions.DatabaseException;
 import app.services.ICarportService;
-import app.services.IEmailService;
 import app.services.IOrderService;
-import app.services.svg.CarportSvgSide;
-import app.services.svg.CarportSvgTop;
 import app.util.PriceFormatUtil;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
@@ -24,13 +20,11 @@ public class CustomerController
 
     private IOrderService orderService;
     private ICarportService carportService;
-    private IEmailService emailService;
 
-    public CustomerController(IOrderService orderService, ICarportService carportService, IEmailService emailService)
+    public CustomerController(IOrderService orderService, ICarportService carportService)
     {
         this.orderService = orderService;
         this.carportService = carportService;
-        this.emailService = emailService;
     }
 
     public void addRoutes(Javalin app)
@@ -87,8 +81,8 @@ public class CustomerController
         try
         {
             CustomerOfferDTO offer = orderService.getCustomerOfferByOrderId(orderId);
-            CarportSvgTop carportSvgTop = carportService.getCarportTopSvgView(offer.carport());
-            CarportSvgSide carportSvgSide = carportService.getCarportSideSvgView(offer.carport());
+            String carportSvgTop = carportService.getCarportTopSvgView(offer.carport());
+            String carportSvgSide = carportService.getCarportSideSvgView(offer.carport());
 
             ctx.attribute("carportSvgTop", carportSvgTop);
             ctx.attribute("carportSvgSide", carportSvgSide);
@@ -111,21 +105,25 @@ public class CustomerController
             return;
         }
         int orderId = Integer.parseInt(ctx.pathParam("id"));
-        UserDTO currentUser =  ctx.sessionAttribute("currentUser");
 
         try
         {
             Order order = orderService.getOrderById(orderId);
-            order.setOrderStatus(orderStatus);
-            boolean isUpdated = orderService.updateOrder(order);
+            boolean isUpdated;
+
+            if (orderStatus == OrderStatus.PAID)
+            {
+                // The order confirmation is queued in the same transaction and sent in the background
+                isUpdated = orderService.acceptOffer(order);
+            }
+            else
+            {
+                order.setOrderStatus(orderStatus);
+                isUpdated = orderService.updateOrder(order);
+            }
 
             if (isUpdated)
             {
-                if(orderStatus == OrderStatus.PAID)
-                {
-                    OrderDetail orderDetail = orderService.getOrderDetailByOrderId(orderId);
-                    emailService.sendOrderConfirmation(currentUser, orderDetail);
-                }
                 ctx.sessionAttribute("successMessage", "Tilbuddet er " + acceptOrDeny);
                 ctx.redirect("/my-page");
             }
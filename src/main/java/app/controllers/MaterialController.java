@@ -1,8 +1,11 @@
 package app.controllers;
 
+import app.config.StreamingTemplateRenderer;
+import app.dto.MaterialImportResultDTO;
 import app.dto.UserDTO;
 import app.entities.Material;
 import app.entities.MaterialVariant;
+import app.enums.ImportFormat;
 import app.enums.MaterialCategory;
 import app.enums.MaterialType;
 import app.enums.Role;
@@ -11,16 +14,21 @@ import app.services.IMaterialService;
 import app.util.ValidationUtil;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
+import io.javalin.http.UploadedFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 public class MaterialController
 {
     private IMaterialService materialService;
+    private StreamingTemplateRenderer streamingTemplateRenderer;
 
-    public MaterialController(IMaterialService materialService)
+    public MaterialController(IMaterialService materialService, StreamingTemplateRenderer streamingTemplateRenderer)
     {
         this.materialService = materialService;
+        this.streamingTemplateRenderer = streamingTemplateRenderer;
     }
 
     public void addRoutes(Javalin app)
@@ -28,10 +36,57 @@ public class MaterialController
         app.get("/materials", ctx -> showMaterialsPage(ctx));
         app.get("/materials/{id}/update-material", ctx -> showUpdateMaterialPage(ctx));
         app.get("/materials/create", ctx -> showCreateMaterialPage(ctx));
+        app.get("/materials/import", ctx -> showImportMaterialsPage(ctx));
 
         app.post("/materials/create/material", ctx -> handleCreateMaterial(ctx));
         app.post("/materials/{id}/update", ctx -> handleUpdateMaterial(ctx));
         app.post("/materials/{id}/delete-material", ctx -> handleDeleteMaterial(ctx));
+        app.post("/materials/import", ctx -> handleImportMaterials(ctx));
+    }
+
+    private void handleImportMaterials(Context ctx)
+    {
+        if (!userIsAdmin(ctx)) {return;}
+
+        UploadedFile file = ctx.uploadedFile("file");
+        boolean onlyIfAllRowsValid = ctx.formParam("onlyIfAllRowsValid") != null;
+
+        if (file == null)
+        {
+            ctx.sessionAttribute("errorMessage", "Vælg en fil der skal importeres");
+            ctx.redirect("/materials/import");
+            return;
+        }
+
+        try (InputStream content = file.content())
+        {
+            MaterialImportResultDTO result = materialService.importMaterialVariants(content, ImportFormat.fromFileName(file.filename()), onlyIfAllRowsValid);
+
+            if (result.committed())
+            {
+                ctx.attribute("successMessage", "Importen af " + file.filename() + " er gennemført");
+            }
+            else
+            {
+                ctx.attribute("errorMessage", "Intet blev importeret fra " + file.filename());
+            }
+
+            ctx.attribute("result", result);
+            ctx.render("material-import");
+        }
+        catch (DatabaseException | IllegalArgumentException | IOException e)
+        {
+            ctx.sessionAttribute("errorMessage", e.getMessage());
+            ctx.redirect("/materials/import");
+        }
+    }
+
+    private void showImportMaterialsPage(Context ctx)
+    {
+        if (!userIsAdmin(ctx)){return;}
+
+        displayMessages(ctx);
+        ctx.render("material-import");
     }
 
     private void handleDeleteMaterial(Context ctx)
@@ -165,7 +220,7 @@ public class MaterialController
         }
     }
 
-    private void showMaterialsPage(Context ctx)
+    private void showMaterialsPage(Context ctx) throws IOException
     {
         if (!userIsAdmin(ctx)) {return;}
         displayMessages(ctx);
@@ -201,7 +256,7 @@ public class MaterialController
 
         ctx.attribute("variants", variants);
         ctx.attribute("hasSearched", hasSearched);
-        ctx.render("materials");
+        streamingTemplateRenderer.render(ctx, "materials");
     }
 
     private MaterialVariant buildVariantFromForm(Context ctx)
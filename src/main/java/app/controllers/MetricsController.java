@@ -0,0 +1,212 @@
+package app.controllers;
+
+import app.config.ThymeleafConfig;
+import app.dto.UserDTO;
+import app.enums.Role;
+import app.persistence.ConnectionPool;
+import app.services.EmailOutboxDispatcher;
+import app.services.ICarportService;
+import app.services.OrderExpiryScheduler;
+import app.services.PasswordHasher;
+import app.services.PrecomputedBomService;
+import app.util.RequestMetrics;
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+import org.thymeleaf.TemplateEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+
+public class MetricsController
+{
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private ConnectionPool connectionPool;
+    private ICarportService carportService;
+    private OrderExpiryScheduler orderExpiryScheduler;
+    private PrecomputedBomService bomService;
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+    private TemplateEngine templateEngine;
+    private PasswordHasher passwordHasher;
+
+    public MetricsController(ConnectionPool connectionPool, ICarportService carportService, OrderExpiryScheduler orderExpiryScheduler, PrecomputedBomService bomService, EmailOutboxDispatcher emailOutboxDispatcher, TemplateEngine templateEngine, PasswordHasher passwordHasher)
+    {
+        this.connectionPool = connectionPool;
+        this.carportService = carportService;
+        this.orderExpiryScheduler = orderExpiryScheduler;
+        this.bomService = bomService;
+        this.emailOutboxDispatcher = emailOutboxDispatcher;
+        this.templateEngine = templateEngine;
+        this.passwordHasher = passwordHasher;
+    }
+
+    /***
+     * Also starts and finishes the request metrics around every request, so this should be added
+     * before the other before handlers for their queries to be counted.
+     */
+    public void addRoutes(Javalin app)
+    {
+        app.before(ctx -> RequestMetrics.startRequest());
+        app.after(ctx -> finishRequest(ctx));
+
+        app.get("/metrics", ctx -> showPrometheusMetrics(ctx));
+        app.get("/admin/metrics/pool", ctx -> showPoolStatistics(ctx));
+        app.get("/admin/metrics/svg-cache", ctx -> showDrawingCacheStatistics(ctx));
+        app.get("/admin/metrics/order-expiry", ctx -> showLastExpirySweep(ctx));
+        app.get("/admin/metrics/bom-table", ctx -> showBomTableStatistics(ctx));
+        app.get("/admin/metrics/email-outbox", ctx -> showLastEmailDispatch(ctx));
+        app.get("/admin/metrics/templates", ctx -> showTemplateCacheStatistics(ctx));
+        app.get("/admin/metrics/password-hashing", ctx -> showPasswordHashingStatistics(ctx));
+    }
+
+    /***
+     * Scraped by Prometheus with the header "Authorization: Bearer" followed by the METRICS_TOKEN
+     * environment variable. A logged in seller can open it in the browser without the token.
+     */
+    private void showPrometheusMetrics(Context ctx)
+    {
+        if (!userIsAdmin(ctx) && !hasMetricsToken(ctx))
+        {
+            ctx.status(HttpStatus.FORBIDDEN);
+            return;
+        }
+
+        ctx.contentType(PROMETHEUS_CONTENT_TYPE);
+        ctx.result(RequestMetrics.toPrometheusText());
+    }
+
+    private void finishRequest(Context ctx)
+    {
+        String route = ctx.endpointHandlerPath();
+
+        // Static files match "*" and unknown paths get a message instead of a route, neither may become its own label
+        if (!route.startsWith("/"))
+        {
+            route = ctx.status() == HttpStatus.NOT_FOUND ? "unmatched" : "static";
+        }
+
+        RequestMetrics.RequestTrace trace = RequestMetrics.finishRequest(ctx.method().name() + " " + route);
+
+        // Sellers get the breakdown of every page in the browser's network tab
+        if (trace != null && userIsAdmin(ctx))
+        {
+            ctx.header("Server-Timing", buildServerTiming(trace));
+        }
+    }
+
+    private String buildServerTiming(RequestMetrics.RequestTrace trace)
+    {
+        StringBuilder serverTiming = new StringBuilder(String.format(Locale.ROOT, "db;dur=%.2f;desc=\"%d queries\"", trace.getDbMillis(), trace.getDbCalls()));
+        trace.getSpanMillis().forEach((name, millis) -> serverTiming.append(String.format(Locale.ROOT, ", %s;dur=%.2f", name, millis)));
+        return serverTiming.toString();
+    }
+
+    private boolean hasMetricsToken(Context ctx)
+    {
+        String token = System.getenv("METRICS_TOKEN");
+        String authorization = ctx.header("Authorization");
+
+        if (token == null || token.isBlank() || authorization == null)
+        {
+            return false;
+        }
+        return MessageDigest.isEqual(("Bearer " + token).getBytes(StandardCharsets.UTF_8), authorization.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void showPoolStatistics(Context ctx)
+    {
+        if (!userIsAdmin(ctx))
+        {
+            ctx.status(HttpStatus.FORBIDDEN);
+            return;
+        }
+
+        ctx.json(connectionPool.getPoolStatistics());
+    }
+
+    private void showDrawingCacheStatistics(Context ctx)
+    {
+        if (!userIsAdmin(ctx))
+        {
+            ctx.status(HttpStatus.FORBIDDEN);
+            return;
+        }
+
+        ctx.json(carportService.getDrawingCacheStatistics());
+    }
+
+    private void showTemplateCacheStatistics(Context ctx)
+    {
+        if (!userIsAdmin(ctx))
+        {
+            ctx.status(HttpStatus.FORBIDDEN);
+            return;
+        }
+
+        ctx.json(ThymeleafConfig.getCacheStatistics(templateEngine));
+    }
+
+    private void showPasswordHashingStatistics(Context ctx)
+    {
+        if (!userIsAdmin(ctx))
+        {
+            ctx.status(HttpStatus.FORBIDDEN);
+            return;
+        }
+
+        ctx.json(passwordHasher.getStatistics());
+    }
+
+    private void showBomTableStatistics(Context ctx)
+    {
+        if (!userIsAdmin(ctx))
+        {
+            ctx.status(HttpStatus.FORBIDDEN);
+            return;
+        }
+
+        ctx.json(bomService.getStatistics());
+    }
+
+    private void showLastExpirySweep(Context ctx)
+    {
+        if (!userIsAdmin(ctx))
+        {
+            ctx.status(HttpStatus.FORBIDDEN);
+            return;
+        }
+
+        if (orderExpiryScheduler.getLastSweep() == null)
+        {
+            ctx.status(HttpStatus.NO_CONTENT);
+            return;
+        }
+
+        ctx.json(orderExpiryScheduler.getLastSweep());
+    }
+
+    private void showLastEmailDispatch(Context ctx)
+    {
+        if (!userIsAdmin(ctx))
+        {
+            ctx.status(HttpStatus.FORBIDDEN);
+            return;
+        }
+
+        if (emailOutboxDispatcher.getLastDispatch() == null)
+        {
+            ctx.status(HttpStatus.NO_CONTENT);
+            return;
+        }
+
+        ctx.json(emailOutboxDispatcher.getLastDispatch());
+    }
+
+    private boolean userIsAdmin(Context ctx)
+    {
+        UserDTO userDTO = ctx.sessionAttribute("currentUser");
+        return userDTO != null && userDTO.role().equals(Role.SALESREP);
+    }
+}
@@ -1,6 +1,8 @@
 package app.controllers;
 
-import app.dto.OrderOverviewDTO;
+import app.config.StreamingTemplateRenderer;
+import app.dto.OrderOverviewPageDTO;
+import app.dto.OrderPageCursor;
 import app.dto.UserDTO;
 import app.entities.OrderDetail;
 import app.enums.OrderStatus;
@@ -8,12 +10,12 @@ import app.enums.Role;
 import app.exceptions.DatabaseException;
 import app.services.ICarportService;
 import app.services.IOrderService;
-import app.services.svg.CarportSvgSide;
-import app.services.svg.CarportSvgTop;
+import app.util.PaginationUtil;
 import app.util.PriceFormatUtil;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -22,11 +24,13 @@ public class OrderController
 {
     private IOrderService orderService;
     private ICarportService carportService;
+    private StreamingTemplateRenderer streamingTemplateRenderer;
 
-    public OrderController(IOrderService orderService, ICarportService carportService)
+    public OrderController(IOrderService orderService, ICarportService carportService, StreamingTemplateRenderer streamingTemplateRenderer)
     {
         this.orderService = orderService;
         this.carportService = carportService;
+        this.streamingTemplateRenderer = streamingTemplateRenderer;
     }
 
     public void addRoutes(Javalin app)
@@ -80,8 +84,8 @@ public class OrderController
         try
         {
             OrderDetail orderDetail = orderService.getOrderDetailByOrderId(orderId);
-            CarportSvgTop carportSvgTop = carportService.getCarportTopSvgView(orderDetail.getCarport());
-            CarportSvgSide carportSvgSide = carportService.getCarportSideSvgView(orderDetail.getCarport());
+            String carportSvgTop = carportService.getCarportTopSvgView(orderDetail.getCarport());
+            String carportSvgSide = carportService.getCarportSideSvgView(orderDetail.getCarport());
 
             ctx.attribute("orderDetail", orderDetail);
             ctx.attribute("carportSvgTop", carportSvgTop);
@@ -114,7 +118,7 @@ public class OrderController
         }
     }
 
-    private void showOrderOverview(Context ctx)
+    private void showOrderOverview(Context ctx) throws IOException
     {
         if (!userIsAdmin(ctx))
         {
@@ -124,15 +128,18 @@ public class OrderController
         try
         {
             List<OrderStatus> statuses = List.of(OrderStatus.PAID, OrderStatus.CANCELLED);
+            Map<OrderStatus, OrderPageCursor> cursors = PaginationUtil.getCursors(ctx, statuses);
 
-            Map<OrderStatus, List<OrderOverviewDTO>> orderOverviews = orderService.getOrderOverViewsByStatus(statuses);
+            Map<OrderStatus, OrderOverviewPageDTO> orderOverviews = orderService.getOrderOverviewPagesByStatus(cursors, PaginationUtil.getPageSize(ctx));
 
-            ctx.attribute("paidOrders", orderOverviews.get(OrderStatus.PAID));
-            ctx.attribute("cancelledOrders", orderOverviews.get(OrderStatus.CANCELLED));
+            PaginationUtil.addPageAttributes(ctx, "paidOrders", OrderStatus.PAID, orderOverviews, cursors);
+            PaginationUtil.addPageAttributes(ctx, "cancelledOrders", OrderStatus.CANCELLED, orderOverviews, cursors);
+            ctx.attribute("paidOrdersCount", orderService.getTotalNumberOfOrdersByStatus(OrderStatus.PAID));
+            ctx.attribute("cancelledOrdersCount", orderService.getTotalNumberOfOrdersByStatus(OrderStatus.CANCELLED));
 
             displayMessages(ctx);
 
-            ctx.render("admin-orders");
+            streamingTemplateRenderer.render(ctx, "admin-orders");
 
         }
         catch (DatabaseException e)
@@ -142,23 +149,27 @@ public class OrderController
         }
     }
 
-    private void showOfferOverview(Context ctx)
+    private void showOfferOverview(Context ctx) throws IOException
     {
         if (!userIsAdmin(ctx)) return;
 
         try
         {
             List<OrderStatus> statuses = List.of(OrderStatus.READY, OrderStatus.REJECTED, OrderStatus.EXPIRED);
+            Map<OrderStatus, OrderPageCursor> cursors = PaginationUtil.getCursors(ctx, statuses);
 
-            Map<OrderStatus, List<OrderOverviewDTO>> orderOverviews = orderService.getOrderOverViewsByStatus(statuses);
+            Map<OrderStatus, OrderOverviewPageDTO> orderOverviews = orderService.getOrderOverviewPagesByStatus(cursors, PaginationUtil.getPageSize(ctx));
 
-            ctx.attribute("offersToAccept", orderOverviews.get(OrderStatus.READY));
-            ctx.attribute("rejectedOffers", orderOverviews.get(OrderStatus.REJECTED));
-            ctx.attribute("expiredOffers", orderOverviews.get(OrderStatus.EXPIRED));
+            PaginationUtil.addPageAttributes(ctx, "offersToAccept", OrderStatus.READY, orderOverviews, cursors);
+            PaginationUtil.addPageAttributes(ctx, "rejectedOffers", OrderStatus.REJECTED, orderOverviews, cursors);
+            PaginationUtil.addPageAttributes(ctx, "expiredOffers", OrderStatus.EXPIRED, orderOverviews, cursors);
+            ctx.attribute("offersToAcceptCount", orderService.getTotalNumberOfOrdersByStatus(OrderStatus.READY));
+            ctx.attribute("rejectedOffersCount", orderService.getTotalNumberOfOrdersByStatus(OrderStatus.REJECTED));
+            ctx.attribute("expiredOffersCount", orderService.getTotalNumberOfOrdersByStatus(OrderStatus.EXPIRED));
 
             displayMessages(ctx);
 
-            ctx.render("admin-offers");
+            streamingTemplateRenderer.render(ctx, "admin-offers");
 
         }
         catch (DatabaseException e)
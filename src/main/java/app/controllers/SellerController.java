@@ -1,6 +1,7 @@
 package app.controllers;
 
-import app.dto.OrderOverviewDTO;
+import app.dto.OrderOverviewPageDTO;
+import app.dto.OrderPageCursor;
 import app.dto.UserDTO;
 import app.entities.Order;
 import app.entities.OrderDetail;
@@ -11,13 +12,13 @@ import app.exceptions.DatabaseException;
 import app.services.ICarportService;
 import app.services.IMaterialService;
 import app.services.IOrderService;
-import app.services.svg.CarportSvgSide;
-import app.services.svg.CarportSvgTop;
+import app.util.PaginationUtil;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public class SellerController
 {
@@ -180,7 +181,6 @@ public class SellerController
             if(offerSend)
             {
                 ctx.sessionAttribute("successMessage", "Dit tilbud er afsendt");
-                ctx.sessionAttribute("badgeNeedsUpdate", true);
             }
             else
             {
@@ -211,8 +211,8 @@ public class SellerController
         try
         {
             OrderDetail orderDetail = orderService.getOrderDetailByOrderId(orderId);
-            CarportSvgTop carportSvgTop = carportService.getCarportTopSvgView(orderDetail.getCarport());
-            CarportSvgSide carportSvgSide = carportService.getCarportSideSvgView(orderDetail.getCarport());
+            String carportSvgTop = carportService.getCarportTopSvgView(orderDetail.getCarport());
+            String carportSvgSide = carportService.getCarportSideSvgView(orderDetail.getCarport());
 
             ctx.attribute("orderDetail", orderDetail);
             ctx.attribute("carportSvgTop", carportSvgTop);
@@ -235,8 +235,13 @@ public class SellerController
 
         try
         {
-            List<OrderOverviewDTO> orderRequests = orderService.getAllOrdersByStatus(OrderStatus.PENDING);
-            ctx.attribute("orderRequests", orderRequests);
+            List<OrderStatus> statuses = List.of(OrderStatus.PENDING);
+            Map<OrderStatus, OrderPageCursor> cursors = PaginationUtil.getCursors(ctx, statuses);
+
+            Map<OrderStatus, OrderOverviewPageDTO> orderRequests = orderService.getOrderOverviewPagesByStatus(cursors, PaginationUtil.getPageSize(ctx));
+
+            PaginationUtil.addPageAttributes(ctx, "orderRequests", OrderStatus.PENDING, orderRequests, cursors);
+            ctx.attribute("orderRequestsCount", orderService.getTotalNumberOfOrdersByStatus(OrderStatus.PENDING));
             displayMessages(ctx);
 
             ctx.render("admin-request.html");
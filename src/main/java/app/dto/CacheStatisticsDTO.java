@@ -0,0 +1,13 @@
+package app.dto;
+
+public record CacheStatisticsDTO(
+        String name,
+        int size,
+        int maxSize,
+        long hits,
+        long misses,
+        long evictions,
+        double hitRate
+)
+{
+}
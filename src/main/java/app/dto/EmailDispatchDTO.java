@@ -0,0 +1,15 @@
+package app.dto;
+
+import java.time.LocalDateTime;
+
+public record EmailDispatchDTO(
+        LocalDateTime startedAt,
+        int claimedEmails,
+        int sentEmails,
+        int retriedEmails,
+        int failedEmails,
+        long durationMs,
+        boolean failed
+)
+{
+}
@@ -0,0 +1,13 @@
+package app.dto;
+
+import java.time.LocalDateTime;
+
+public record ExpirySweepDTO(
+        LocalDateTime startedAt,
+        int expiredOrders,
+        int batches,
+        long durationMs,
+        boolean failed
+)
+{
+}
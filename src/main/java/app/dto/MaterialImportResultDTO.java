@@ -0,0 +1,18 @@
+package app.dto;
+
+import java.util.List;
+
+public record MaterialImportResultDTO(
+        int rowsRead,
+        int rowsImported,
+        int materialsCreated,
+        int materialsUpdated,
+        int variantsCreated,
+        int variantsUpdated,
+        int errorCount,
+        List<MaterialImportRowDTO> errors,
+        boolean committed,
+        long durationMs
+)
+{
+}
@@ -0,0 +1,15 @@
+package app.dto;
+
+import app.entities.MaterialVariant;
+
+public record MaterialImportRowDTO(
+        int rowNumber,
+        MaterialVariant materialVariant,
+        String error
+)
+{
+    public boolean isValid()
+    {
+        return error == null;
+    }
+}
@@ -0,0 +1,14 @@
+package app.dto;
+
+import app.entities.Carport;
+import app.entities.Order;
+import app.entities.User;
+
+public record OrderAggregateDTO(
+        Order order,
+        User customer,
+        User seller,
+        Carport carport
+)
+{
+}
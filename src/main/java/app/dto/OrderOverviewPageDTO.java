@@ -0,0 +1,14 @@
+package app.dto;
+
+import java.util.List;
+
+public record OrderOverviewPageDTO(
+        List<OrderOverviewDTO> orders,
+        OrderPageCursor nextCursor
+)
+{
+    public boolean hasNextPage()
+    {
+        return nextCursor != null;
+    }
+}
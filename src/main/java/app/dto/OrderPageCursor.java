@@ -0,0 +1,56 @@
+package app.dto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/***
+ * Keyset position in an order overview sorted by request_created_at DESC, order_id DESC.
+ * Encoded as "<microseconds>_<orderId>", which keeps Postgres' full timestamp precision.
+ */
+public record OrderPageCursor(
+        LocalDateTime requestCreatedAt,
+        int orderId
+)
+{
+    public static OrderPageCursor of(OrderOverviewDTO orderOverview)
+    {
+        return new OrderPageCursor(orderOverview.customerRequestCreatedAt().toLocalDateTime(), orderOverview.orderId());
+    }
+
+    public static OrderPageCursor parse(String cursor)
+    {
+        String[] parts = cursor.split("_");
+
+        if (parts.length != 2)
+        {
+            throw new IllegalArgumentException("Ugyldig sidemarkør: " + cursor);
+        }
+
+        try
+        {
+            long epochMicros = Long.parseLong(parts[0]);
+            LocalDateTime requestCreatedAt = LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(epochMicros, 1_000_000L),
+                    (int) Math.floorMod(epochMicros, 1_000_000L) * 1000,
+                    ZoneOffset.UTC
+            );
+            return new OrderPageCursor(requestCreatedAt, Integer.parseInt(parts[1]));
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Ugyldig sidemarkør: " + cursor);
+        }
+    }
+
+    public String encode()
+    {
+        long epochMicros = requestCreatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + requestCreatedAt.getNano() / 1000;
+        return epochMicros + "_" + orderId;
+    }
+
+    public Timestamp getRequestCreatedAtTimestamp()
+    {
+        return Timestamp.valueOf(requestCreatedAt);
+    }
+}
@@ -0,0 +1,22 @@
+package app.dto;
+
+public record PasswordHashingStatisticsDTO(
+        int cost,
+        int threads,
+        int queueCapacity,
+        int queuedTasks,
+        int activeTasks,
+        long completedTasks,
+        long rejectedTasks,
+        long timedOutTasks,
+        long rehashedPasswords,
+        long hashCount,
+        double hashMeanMs,
+        double hashP95Ms,
+        long verifyCount,
+        double verifyMeanMs,
+        double verifyP95Ms,
+        double queueWaitP95Ms
+)
+{
+}
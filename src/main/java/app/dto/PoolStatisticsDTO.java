@@ -0,0 +1,21 @@
+package app.dto;
+
+import java.util.Map;
+
+public record PoolStatisticsDTO(
+        String poolName,
+        int maximumPoolSize,
+        int activeConnections,
+        int idleConnections,
+        int totalConnections,
+        int threadsAwaitingConnection,
+        long acquireCount,
+        double acquireMeanMs,
+        double acquireP50Ms,
+        double acquireP95Ms,
+        double acquireP99Ms,
+        double acquireMaxMs,
+        Map<String, Long> acquireHistogramMs
+)
+{
+}
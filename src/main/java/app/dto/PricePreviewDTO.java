@@ -0,0 +1,11 @@
+package app.dto;
+
+public record PricePreviewDTO(
+        int carportLength,
+        int carportWidth,
+        double priceWithoutVat,
+        double totalPrice,
+        String formattedTotalPrice
+)
+{
+}
@@ -0,0 +1,58 @@
+package app.entities;
+
+import app.enums.MaterialType;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class MaterialCatalog
+{
+    private final long version;
+    private final LocalDateTime loadedAt;
+    private final Map<MaterialType, List<MaterialVariant>> variantsByType;
+
+    public MaterialCatalog(long version, List<MaterialVariant> variants)
+    {
+        this.version = version;
+        this.loadedAt = LocalDateTime.now();
+
+        Map<MaterialType, List<MaterialVariant>> grouped = new EnumMap<>(MaterialType.class);
+
+        for (MaterialVariant variant : variants)
+        {
+            grouped.computeIfAbsent(variant.getMaterial().getType(), type -> new ArrayList<>()).add(variant);
+        }
+
+        // Sorted by length once so the BOM lookups can stop at the first variant that is long enough
+        Comparator<MaterialVariant> byLength = Comparator.comparing(MaterialVariant::getVariantLength, Comparator.nullsFirst(Comparator.naturalOrder()));
+        grouped.replaceAll((type, list) ->
+        {
+            list.sort(byLength);
+            return Collections.unmodifiableList(list);
+        });
+
+        this.variantsByType = Collections.unmodifiableMap(grouped);
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    public LocalDateTime getLoadedAt()
+    {
+        return loadedAt;
+    }
+
+    public List<MaterialVariant> getVariantsByType(MaterialType materialType)
+    {
+        return variantsByType.getOrDefault(materialType, List.of());
+    }
+
+    public List<MaterialVariant> getAllVariants()
+    {
+        List<MaterialVariant> allVariants = new ArrayList<>();
+        variantsByType.values().forEach(allVariants::addAll);
+        return allVariants;
+    }
+}
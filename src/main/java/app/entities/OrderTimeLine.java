@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 
@@ -21,7 +22,11 @@ public class OrderTimeLine
 
     public boolean isExpired()
     {
-        return false;
+        if (createdAt == null || offerValidDays == null)
+        {
+            return false;
+        }
+        return createdAt.toLocalDateTime().plusDays(offerValidDays).isBefore(LocalDateTime.now());
     }
 
     public String getCreatedAtFormatted()
@@ -42,7 +47,7 @@ public class OrderTimeLine
 
     private LocalDate calculateExpirationDate()
     {
-        if (createdAt != null || offerValidDays != null)
+        if (createdAt != null && offerValidDays != null)
         {
             return createdAt.toLocalDateTime().toLocalDate().plusDays(offerValidDays);
         }
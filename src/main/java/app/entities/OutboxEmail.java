@@ -0,0 +1,16 @@
+package app.entities;
+
+import app.enums.EmailType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class OutboxEmail
+{
+    private int emailId;
+    private EmailType emailType;
+    private int userId;
+    private Integer orderId;
+    private int attempts;
+}
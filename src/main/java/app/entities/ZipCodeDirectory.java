@@ -0,0 +1,71 @@
+package app.entities;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/***
+ * Immutable snapshot of the Danish zip codes. The zip codes are kept in a sorted int[] with the
+ * cities in a parallel array, so a lookup is a binary search over about 1,100 ints - no boxing,
+ * no allocation and no database round-trip.
+ */
+public class ZipCodeDirectory
+{
+    private final long version;
+    private final LocalDateTime loadedAt;
+    private final int[] zipCodes;
+    private final String[] cities;
+
+    /***
+     * @param zipCodes sorted ascending without duplicates, as read with ORDER BY zip_code
+     * @param cities the city of each zip code, at the same index
+     */
+    public ZipCodeDirectory(long version, int[] zipCodes, String[] cities)
+    {
+        if (zipCodes.length != cities.length)
+        {
+            throw new IllegalArgumentException("Der skal være en by til hvert postnummer");
+        }
+
+        for (int i = 1; i < zipCodes.length; i++)
+        {
+            if (zipCodes[i - 1] >= zipCodes[i])
+            {
+                throw new IllegalArgumentException("Postnumrene skal være sorteret og unikke: " + zipCodes[i]);
+            }
+        }
+
+        this.version = version;
+        this.loadedAt = LocalDateTime.now();
+        this.zipCodes = zipCodes.clone();
+        this.cities = cities.clone();
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    public LocalDateTime getLoadedAt()
+    {
+        return loadedAt;
+    }
+
+    public int size()
+    {
+        return zipCodes.length;
+    }
+
+    public boolean contains(int zipCode)
+    {
+        return Arrays.binarySearch(zipCodes, zipCode) >= 0;
+    }
+
+    /***
+     * @return the city, or null when the zip code does not exist
+     */
+    public String getCity(int zipCode)
+    {
+        int index = Arrays.binarySearch(zipCodes, zipCode);
+        return index >= 0 ? cities[index] : null;
+    }
+}
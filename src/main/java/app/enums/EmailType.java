@@ -0,0 +1,8 @@
+package app.enums;
+
+public enum EmailType
+{
+    REQUEST_CONFIRMATION,
+    OFFER_READY,
+    ORDER_CONFIRMATION
+}
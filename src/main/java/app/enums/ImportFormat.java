@@ -0,0 +1,25 @@
+package app.enums;
+
+import java.util.Locale;
+
+public enum ImportFormat
+{
+    CSV,
+    JSON;
+
+    public static ImportFormat fromFileName(String fileName)
+    {
+        String lowerCaseName = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+
+        if (lowerCaseName.endsWith(".csv"))
+        {
+            return CSV;
+        }
+
+        if (lowerCaseName.endsWith(".json"))
+        {
+            return JSON;
+        }
+        throw new IllegalArgumentException("Filen skal være en .csv eller .json fil");
+    }
+}
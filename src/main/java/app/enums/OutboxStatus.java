@@ -0,0 +1,8 @@
+package app.enums;
+
+public enum OutboxStatus
+{
+    PENDING,
+    SENT,
+    FAILED
+}
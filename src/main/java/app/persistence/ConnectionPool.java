@@ -1,10 +1,14 @@
 package app.persistence;
 
+import app.dto.PoolStatisticsDTO;
+import app.util.LatencyHistogram;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,8 +17,14 @@ import java.util.logging.Logger;
  */
 public class ConnectionPool
 {
-    public static ConnectionPool instance = null;
-    public static HikariDataSource ds = null;
+    private static final int DEFAULT_POOL_SIZE = 3;
+    private static final String POOL_NAME = "Postgresql Pool";
+
+    private static volatile ConnectionPool instance = null;
+    private static volatile HikariDataSource ds = null;
+    private static final ReentrantLock INSTANCE_LOCK = new ReentrantLock();
+
+    private final LatencyHistogram acquireHistogram = new LatencyHistogram();
 
     /***
      * Empty and private constructor due to single pattern. Use getInstance methods to
@@ -26,23 +36,7 @@ public class ConnectionPool
 
     public static ConnectionPool getInstance()
     {
-        if (instance == null)
-        {
-            if (System.getenv("DEPLOYED") != null)
-            {
-                ds = createHikariConnectionPool(
-                        System.getenv("JDBC_USER"),
-                        System.getenv("JDBC_PASSWORD"),
-                        System.getenv("JDBC_CONNECTION_STRING"),
-                        System.getenv("JDBC_DB"));
-            }
-            else
-            {
-                ds = createHikariConnectionPool("postgres", "postgres", "jdbc:postgresql://localhost:5432/%s?currentSchema=public", "carport");
-            }
-            instance = new ConnectionPool();
-        }
-        return instance;
+        return getInstance("postgres", "postgres", "jdbc:postgresql://localhost:5432/%s?currentSchema=public", "carport");
     }
 
     /***
@@ -57,46 +51,103 @@ public class ConnectionPool
      */
     public static ConnectionPool getInstance(String user, String password, String url, String db)
     {
-        if (instance == null)
+        ConnectionPool pool = instance;
+
+        if (pool == null)
         {
-            if (System.getenv("DEPLOYED") != null)
+            // Double-checked locking: only the very first callers ever take the lock
+            INSTANCE_LOCK.lock();
+
+            try
             {
-                ds = createHikariConnectionPool(
-                        System.getenv("JDBC_USER"),
-                        System.getenv("JDBC_PASSWORD"),
-                        System.getenv("JDBC_CONNECTION_STRING"),
-                        System.getenv("JDBC_DB"));
+                pool = instance;
+
+                if (pool == null)
+                {
+                    if (System.getenv("DEPLOYED") != null)
+                    {
+                        ds = createHikariConnectionPool(
+                                System.getenv("JDBC_USER"),
+                                System.getenv("JDBC_PASSWORD"),
+                                System.getenv("JDBC_CONNECTION_STRING"),
+                                System.getenv("JDBC_DB"));
+                    }
+                    else
+                    {
+                        ds = createHikariConnectionPool(user, password, url, db);
+                    }
+                    pool = new ConnectionPool();
+                    instance = pool;
+                }
             }
-            else
+            finally
             {
-                ds = createHikariConnectionPool(user, password, url, db);
+                INSTANCE_LOCK.unlock();
             }
-            instance = new ConnectionPool();
         }
-        return instance;
+        return pool;
     }
 
     /***
-     * Getting a live connection from a Hikari Connection Pool
+     * Getting a live connection from a Hikari Connection Pool. Not synchronized since
+     * Hikari hands out connections lock-free; the time spent waiting is recorded.
+     * The statements of the connection are timed for the request metrics.
      * @return a database connection to be used in sql requests
      * @throws SQLException
      */
-    public synchronized Connection getConnection() throws SQLException
+    public Connection getConnection() throws SQLException
     {
-        return ds.getConnection();
+        long start = System.nanoTime();
+
+        try
+        {
+            return TimedConnection.wrap(ds.getConnection());
+        }
+        finally
+        {
+            acquireHistogram.recordNanos(System.nanoTime() - start);
+        }
     }
 
     /***
-     * Closing a Hikari Connection Pool after use.
+     * Closing a Hikari Connection Pool after use. HikariDataSource.close() is idempotent
+     * and thread-safe, so no extra locking is needed.
      */
-    public synchronized void close()
+    public void close()
     {
         Logger.getLogger("web").log(Level.INFO, "Shutting down connection pool");
         ds.close();
     }
 
     /***
-     * Configuring a Hikari DataSource ConnectionPool. Default pool size is 3.
+     * Snapshot of the pool state and connection acquire times, used to size the pool
+     * @return current pool statistics
+     */
+    public PoolStatisticsDTO getPoolStatistics()
+    {
+        HikariPoolMXBean poolBean = ds.getHikariPoolMXBean();
+
+        return new PoolStatisticsDTO(
+                ds.getPoolName(),
+                ds.getMaximumPoolSize(),
+                poolBean != null ? poolBean.getActiveConnections() : 0,
+                poolBean != null ? poolBean.getIdleConnections() : 0,
+                poolBean != null ? poolBean.getTotalConnections() : 0,
+                poolBean != null ? poolBean.getThreadsAwaitingConnection() : 0,
+                acquireHistogram.getCount(),
+                acquireHistogram.getMeanMillis(),
+                acquireHistogram.getPercentileMillis(50),
+                acquireHistogram.getPercentileMillis(95),
+                acquireHistogram.getPercentileMillis(99),
+                acquireHistogram.getMaxMillis(),
+                acquireHistogram.getBuckets()
+        );
+    }
+
+    /***
+     * Configuring a Hikari DataSource ConnectionPool. Pool size is read from the
+     * environment variable JDBC_POOL_SIZE and defaults to 3. The pool is also
+     * registered as an MBean so it can be inspected through JMX.
      * @param user for Postgresql database user
      * @param password for Postgresql database user
      * @param url connection string for postgresql database. Remember to add currentSchema to string
@@ -112,11 +163,32 @@ public class ConnectionPool
         config.setJdbcUrl(String.format(url, db));
         config.setUsername(user);
         config.setPassword(password);
-        config.setMaximumPoolSize(3);
-        config.setPoolName("Postgresql Pool");
+        config.setMaximumPoolSize(getPoolSize());
+        config.setPoolName(POOL_NAME);
+        config.setRegisterMbeans(true);
         config.addDataSourceProperty("cachePrepStmts", "true");
         config.addDataSourceProperty("prepStmtCacheSize", "250");
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
         return new HikariDataSource(config);
     }
-}
\ No newline at end of file
+
+    private static int getPoolSize()
+    {
+        String poolSize = System.getenv("JDBC_POOL_SIZE");
+
+        if (poolSize == null || poolSize.isBlank())
+        {
+            return DEFAULT_POOL_SIZE;
+        }
+
+        try
+        {
+            return Integer.parseInt(poolSize.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            Logger.getLogger("web").log(Level.WARNING, "JDBC_POOL_SIZE er ikke et gyldigt heltal: " + poolSize + ", bruger " + DEFAULT_POOL_SIZE);
+            return DEFAULT_POOL_SIZE;
+        }
+    }
+}
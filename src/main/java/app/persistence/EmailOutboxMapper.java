@@ -0,0 +1,196 @@
+package app.persistence;
+
+import app.entities.OutboxEmail;
+import app.enums.EmailType;
+import app.enums.OutboxStatus;
+import app.exceptions.DatabaseException;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EmailOutboxMapper
+{
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private ConnectionPool connectionPool;
+
+    public EmailOutboxMapper(ConnectionPool connectionPool)
+    {
+        this.connectionPool = connectionPool;
+    }
+
+    /***
+     * Queues an email on the caller's connection, so it is committed or rolled back
+     * together with the order change that triggered it.
+     */
+    public void enqueueEmail(Connection connection, EmailType emailType, int userId, Integer orderId) throws DatabaseException
+    {
+        String sql = """
+                INSERT INTO email_outbox (email_type, user_id, order_id, status, attempts, next_attempt_at, created_at)
+                VALUES (?, ?, ?, ?, 0, NOW(), NOW())
+                """;
+
+        try (PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setString(1, emailType.name());
+            ps.setInt(2, userId);
+
+            if (orderId != null)
+            {
+                ps.setInt(3, orderId);
+            }
+            else
+            {
+                ps.setNull(3, Types.INTEGER);
+            }
+            ps.setString(4, OutboxStatus.PENDING.name());
+
+            ps.executeUpdate();
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved oprettelse af email i udbakken: " + e.getMessage());
+        }
+    }
+
+    /***
+     * Claims up to batchSize due emails and counts the attempt. A claimed email is leased by pushing
+     * its next attempt leaseSeconds ahead, so a second dispatcher skips it, and a dispatcher that dies
+     * mid-send leaves it to be retried once the lease runs out.
+     * @return the claimed emails with their attempt number
+     */
+    public List<OutboxEmail> claimDueEmails(int batchSize, int leaseSeconds) throws DatabaseException
+    {
+        String sql = """
+                UPDATE email_outbox
+                SET attempts = attempts + 1,
+                    next_attempt_at = NOW() + make_interval(secs => ?)
+                WHERE email_id IN (
+                    SELECT email_id
+                    FROM email_outbox
+                    WHERE status = 'PENDING'
+                      AND next_attempt_at <= NOW()
+                    ORDER BY next_attempt_at, email_id
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING email_id, email_type, user_id, order_id, attempts
+                """;
+
+        List<OutboxEmail> emails = new ArrayList<>();
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setInt(1, leaseSeconds);
+            ps.setInt(2, batchSize);
+
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next())
+            {
+                int orderId = rs.getInt("order_id");
+
+                emails.add(new OutboxEmail(
+                        rs.getInt("email_id"),
+                        EmailType.valueOf(rs.getString("email_type")),
+                        rs.getInt("user_id"),
+                        rs.wasNull() ? null : orderId,
+                        rs.getInt("attempts")
+                ));
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved hentning af emails fra udbakken: " + e.getMessage());
+        }
+        return emails;
+    }
+
+    public int markEmailsSent(List<Integer> emailIds) throws DatabaseException
+    {
+        if (emailIds.isEmpty())
+        {
+            return 0;
+        }
+
+        String sql = """
+                UPDATE email_outbox
+                SET status = ?, sent_at = NOW(), last_error = NULL
+                WHERE email_id = ANY(?)
+                """;
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setString(1, OutboxStatus.SENT.name());
+            ps.setArray(2, connection.createArrayOf("integer", emailIds.toArray()));
+
+            return ps.executeUpdate();
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved markering af sendte emails: " + e.getMessage());
+        }
+    }
+
+    /***
+     * The delay is added to the database clock, the same clock claimDueEmails compares against.
+     */
+    public boolean rescheduleEmail(int emailId, long delaySeconds, String error) throws DatabaseException
+    {
+        String sql = """
+                UPDATE email_outbox
+                SET next_attempt_at = NOW() + make_interval(secs => ?), last_error = ?
+                WHERE email_id = ? AND status = ?
+                """;
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setLong(1, delaySeconds);
+            ps.setString(2, truncate(error));
+            ps.setInt(3, emailId);
+            ps.setString(4, OutboxStatus.PENDING.name());
+
+            return ps.executeUpdate() > 0;
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved genplanlægning af email: " + e.getMessage());
+        }
+    }
+
+    public boolean markEmailFailed(int emailId, String error) throws DatabaseException
+    {
+        String sql = """
+                UPDATE email_outbox
+                SET status = ?, last_error = ?
+                WHERE email_id = ?
+                """;
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setString(1, OutboxStatus.FAILED.name());
+            ps.setString(2, truncate(error));
+            ps.setInt(3, emailId);
+
+            return ps.executeUpdate() > 0;
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved markering af fejlet email: " + e.getMessage());
+        }
+    }
+
+    private String truncate(String error)
+    {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH)
+        {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,222 @@
+package app.persistence;
+
+import app.dto.MaterialImportRowDTO;
+import app.entities.Material;
+import app.entities.MaterialVariant;
+import app.exceptions.DatabaseException;
+
+import java.sql.*;
+import java.util.List;
+
+/***
+ * Imports a price list through a temporary staging table: the rows are batch inserted into
+ * material_import, and materials and variants are then updated and created with one statement each.
+ * A material is matched on name, type, width and height, a variant on its material and length.
+ * All methods run on the caller's connection, which must have auto-commit turned off.
+ */
+public class MaterialImportMapper
+{
+    private static final String MATERIAL_KEY = "name, type, COALESCE(material_width, -1), COALESCE(material_height, -1)";
+
+    private static final String MATCHES_MATERIAL = """
+            m.name = s.name
+            AND m.type = s.type
+            AND COALESCE(m.material_width, -1) = COALESCE(s.material_width, -1)
+            AND COALESCE(m.material_height, -1) = COALESCE(s.material_height, -1)
+            """;
+
+    private static final String LAST_ROW_PER_MATERIAL = """
+            SELECT DISTINCT ON (%s) name, category, type, material_width, material_height, unit, usage
+            FROM material_import
+            ORDER BY %s, source_row DESC
+            """.formatted(MATERIAL_KEY, MATERIAL_KEY);
+
+    private ConnectionPool connectionPool;
+
+    public MaterialImportMapper(ConnectionPool connectionPool)
+    {
+        this.connectionPool = connectionPool;
+    }
+
+    /***
+     * The staging table is dropped again when the transaction commits or rolls back.
+     */
+    public void createStagingTable(Connection connection) throws DatabaseException
+    {
+        String sql = """
+                CREATE TEMP TABLE material_import
+                (
+                    source_row integer NOT NULL,
+                    name character varying(100) NOT NULL,
+                    category character varying NOT NULL,
+                    type character varying NOT NULL,
+                    material_width integer,
+                    material_height integer,
+                    unit character varying(20) NOT NULL,
+                    usage character varying,
+                    variant_length integer,
+                    unit_price double precision NOT NULL,
+                    pieces_per_unit integer,
+                    material_id integer
+                ) ON COMMIT DROP
+                """;
+
+        try (Statement stmt = connection.createStatement())
+        {
+            stmt.execute(sql);
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved oprettelse af importtabel: " + e.getMessage());
+        }
+    }
+
+    public void stageRows(Connection connection, List<MaterialImportRowDTO> rows) throws DatabaseException
+    {
+        String sql = """
+                INSERT INTO material_import (source_row, name, category, type, material_width, material_height, unit, usage, variant_length, unit_price, pieces_per_unit)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+
+        try (PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            for (MaterialImportRowDTO row : rows)
+            {
+                MaterialVariant variant = row.materialVariant();
+                Material material = variant.getMaterial();
+
+                ps.setInt(1, row.rowNumber());
+                ps.setString(2, material.getName());
+                ps.setString(3, material.getCategory().name());
+                ps.setString(4, material.getType().name());
+                ps.setObject(5, material.getMaterialWidth(), Types.INTEGER);
+                ps.setObject(6, material.getMaterialHeight(), Types.INTEGER);
+                ps.setString(7, material.getUnit());
+                ps.setString(8, material.getUsage());
+                ps.setObject(9, variant.getVariantLength(), Types.INTEGER);
+                ps.setDouble(10, variant.getUnitPrice());
+                ps.setObject(11, variant.getPiecesPerUnit(), Types.INTEGER);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved indlæsning af importrækker: " + e.getMessage());
+        }
+    }
+
+    /***
+     * When the file holds the same variant more than once, the last row wins.
+     * @return the number of rows removed
+     */
+    public int removeDuplicateRows(Connection connection) throws DatabaseException
+    {
+        String sql = """
+                DELETE FROM material_import mi
+                USING (
+                    SELECT source_row,
+                           ROW_NUMBER() OVER (PARTITION BY %s, COALESCE(variant_length, -1) ORDER BY source_row DESC) AS position
+                    FROM material_import
+                ) d
+                WHERE mi.source_row = d.source_row
+                AND d.position > 1
+                """.formatted(MATERIAL_KEY);
+
+        return executeUpdate(connection, sql, "Fejl ved fjernelse af dubletter i importen: ");
+    }
+
+    /***
+     * Temporary tables are never analyzed by autovacuum, and without row estimates
+     * the planner may pick nested loops for the joins against material and material_variant.
+     */
+    public void analyzeStagingTable(Connection connection) throws DatabaseException
+    {
+        executeUpdate(connection, "ANALYZE material_import", "Fejl ved analyse af importtabel: ");
+    }
+
+    /***
+     * Only materials where category, unit or usage actually changed are written.
+     */
+    public int updateMaterials(Connection connection) throws DatabaseException
+    {
+        String sql = """
+                UPDATE material m
+                SET category = s.category, unit = s.unit, usage = s.usage
+                FROM (%s) s
+                WHERE %s
+                AND (m.category, m.unit, m.usage) IS DISTINCT FROM (s.category, s.unit, s.usage)
+                """.formatted(LAST_ROW_PER_MATERIAL, MATCHES_MATERIAL);
+
+        return executeUpdate(connection, sql, "Fejl ved opdatering af materialer fra importen: ");
+    }
+
+    public int insertMaterials(Connection connection) throws DatabaseException
+    {
+        String sql = """
+                INSERT INTO material (name, category, type, material_width, material_height, unit, usage)
+                SELECT s.name, s.category, s.type, s.material_width, s.material_height, s.unit, s.usage
+                FROM (%s) s
+                WHERE NOT EXISTS (SELECT 1 FROM material m WHERE %s)
+                """.formatted(LAST_ROW_PER_MATERIAL, MATCHES_MATERIAL);
+
+        return executeUpdate(connection, sql, "Fejl ved oprettelse af materialer fra importen: ");
+    }
+
+    public void resolveMaterialIds(Connection connection) throws DatabaseException
+    {
+        String sql = """
+                UPDATE material_import s
+                SET material_id = m.material_id
+                FROM material m
+                WHERE %s
+                """.formatted(MATCHES_MATERIAL);
+
+        executeUpdate(connection, sql, "Fejl ved opslag af materialer fra importen: ");
+    }
+
+    /***
+     * Only variants where the price or pieces per unit actually changed are written.
+     */
+    public int updateVariants(Connection connection) throws DatabaseException
+    {
+        String sql = """
+                UPDATE material_variant v
+                SET unit_price = s.unit_price, pieces_per_unit = s.pieces_per_unit
+                FROM material_import s
+                WHERE v.material_id = s.material_id
+                AND COALESCE(v.variant_length, -1) = COALESCE(s.variant_length, -1)
+                AND (v.unit_price, v.pieces_per_unit) IS DISTINCT FROM (s.unit_price, s.pieces_per_unit)
+                """;
+
+        return executeUpdate(connection, sql, "Fejl ved opdatering af varianter fra importen: ");
+    }
+
+    public int insertVariants(Connection connection) throws DatabaseException
+    {
+        String sql = """
+                INSERT INTO material_variant (material_id, variant_length, unit_price, pieces_per_unit)
+                SELECT s.material_id, s.variant_length, s.unit_price, s.pieces_per_unit
+                FROM material_import s
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM material_variant v
+                    WHERE v.material_id = s.material_id
+                    AND COALESCE(v.variant_length, -1) = COALESCE(s.variant_length, -1)
+                )
+                """;
+
+        return executeUpdate(connection, sql, "Fejl ved oprettelse af varianter fra importen: ");
+    }
+
+    private int executeUpdate(Connection connection, String sql, String errorMessage) throws DatabaseException
+    {
+        try (Statement stmt = connection.createStatement())
+        {
+            return stmt.executeUpdate(sql);
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException(errorMessage + e.getMessage());
+        }
+    }
+}
@@ -11,11 +11,38 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 public class MaterialLineMapper
 {
+    static final String MATERIAL_LINES_BY_ORDER_SQL = """
+        SELECT 
+            ml.material_line_id,
+            ml.order_id,
+            ml.material_variant_id,
+            ml.quantity,
+            
+            mv.material_variant_id AS mv_variant_id,
+            mv.material_id AS mv_material_id,
+            mv.variant_length AS mv_variant_length,
+            mv.unit_price AS mv_unit_price,
+            mv.pieces_per_unit AS mv_pieces_per_unit,
+            
+            m.material_id AS m_material_id,
+            m.name AS m_name,
+            m.category AS m_category,
+            m.type AS m_type,
+            m.material_width AS m_material_width,
+            m.material_height AS m_material_height,
+            m.unit AS m_unit,
+            m.usage AS m_usage
+            
+        FROM material_line ml
+        JOIN material_variant mv ON ml.material_variant_id = mv.material_variant_id
+        JOIN material m ON mv.material_id = m.material_id
+        WHERE ml.order_id = ?
+        """;
+
     private ConnectionPool connectionPool;
 
     public MaterialLineMapper(ConnectionPool connectionPool)
@@ -59,6 +86,74 @@ public class MaterialLineMapper
         }
     }
 
+    /***
+     * Inserts a whole bill of materials in one statement by sending variant ids and
+     * quantities as two arrays, instead of one round-trip per line.
+     * @param connection connection used by the surrounding transaction
+     * @param orderId order the lines belong to
+     * @param materialLines lines with material variant and quantity
+     * @return the created lines with their generated ids
+     */
+    public List<MaterialLine> createMaterialLines(Connection connection, int orderId, List<MaterialLine> materialLines) throws DatabaseException
+    {
+        List<MaterialLine> createdLines = new ArrayList<>();
+
+        if (materialLines == null || materialLines.isEmpty())
+        {
+            return createdLines;
+        }
+
+        String sql = """
+            INSERT INTO material_line (order_id, material_variant_id, quantity)
+            SELECT ?, line.material_variant_id, line.quantity
+            FROM unnest(?::int[], ?::int[]) AS line(material_variant_id, quantity)
+            RETURNING material_line_id, material_variant_id, quantity
+                """;
+
+        Integer[] variantIds = new Integer[materialLines.size()];
+        Integer[] quantities = new Integer[materialLines.size()];
+        Map<Integer, Deque<MaterialVariant>> variantsById = new HashMap<>();
+
+        for (int i = 0; i < materialLines.size(); i++)
+        {
+            MaterialVariant variant = materialLines.get(i).getMaterialVariant();
+            variantIds[i] = variant.getMaterialVariantId();
+            quantities[i] = materialLines.get(i).getQuantity();
+            variantsById.computeIfAbsent(variantIds[i], id -> new ArrayDeque<>()).add(variant);
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setInt(1, orderId);
+            ps.setArray(2, connection.createArrayOf("integer", variantIds));
+            ps.setArray(3, connection.createArrayOf("integer", quantities));
+
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next())
+            {
+                Deque<MaterialVariant> variants = variantsById.get(rs.getInt("material_variant_id"));
+
+                createdLines.add(new MaterialLine(
+                        rs.getInt("material_line_id"),
+                        orderId,
+                        variants != null ? variants.poll() : null,
+                        rs.getInt("quantity")
+                ));
+            }
+
+            if (createdLines.size() != materialLines.size())
+            {
+                throw new DatabaseException("Kunne ikke oprette alle ordrelinjer");
+            }
+            return createdLines;
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved oprettelse af materialelinjer: " + e.getMessage());
+        }
+    }
+
     public MaterialLine getMaterialLineById(int materialLineId) throws DatabaseException
     {
         String sql = """
@@ -105,38 +200,21 @@ public class MaterialLineMapper
 
     public List<MaterialLine> getMaterialLinesByOrderId(int orderId) throws DatabaseException
     {
-        String sql = """
-            SELECT 
-                ml.material_line_id,
-                ml.order_id,
-                ml.material_variant_id,
-                ml.quantity,
-                
-                mv.material_variant_id AS mv_variant_id,
-                mv.material_id AS mv_material_id,
-                mv.variant_length AS mv_variant_length,
-                mv.unit_price AS mv_unit_price,
-                mv.pieces_per_unit AS mv_pieces_per_unit,
-                
-                m.material_id AS m_material_id,
-                m.name AS m_name,
-                m.category AS m_category,
-                m.type AS m_type,
-                m.material_width AS m_material_width,
-                m.material_height AS m_material_height,
-                m.unit AS m_unit,
-                m.usage AS m_usage
-                
-            FROM material_line ml
-            JOIN material_variant mv ON ml.material_variant_id = mv.material_variant_id
-            JOIN material m ON mv.material_id = m.material_id
-            WHERE ml.order_id = ?
-            """;
+        try (Connection connection = connectionPool.getConnection())
+        {
+            return getMaterialLinesByOrderId(connection, orderId);
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved hentning af materialelinjer: " + e.getMessage());
+        }
+    }
 
+    public List<MaterialLine> getMaterialLinesByOrderId(Connection connection, int orderId) throws DatabaseException
+    {
         List<MaterialLine> materialLines = new ArrayList<>();
 
-        try (Connection connection = connectionPool.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql))
+        try (PreparedStatement ps = connection.prepareStatement(MATERIAL_LINES_BY_ORDER_SQL))
         {
             ps.setInt(1, orderId);
             try (ResultSet rs = ps.executeQuery())
@@ -12,6 +12,29 @@ import java.util.List;
 
 public class MaterialVariantMapper
 {
+    static final String VARIANTS_BY_MATERIAL_SQL = """
+        SELECT 
+        mv.material_variant_id,
+        mv.material_id,
+        mv.variant_length,
+        mv.unit_price,
+        mv.pieces_per_unit,
+            
+        m.material_id AS m_material_id,
+        m.name AS m_name,
+        m.category AS m_category,
+        m.type AS m_type,
+        m.material_width AS m_material_width,
+        m.material_height AS m_material_height,
+        m.unit AS m_unit,
+        m.usage AS m_usage
+            
+        FROM material_variant mv
+        JOIN material m ON mv.material_id = m.material_id
+        WHERE mv.material_id = ?
+        ORDER BY mv.variant_length NULLS FIRST
+        """;
+
     private ConnectionPool connectionPool;
 
     public MaterialVariantMapper(ConnectionPool connectionPool)
@@ -119,33 +142,10 @@ public class MaterialVariantMapper
     public List<MaterialVariant> getAllMaterialVariantsWithMaterialByMaterialId(int materialId)
             throws DatabaseException {
 
-        String sql = """
-            SELECT 
-            mv.material_variant_id,
-            mv.material_id,
-            mv.variant_length,
-            mv.unit_price,
-            mv.pieces_per_unit,
-                
-            m.material_id AS m_material_id,
-            m.name AS m_name,
-            m.category AS m_category,
-            m.type AS m_type,
-            m.material_width AS m_material_width,
-            m.material_height AS m_material_height,
-            m.unit AS m_unit,
-            m.usage AS m_usage
-                
-            FROM material_variant mv
-            JOIN material m ON mv.material_id = m.material_id
-            WHERE mv.material_id = ?
-            ORDER BY mv.variant_length NULLS FIRST
-            """;
-
         List<MaterialVariant> variants = new ArrayList<>();
 
         try (Connection connection = connectionPool.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql))
+             PreparedStatement ps = connection.prepareStatement(VARIANTS_BY_MATERIAL_SQL))
         {
 
             ps.setInt(1, materialId);
@@ -0,0 +1,419 @@
+package app.persistence;
+
+import app.exceptions.DatabaseException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/***
+ * Applies the numbered scripts in sql/migrations at startup. Every applied migration is recorded in
+ * schema_migration with the SHA-256 of its script, so an up-to-date database is verified with one
+ * query. Pending migrations run in a transaction each, under an advisory lock, so two instances
+ * starting at once do not both apply them. A database created by hand before the runner existed
+ * has V1 recorded without running it, so V1 must stay the schema those databases were built from;
+ * everything added later goes in a migration of its own that can run on them. When such a database
+ * already holds zip codes or materials, the reference data migration is recorded as well, so it does
+ * not bring back materials that were deleted or duplicate ones that were edited by hand.
+ * A script may hold COPY ... FROM STDIN blocks like a pg_dump: the COPY statement on one line,
+ * then the rows, then a line with \. - the rows are streamed to Postgres through the CopyManager.
+ */
+public class MigrationRunner
+{
+    private static final String MIGRATION_FOLDER = "/sql/migrations/";
+    // New migrations are added at the end and never changed once they have been deployed
+    private static final List<String> MIGRATIONS = List.of(
+            "V1__schema.sql",
+            "V2__query_indexes.sql",
+            "V3__reference_data.sql",
+            "V4__email_outbox.sql");
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern COPY_FROM_STDIN = Pattern.compile("COPY\\s.+\\sFROM\\s+STDIN\\b.*;\\s*", Pattern.CASE_INSENSITIVE);
+    private static final String END_OF_COPY = "\\.";
+    private static final int REFERENCE_DATA_VERSION = 3;
+    private static final long ADVISORY_LOCK_KEY = 20240501L;
+    private static final String UNDEFINED_TABLE = "42P01";
+
+    private ConnectionPool connectionPool;
+
+    public MigrationRunner(ConnectionPool connectionPool)
+    {
+        this.connectionPool = connectionPool;
+    }
+
+    record Migration(int version, String description, String script, String checksum)
+    {
+    }
+
+    /***
+     * One step of a script: either plain statements, or a COPY statement with the rows it reads
+     */
+    record ScriptPart(String sql, String copyData)
+    {
+        boolean isCopy()
+        {
+            return copyData != null;
+        }
+    }
+
+    /***
+     * Brings the database up to date with the bundled migrations
+     * @return the number of migrations applied, 0 when the database was already up to date
+     * @throws DatabaseException when a migration fails, or an applied migration has been changed since
+     */
+    public int migrate() throws DatabaseException
+    {
+        long start = System.nanoTime();
+        List<Migration> migrations = loadMigrations();
+        Map<Integer, String> appliedChecksums = getAppliedChecksums();
+
+        if (appliedChecksums != null && isUpToDate(migrations, appliedChecksums))
+        {
+            Logger.getLogger("web").log(Level.INFO, String.format("Databaseskemaet er opdateret (V%d), tjekket på %d ms",
+                    migrations.get(migrations.size() - 1).version(), (System.nanoTime() - start) / 1_000_000));
+            return 0;
+        }
+
+        int applied = applyPendingMigrations(migrations);
+
+        Logger.getLogger("web").log(Level.INFO, String.format("%d migrationer kørt på %d ms",
+                applied, (System.nanoTime() - start) / 1_000_000));
+        return applied;
+    }
+
+    /***
+     * @return the checksum of every applied migration by version, or null when no migration has ever run
+     */
+    private Map<Integer, String> getAppliedChecksums() throws DatabaseException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            return readAppliedChecksums(connection);
+        }
+        catch (SQLException e)
+        {
+            if (UNDEFINED_TABLE.equals(e.getSQLState()))
+            {
+                return null;
+            }
+            throw new DatabaseException("Fejl ved hentning af kørte migrationer: " + e.getMessage(), e);
+        }
+    }
+
+    private Map<Integer, String> readAppliedChecksums(Connection connection) throws SQLException
+    {
+        String sql = """
+                SELECT version, checksum
+                FROM schema_migration
+                """;
+
+        Map<Integer, String> checksums = new HashMap<>();
+
+        try (PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next())
+            {
+                checksums.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return checksums;
+    }
+
+    private int applyPendingMigrations(List<Migration> migrations) throws DatabaseException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_lock(?)"))
+            {
+                ps.setLong(1, ADVISORY_LOCK_KEY);
+                ps.execute();
+            }
+
+            try
+            {
+                createMigrationTable(connection);
+
+                // Another instance may have migrated while this one waited for the lock
+                // and the checksums are verified again before anything is applied
+                Map<Integer, String> appliedChecksums = readAppliedChecksums(connection);
+                verifyChecksums(migrations, appliedChecksums);
+
+                if (appliedChecksums.isEmpty() && hasExistingSchema(connection))
+                {
+                    for (Migration baseline : baselineMigrations(migrations, hasReferenceData(connection)))
+                    {
+                        recordMigration(connection, baseline, 0);
+                        appliedChecksums.put(baseline.version(), baseline.checksum());
+                        Logger.getLogger("web").log(Level.INFO, "Eksisterende skema fundet, V" + baseline.version() + " registreret uden at blive kørt");
+                    }
+                }
+
+                int applied = 0;
+
+                for (Migration migration : migrations)
+                {
+                    if (!appliedChecksums.containsKey(migration.version()))
+                    {
+                        applyMigration(connection, migration);
+                        applied++;
+                    }
+                }
+                return applied;
+            }
+            finally
+            {
+                try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(?)"))
+                {
+                    ps.setLong(1, ADVISORY_LOCK_KEY);
+                    ps.execute();
+                }
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved migrering af databasen: " + e.getMessage(), e);
+        }
+    }
+
+    private void applyMigration(Connection connection, Migration migration) throws DatabaseException, SQLException
+    {
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+
+        try
+        {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+            for (ScriptPart part : parseScript(migration.script()))
+            {
+                if (part.isCopy())
+                {
+                    long rows = copyManager.copyIn(part.sql(), new StringReader(part.copyData()));
+                    Logger.getLogger("web").log(Level.FINE, rows + " rækker indlæst med " + part.sql());
+                }
+                else
+                {
+                    try (Statement stmt = connection.createStatement())
+                    {
+                        stmt.execute(part.sql());
+                    }
+                }
+            }
+
+            int executionMillis = (int) ((System.nanoTime() - start) / 1_000_000);
+            recordMigration(connection, migration, executionMillis);
+            connection.commit();
+
+            Logger.getLogger("web").log(Level.INFO, String.format("Migration V%d %s kørt på %d ms",
+                    migration.version(), migration.description(), executionMillis));
+        }
+        catch (SQLException | IOException e)
+        {
+            connection.rollback();
+            throw new DatabaseException("Migration V" + migration.version() + " " + migration.description() + " fejlede: " + e.getMessage());
+        }
+        finally
+        {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void createMigrationTable(Connection connection) throws SQLException
+    {
+        String sql = """
+                CREATE TABLE IF NOT EXISTS schema_migration
+                (
+                    version integer NOT NULL,
+                    description character varying(100) NOT NULL,
+                    checksum character(64) NOT NULL,
+                    execution_ms integer NOT NULL,
+                    applied_at timestamp without time zone NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    CONSTRAINT schema_migration_pkey PRIMARY KEY (version)
+                )
+                """;
+
+        try (Statement stmt = connection.createStatement())
+        {
+            stmt.execute(sql);
+        }
+    }
+
+    private boolean hasExistingSchema(Connection connection) throws SQLException
+    {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT to_regclass('orders') IS NOT NULL"))
+        {
+            ResultSet rs = ps.executeQuery();
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private boolean hasReferenceData(Connection connection) throws SQLException
+    {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT EXISTS (SELECT 1 FROM zip_code) OR EXISTS (SELECT 1 FROM material)"))
+        {
+            ResultSet rs = ps.executeQuery();
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private void recordMigration(Connection connection, Migration migration, int executionMillis) throws SQLException
+    {
+        String sql = """
+                INSERT INTO schema_migration (version, description, checksum, execution_ms)
+                VALUES (?, ?, ?, ?)
+                """;
+
+        try (PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setInt(1, migration.version());
+            ps.setString(2, migration.description());
+            ps.setString(3, migration.checksum());
+            ps.setInt(4, executionMillis);
+            ps.executeUpdate();
+        }
+    }
+
+    /***
+     * @return the migrations to record without running them on a database that was created by hand
+     */
+    static List<Migration> baselineMigrations(List<Migration> migrations, boolean hasReferenceData)
+    {
+        return migrations.stream()
+                .filter(migration -> migration.version() == 1 || (hasReferenceData && migration.version() == REFERENCE_DATA_VERSION))
+                .toList();
+    }
+
+    /***
+     * @return true when every migration has been applied
+     * @throws DatabaseException when an applied migration no longer matches its checksum
+     */
+    static boolean isUpToDate(List<Migration> migrations, Map<Integer, String> appliedChecksums) throws DatabaseException
+    {
+        verifyChecksums(migrations, appliedChecksums);
+        return migrations.stream().allMatch(migration -> appliedChecksums.containsKey(migration.version()));
+    }
+
+    /***
+     * @throws DatabaseException when an applied migration no longer matches its checksum
+     */
+    static void verifyChecksums(List<Migration> migrations, Map<Integer, String> appliedChecksums) throws DatabaseException
+    {
+        for (Migration migration : migrations)
+        {
+            String appliedChecksum = appliedChecksums.get(migration.version());
+
+            if (appliedChecksum != null && !appliedChecksum.equals(migration.checksum()))
+            {
+                throw new DatabaseException("Migration V" + migration.version() + " " + migration.description()
+                        + " er ændret efter den blev kørt. Lav en ny migration i stedet");
+            }
+        }
+    }
+
+    static List<Migration> loadMigrations() throws DatabaseException
+    {
+        List<Migration> migrations = new ArrayList<>();
+
+        for (String fileName : MIGRATIONS)
+        {
+            Matcher matcher = FILE_NAME.matcher(fileName);
+
+            if (!matcher.matches())
+            {
+                throw new IllegalStateException("Ugyldigt navn på migration: " + fileName);
+            }
+
+            try (InputStream input = MigrationRunner.class.getResourceAsStream(MIGRATION_FOLDER + fileName))
+            {
+                if (input == null)
+                {
+                    throw new DatabaseException("Migrationen " + fileName + " blev ikke fundet");
+                }
+
+                byte[] script = input.readAllBytes();
+                migrations.add(new Migration(
+                        Integer.parseInt(matcher.group(1)),
+                        matcher.group(2).replace('_', ' '),
+                        new String(script, StandardCharsets.UTF_8),
+                        HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(script))));
+            }
+            catch (IOException | NoSuchAlgorithmException e)
+            {
+                throw new DatabaseException("Kunne ikke læse migrationen " + fileName + ": " + e.getMessage());
+            }
+        }
+        return migrations;
+    }
+
+    /***
+     * Splits a script at its COPY ... FROM STDIN blocks. Everything in between is sent as it is,
+     * since the driver splits plain statements itself.
+     */
+    static List<ScriptPart> parseScript(String script)
+    {
+        List<ScriptPart> parts = new ArrayList<>();
+        StringBuilder statements = new StringBuilder();
+        Iterator<String> lines = script.lines().iterator();
+
+        while (lines.hasNext())
+        {
+            String line = lines.next();
+
+            if (!COPY_FROM_STDIN.matcher(line.strip()).matches())
+            {
+                statements.append(line).append('\n');
+                continue;
+            }
+
+            if (!statements.toString().isBlank())
+            {
+                parts.add(new ScriptPart(statements.toString(), null));
+            }
+            statements.setLength(0);
+
+            String copySql = line.strip().substring(0, line.strip().length() - 1);
+            StringBuilder rows = new StringBuilder();
+            boolean ended = false;
+
+            while (lines.hasNext() && !ended)
+            {
+                String row = lines.next();
+
+                if (END_OF_COPY.equals(row))
+                {
+                    ended = true;
+                }
+                else
+                {
+                    rows.append(row).append('\n');
+                }
+            }
+
+            if (!ended)
+            {
+                throw new IllegalArgumentException("COPY mangler en afsluttende \\. linje: " + copySql);
+            }
+            parts.add(new ScriptPart(copySql, rows.toString()));
+        }
+
+        if (!statements.toString().isBlank())
+        {
+            parts.add(new ScriptPart(statements.toString(), null));
+        }
+        return parts;
+    }
+}
@@ -1,17 +1,79 @@
 package app.persistence;
 
+import app.dto.OrderAggregateDTO;
 import app.dto.OrderOverviewDTO;
-import app.entities.Order;
-import app.entities.PricingDetails;
+import app.dto.OrderOverviewPageDTO;
+import app.dto.OrderPageCursor;
+import app.entities.*;
 import app.enums.OrderStatus;
+import app.enums.RoofType;
+import app.enums.Role;
+import app.enums.ShedPlacement;
 import app.exceptions.DatabaseException;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 public class OrderMapper
 {
+    // The indexed queries are package-private, so QueryPlanTest explains the exact SQL that runs here
+    static final String ORDERS_BY_CUSTOMER_SQL = """
+            SELECT order_id, customer_id, seller_id, carport_id, request_created_at, created_at, offer_valid_days, order_status, customer_comment, coverage_percentage, cost_price
+            FROM orders
+            WHERE customer_id = ?
+            ORDER BY request_created_at DESC
+            """;
+
+    static final String ORDER_OVERVIEWS_BY_STATUS_SQL = """
+            SELECT o.order_id, u.first_name, u.last_name, u.email, o.request_created_at, o.order_status
+            FROM orders o
+            JOIN users u ON o.customer_id = u.user_id
+            WHERE o.order_status = ?
+            ORDER BY request_created_at DESC
+            """;
+
+    static final String ORDER_OVERVIEW_PAGES_BY_STATUS_SQL = """
+            SELECT page.order_id, page.first_name, page.last_name, page.email, page.request_created_at, page.order_status
+            FROM unnest(?::varchar[], ?::timestamp[], ?::int[]) AS pc(order_status, request_created_at, order_id)
+            CROSS JOIN LATERAL (
+                SELECT o.order_id, u.first_name, u.last_name, u.email, o.request_created_at, o.order_status
+                FROM orders o
+                JOIN users u ON o.customer_id = u.user_id
+                WHERE o.order_status = pc.order_status
+                  AND (pc.request_created_at IS NULL
+                       OR (o.request_created_at, o.order_id) < (pc.request_created_at, pc.order_id))
+                ORDER BY o.request_created_at DESC, o.order_id DESC
+                LIMIT ?
+            ) page
+            ORDER BY page.request_created_at DESC, page.order_id DESC
+            """;
+
+    static final String COUNT_ORDERS_BY_STATUS_SQL = """
+            SELECT COUNT(*)
+            FROM orders o
+            WHERE o.order_status = ?
+            """;
+
+    static final String EXPIRE_READY_OFFERS_SQL = """
+            UPDATE orders
+            SET order_status = 'EXPIRED'
+            WHERE order_status = 'READY'
+              AND order_id IN (
+                  SELECT order_id
+                  FROM orders
+                  WHERE order_status = 'READY'
+                    AND created_at IS NOT NULL
+                    AND offer_valid_days IS NOT NULL
+                    AND created_at + make_interval(days => offer_valid_days) < NOW()
+                  ORDER BY order_id
+                  LIMIT ?
+                  FOR UPDATE SKIP LOCKED
+              )
+            """;
+
     private ConnectionPool connectionPool;
 
     public OrderMapper(ConnectionPool connectionPool)
@@ -73,7 +135,6 @@ public class OrderMapper
 
     public Order getOrderById(int orderId) throws DatabaseException
     {
-        updateOrderStatusIfExpired();
         String sql = """
                 SELECT order_id, customer_id, seller_id, carport_id, request_created_at, created_at, offer_valid_days, order_status, customer_comment, coverage_percentage, cost_price
                 FROM orders 
@@ -103,9 +164,59 @@ public class OrderMapper
         }
     }
 
+    /***
+     * Loads an order together with its customer, seller, carport and shed in a single round-trip.
+     * @param connection the caller's connection, so further statements for the same page can reuse it
+     */
+    public OrderAggregateDTO getOrderAggregateById(Connection connection, int orderId) throws DatabaseException
+    {
+        String sql = """
+                SELECT o.order_id, o.customer_id, o.seller_id, o.carport_id, o.request_created_at, o.created_at, o.offer_valid_days,
+                       o.order_status, o.customer_comment, o.coverage_percentage, o.cost_price,
+                       cu.first_name AS customer_first_name, cu.last_name AS customer_last_name, cu.email AS customer_email,
+                       cu.phone_number AS customer_phone_number, cu.hashed_password AS customer_hashed_password,
+                       cu.street AS customer_street, cu.zip_code AS customer_zip_code, cz.city AS customer_city, cu.role AS customer_role,
+                       se.first_name AS seller_first_name, se.last_name AS seller_last_name, se.email AS seller_email,
+                       se.phone_number AS seller_phone_number, se.hashed_password AS seller_hashed_password,
+                       se.street AS seller_street, se.zip_code AS seller_zip_code, sz.city AS seller_city, se.role AS seller_role,
+                       c.length AS carport_length, c.width AS carport_width, c.roof_type AS carport_roof_type,
+                       s.shed_id, s.length AS shed_length, s.width AS shed_width, s.shed_placement
+                FROM orders o
+                JOIN users cu ON o.customer_id = cu.user_id
+                JOIN zip_code cz ON cu.zip_code = cz.zip_code
+                LEFT JOIN users se ON o.seller_id = se.user_id
+                LEFT JOIN zip_code sz ON se.zip_code = sz.zip_code
+                JOIN carport c ON o.carport_id = c.carport_id
+                LEFT JOIN shed s ON c.shed_id = s.shed_id
+                WHERE o.order_id = ?
+                """;
+
+        try (PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setInt(1, orderId);
+
+            try (ResultSet rs = ps.executeQuery())
+            {
+                if (!rs.next())
+                {
+                    throw new DatabaseException("Ordren blev ikke fundet for ordre: " + orderId);
+                }
+
+                Order order = buildOrderFromResultSet(rs);
+                User customer = buildUserFromResultSet(rs, "customer_", order.getCustomerId());
+                User seller = order.getSellerId() != null ? buildUserFromResultSet(rs, "seller_", order.getSellerId()) : null;
+
+                return new OrderAggregateDTO(order, customer, seller, buildCarportFromResultSet(rs));
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved hentning af ordre " + e.getMessage());
+        }
+    }
+
     public List<Order> getAllOrders() throws DatabaseException
     {
-        updateOrderStatusIfExpired();
         String sql = """
                 SELECT order_id, customer_id, seller_id, carport_id, request_created_at, created_at, offer_valid_days, order_status, customer_comment, coverage_percentage, cost_price
                 FROM orders
@@ -136,18 +247,10 @@ public class OrderMapper
 
     public List<Order> getAllOrdersByUserId(int userId) throws DatabaseException
     {
-        updateOrderStatusIfExpired();
-        String sql = """
-                SELECT order_id, customer_id, seller_id, carport_id, request_created_at, created_at, offer_valid_days, order_status, customer_comment, coverage_percentage, cost_price
-                FROM orders
-                WHERE customer_id = ?
-                ORDER BY request_created_at DESC
-                """;
-
         List<Order> orders = new ArrayList<>();
 
         try (Connection connection = connectionPool.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql))
+             PreparedStatement ps = connection.prepareStatement(ORDERS_BY_CUSTOMER_SQL))
         {
             ps.setInt(1, userId);
 
@@ -170,7 +273,6 @@ public class OrderMapper
 
     public List<Order> getAllOrdersByStatus(OrderStatus offerStatus) throws DatabaseException
     {
-        updateOrderStatusIfExpired();
         String sql = """
                 SELECT order_id, customer_id, seller_id, carport_id, request_created_at, created_at, offer_valid_days, order_status, customer_comment, coverage_percentage, cost_price
                 FROM orders
@@ -203,19 +305,10 @@ public class OrderMapper
 
     public List<OrderOverviewDTO> getAllOrderOverviewsByStatus(OrderStatus status) throws DatabaseException
     {
-        updateOrderStatusIfExpired();
         List<OrderOverviewDTO> orderOverviewDTOS = new ArrayList<>();
 
-        String sql = """
-                SELECT o.order_id, u.first_name, u.last_name, u.email, o.request_created_at, o.order_status
-                FROM orders o
-                JOIN users u ON o.customer_id = u.user_id
-                WHERE o.order_status = ?
-                ORDER BY request_created_at DESC
-                """;
-
         try (Connection connection = connectionPool.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql))
+             PreparedStatement ps = connection.prepareStatement(ORDER_OVERVIEWS_BY_STATUS_SQL))
         {
             ps.setString(1, status.name());
             ResultSet rs = ps.executeQuery();
@@ -239,9 +332,82 @@ public class OrderMapper
         return orderOverviewDTOS;
     }
 
+    /***
+     * Keyset pagination over several statuses in one round-trip: each status gets its own
+     * LATERAL subquery that continues after that status' cursor (or starts from the newest).
+     * @param cursorsByStatus the statuses to load, mapped to the cursor to continue after (null for the first page)
+     */
+    public Map<OrderStatus, OrderOverviewPageDTO> getOrderOverviewPagesByStatuses(Map<OrderStatus, OrderPageCursor> cursorsByStatus, int pageSize) throws DatabaseException
+    {
+        Map<OrderStatus, List<OrderOverviewDTO>> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        Map<OrderStatus, OrderOverviewPageDTO> pages = new EnumMap<>(OrderStatus.class);
+
+        if (cursorsByStatus.isEmpty())
+        {
+            return pages;
+        }
+
+        int statusCount = cursorsByStatus.size();
+        String[] statusNames = new String[statusCount];
+        String[] cursorTimestamps = new String[statusCount];
+        Integer[] cursorOrderIds = new Integer[statusCount];
+        int i = 0;
+
+        for (Map.Entry<OrderStatus, OrderPageCursor> entry : cursorsByStatus.entrySet())
+        {
+            OrderPageCursor cursor = entry.getValue();
+            statusNames[i] = entry.getKey().name();
+            cursorTimestamps[i] = cursor != null ? cursor.getRequestCreatedAtTimestamp().toString() : null;
+            cursorOrderIds[i] = cursor != null ? cursor.orderId() : null;
+            ordersByStatus.put(entry.getKey(), new ArrayList<>());
+            i++;
+        }
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(ORDER_OVERVIEW_PAGES_BY_STATUS_SQL))
+        {
+            ps.setArray(1, connection.createArrayOf("varchar", statusNames));
+            ps.setArray(2, connection.createArrayOf("timestamp", cursorTimestamps));
+            ps.setArray(3, connection.createArrayOf("integer", cursorOrderIds));
+            // One extra row per status tells whether there is a next page without a COUNT
+            ps.setInt(4, pageSize + 1);
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next())
+            {
+                OrderStatus orderStatus = OrderStatus.valueOf(rs.getString("order_status"));
+
+                ordersByStatus.get(orderStatus).add(new OrderOverviewDTO(
+                        rs.getInt("order_id"),
+                        rs.getString("first_name") + " " + rs.getString("last_name"),
+                        rs.getString("email"),
+                        rs.getTimestamp("request_created_at"),
+                        orderStatus
+                ));
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved hentning af ordrer" + e.getMessage());
+        }
+
+        for (Map.Entry<OrderStatus, List<OrderOverviewDTO>> entry : ordersByStatus.entrySet())
+        {
+            List<OrderOverviewDTO> orders = entry.getValue();
+            OrderPageCursor nextCursor = null;
+
+            if (orders.size() > pageSize)
+            {
+                orders = orders.subList(0, pageSize);
+                nextCursor = OrderPageCursor.of(orders.get(pageSize - 1));
+            }
+            pages.put(entry.getKey(), new OrderOverviewPageDTO(orders, nextCursor));
+        }
+        return pages;
+    }
+
     public List<OrderOverviewDTO> getAllOrderOverviewsByUserId(int userId) throws DatabaseException
     {
-        updateOrderStatusIfExpired();
         List<OrderOverviewDTO> orderOverviewDTOS = new ArrayList<>();
 
         String sql = """
@@ -279,7 +445,6 @@ public class OrderMapper
 
     public List<OrderOverviewDTO> getAllOrderOverviewsByUserIdAndStatus(int userId, OrderStatus orderStatus) throws DatabaseException
     {
-        updateOrderStatusIfExpired();
         List<OrderOverviewDTO> orderOverviewDTOS = new ArrayList<>();
 
         String sql = """
@@ -415,13 +580,8 @@ public class OrderMapper
 
     public int getNumberOfOrdersByStatus(OrderStatus orderStatus) throws DatabaseException
     {
-        String sql = """
-                SELECT COUNT(*)
-                FROM orders o
-                WHERE o.order_status = ?
-                """;
         try (Connection connection = connectionPool.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql))
+             PreparedStatement ps = connection.prepareStatement(COUNT_ORDERS_BY_STATUS_SQL))
         {
             ps.setString(1, orderStatus.name());
             ResultSet rs = ps.executeQuery();
@@ -440,23 +600,76 @@ public class OrderMapper
         }
     }
 
-    public int updateOrderStatusIfExpired() throws DatabaseException {
+    public Map<OrderStatus, Integer> getNumberOfOrdersGroupedByStatus() throws DatabaseException
+    {
         String sql = """
-        UPDATE orders
-        SET order_status = 'EXPIRED'
-        WHERE order_status = 'READY'
-          AND created_at IS NOT NULL
-          AND offer_valid_days IS NOT NULL
-          AND created_at + make_interval(days => offer_valid_days) < NOW()
-        """;
+                SELECT o.order_status, COUNT(*) AS count
+                FROM orders o
+                GROUP BY o.order_status
+                """;
+
+        Map<OrderStatus, Integer> counts = new EnumMap<>(OrderStatus.class);
 
         try (Connection connection = connectionPool.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql)) {
+             PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ResultSet rs = ps.executeQuery();
 
-            return ps.executeUpdate();
+            while (rs.next())
+            {
+                counts.put(OrderStatus.valueOf(rs.getString("order_status")), rs.getInt("count"));
+            }
+            return counts;
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved optælling af ordre pr. status: " + e.getMessage());
+        }
+    }
+
+    public OrderStatus getOrderStatusForUpdate(Connection connection, int orderId) throws DatabaseException
+    {
+        String sql = """
+                SELECT order_status
+                FROM orders
+                WHERE order_id = ?
+                FOR UPDATE
+                """;
 
-        } catch (SQLException e) {
-            throw new DatabaseException("Error updating expired orders: " + e.getMessage());
+        try (PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setInt(1, orderId);
+            ResultSet rs = ps.executeQuery();
+
+            if (rs.next())
+            {
+                return OrderStatus.valueOf(rs.getString("order_status"));
+            }
+            throw new DatabaseException("Ordren blev ikke fundet for ordre: " + orderId);
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved hentning af ordrestatus: " + e.getMessage());
+        }
+    }
+
+    /***
+     * Expires at most batchSize READY offers in one short transaction. Rows locked by
+     * another transaction are skipped and picked up by the next batch or run.
+     * @param batchSize max number of orders to update
+     * @return number of orders set to EXPIRED
+     */
+    public int updateOrderStatusIfExpired(int batchSize) throws DatabaseException
+    {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(EXPIRE_READY_OFFERS_SQL))
+        {
+            ps.setInt(1, batchSize);
+            return ps.executeUpdate();
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved opdatering af udløbne tilbud: " + e.getMessage());
         }
     }
 
@@ -485,4 +698,44 @@ public class OrderMapper
                 pricingDetails
         );
     }
+
+    private User buildUserFromResultSet(ResultSet rs, String prefix, int userId) throws SQLException
+    {
+        return new User(
+                userId,
+                rs.getString(prefix + "first_name"),
+                rs.getString(prefix + "last_name"),
+                rs.getString(prefix + "hashed_password"),
+                rs.getString(prefix + "street"),
+                rs.getInt(prefix + "zip_code"),
+                rs.getString(prefix + "city"),
+                rs.getString(prefix + "email"),
+                rs.getString(prefix + "phone_number"),
+                Role.valueOf(rs.getString(prefix + "role"))
+        );
+    }
+
+    private Carport buildCarportFromResultSet(ResultSet rs) throws SQLException
+    {
+        Shed shed = null;
+        Integer shedId = (Integer) rs.getObject("shed_id");
+
+        if (shedId != null)
+        {
+            shed = new Shed(
+                    shedId,
+                    rs.getInt("shed_length"),
+                    rs.getInt("shed_width"),
+                    ShedPlacement.valueOf(rs.getString("shed_placement"))
+            );
+        }
+
+        return new Carport(
+                rs.getInt("carport_id"),
+                rs.getInt("carport_length"),
+                rs.getInt("carport_width"),
+                RoofType.valueOf(rs.getString("carport_roof_type")),
+                shed
+        );
+    }
 }
@@ -0,0 +1,84 @@
+package app.persistence;
+
+import app.util.RequestMetrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/***
+ * Wraps a pooled connection so every execute call on its statements is counted and timed in
+ * RequestMetrics, without the mappers knowing about it. Everything else goes straight to the
+ * real connection, so closing the wrapper still hands the connection back to Hikari.
+ */
+class TimedConnection
+{
+    private TimedConnection()
+    {
+    }
+
+    static Connection wrap(Connection connection)
+    {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    private record ConnectionHandler(Connection connection) implements InvocationHandler
+    {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            Object result = TimedConnection.invoke(connection, method, args);
+
+            // createStatement, prepareStatement and prepareCall return the interface they are declared with
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType()))
+            {
+                return Proxy.newProxyInstance(
+                        Connection.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()},
+                        new StatementHandler(statement));
+            }
+            return result;
+        }
+    }
+
+    private record StatementHandler(Statement statement) implements InvocationHandler
+    {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            if (!method.getName().startsWith("execute"))
+            {
+                return TimedConnection.invoke(statement, method, args);
+            }
+
+            long start = System.nanoTime();
+
+            try
+            {
+                return TimedConnection.invoke(statement, method, args);
+            }
+            finally
+            {
+                RequestMetrics.recordDbCall(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -204,6 +204,35 @@ public class UserMapper
         }
     }
 
+    /***
+     * Only replaces the hash if it is still the one the new hash was made from, so a password
+     * changed in the meantime is never overwritten
+     * @return false when the password had been changed
+     */
+    public boolean updateHashedPassword(int userId, String oldHashedPassword, String newHashedPassword) throws DatabaseException
+    {
+        String sql = """
+                UPDATE users
+                SET hashed_password = ?
+                WHERE user_id = ?
+                AND hashed_password = ?
+                """;
+
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql))
+        {
+            ps.setString(1, newHashedPassword);
+            ps.setInt(2, userId);
+            ps.setString(3, oldHashedPassword);
+
+            return ps.executeUpdate() == 1;
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved opdatering af password: " + e.getMessage());
+        }
+    }
+
     private User buildUserFromResultSet(ResultSet rs) throws SQLException
     {
         return new User(
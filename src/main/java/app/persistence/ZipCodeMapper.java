@@ -1,10 +1,14 @@
 package app.persistence;
 
+import app.entities.ZipCodeDirectory;
 import app.exceptions.DatabaseException;
 import java.sql.*;
+import java.util.Arrays;
 
 public class ZipCodeMapper
 {
+    private static final int EXPECTED_ZIP_CODES = 1200;
+
     private ConnectionPool connectionPool;
 
     public ZipCodeMapper(ConnectionPool connectionPool)
@@ -12,46 +16,39 @@ public class ZipCodeMapper
         this.connectionPool = connectionPool;
     }
 
-    public boolean zipCodeExists(int zipCode) throws DatabaseException
+    /***
+     * Reads every zip code in one query, sorted, straight into the arrays of a ZipCodeDirectory
+     */
+    public ZipCodeDirectory getZipCodeDirectory(long version) throws DatabaseException
     {
-        String sql = "SELECT FROM zip_code WHERE zip_code = ?";
+        String sql = "SELECT zip_code, city FROM zip_code ORDER BY zip_code";
 
         try (Connection connection = connectionPool.getConnection();
              PreparedStatement ps = connection.prepareStatement(sql))
         {
-            ps.setInt(1, zipCode);
             ResultSet rs = ps.executeQuery();
-            return rs.next();
-
-        } catch (SQLException e)
-        {
-            throw new DatabaseException("Fejl ved hentning af postnummer");
-        }
-    }
-
-    public String getCityByZipCode(int zipCode) throws DatabaseException
-    {
-        String sql = "SELECT city FROM zip_code WHERE zip_code = ?";
 
-        try (Connection connection = connectionPool.getConnection();
-             PreparedStatement ps = connection.prepareStatement(sql))
-        {
-
-            ps.setInt(1, zipCode);
-            ResultSet rs = ps.executeQuery();
+            int[] zipCodes = new int[EXPECTED_ZIP_CODES];
+            String[] cities = new String[EXPECTED_ZIP_CODES];
+            int count = 0;
 
-            if (rs.next())
-            {
-                return rs.getString("city");
-            }
-            else
+            while (rs.next())
             {
-                return null;
+                if (count == zipCodes.length)
+                {
+                    zipCodes = Arrays.copyOf(zipCodes, count * 2);
+                    cities = Arrays.copyOf(cities, count * 2);
+                }
+                zipCodes[count] = rs.getInt("zip_code");
+                cities[count] = rs.getString("city");
+                count++;
             }
 
+            return new ZipCodeDirectory(version, Arrays.copyOf(zipCodes, count), Arrays.copyOf(cities, count));
+
         } catch (SQLException e)
         {
-            throw new DatabaseException("Fejl ved hentning af by");
+            throw new DatabaseException("Fejl ved hentning af postnumre");
         }
     }
-}
\ No newline at end of file
+}
@@ -13,36 +13,42 @@ import java.util.*;
 
 public class BomService implements IBomService
 {
-    private MaterialVariantMapper variantMapper;
+    private final IMaterialCatalogService catalogService;
     private static final int BOARDS_PER_SIDE_OR_ENDS = 2;
     private static final int ONLY_FRONT_END = 1;
     private static final int BOARD_BUFFER_TOLERANCE_CM = AppProperties.getRequiredInt("carport.board.buffer.tolerance.cm");
     private final int STANDARD_POST_LENGTH = AppProperties.getRequiredInt("post.standard.length.cm");
     private final double COVERAGE_PERCENTAGE = AppProperties.getRequiredDouble("coverage.percentage");
 
+    public BomService(IMaterialCatalogService catalogService)
+    {
+        this.catalogService = catalogService;
+    }
+
     public BomService(MaterialVariantMapper variantMapper)
     {
-        this.variantMapper = variantMapper;
+        this(new MaterialCatalogService(variantMapper));
     }
 
     @Override
     public List<MaterialLine> getBillOfMaterialByCarport(Carport carport) throws DatabaseException, MaterialNotFoundException
     {
         List<MaterialLine> billOfMaterial = new ArrayList<>();
-
-        MaterialLine postMaterialLine = calculateNumberOfPosts(carport);
-        MaterialLine rafterMaterialLine = calculateNumberOfRafters(carport);
-        MaterialLine roofPlateScrewLine = calculateRoofPlateScrews(carport);
-        MaterialLine stripRollLine = calculateNumberOfStripRolls(carport);
-        MaterialLine bracketScrewLine = calculateBracketScrews(carport);
-
-        List<MaterialLine> beamMaterialLines = calculateNumberOfBeams(carport);
-        List<MaterialLine> roofMaterialLines = calculateRoofTiles(carport);
-        List<MaterialLine> fittingMaterialLines = getFittingsForCarport(PartCalculator.calculateNumberOfRafters(carport.getLength()));
-        List<MaterialLine> boltsAndWashers = calculateNumberOfCarriageBoltsAndWashers(carport);
-        List<MaterialLine> underFasciaBoards = calculateUnderFasciaBoards(carport);
-        List<MaterialLine> overFasciaBoards = calculateOverFasciaBoards(carport);
-        List<MaterialLine> waterBoards = calculateWaterBoards(carport);
+        MaterialCatalog catalog = catalogService.getCatalog();
+
+        MaterialLine postMaterialLine = calculateNumberOfPosts(catalog, carport);
+        MaterialLine rafterMaterialLine = calculateNumberOfRafters(catalog, carport);
+        MaterialLine roofPlateScrewLine = calculateRoofPlateScrews(catalog, carport);
+        MaterialLine stripRollLine = calculateNumberOfStripRolls(catalog, carport);
+        MaterialLine bracketScrewLine = calculateBracketScrews(catalog, carport);
+
+        List<MaterialLine> beamMaterialLines = calculateNumberOfBeams(catalog, carport);
+        List<MaterialLine> roofMaterialLines = calculateRoofTiles(catalog, carport);
+        List<MaterialLine> fittingMaterialLines = getFittingsForCarport(catalog, PartCalculator.calculateNumberOfRafters(carport.getLength()));
+        List<MaterialLine> boltsAndWashers = calculateNumberOfCarriageBoltsAndWashers(catalog, carport);
+        List<MaterialLine> underFasciaBoards = calculateUnderFasciaBoards(catalog, carport);
+        List<MaterialLine> overFasciaBoards = calculateOverFasciaBoards(catalog, carport);
+        List<MaterialLine> waterBoards = calculateWaterBoards(catalog, carport);
 
         billOfMaterial.add(rafterMaterialLine);
         billOfMaterial.add(postMaterialLine);
@@ -101,7 +107,7 @@ public class BomService implements IBomService
                 .sum();
     }
 
-    private MaterialLine calculateNumberOfPosts(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private MaterialLine calculateNumberOfPosts(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         int numberOfPosts = 0;
 
@@ -114,7 +120,7 @@ public class BomService implements IBomService
             numberOfPosts = PartCalculator.calculateNumberOfPostsWithOutShed(carport.getLength());
         }
 
-        List<MaterialVariant> posts = variantMapper.getAllVariantsByType(MaterialType.POST);
+        List<MaterialVariant> posts = catalog.getVariantsByType(MaterialType.POST);
 
         MaterialVariant postVariant = posts.stream()
                 .filter(materialVariant -> materialVariant.getVariantLength() == STANDARD_POST_LENGTH)
@@ -124,11 +130,11 @@ public class BomService implements IBomService
         return new MaterialLine(postVariant, numberOfPosts);
     }
 
-    private MaterialLine calculateNumberOfRafters(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private MaterialLine calculateNumberOfRafters(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         int numberOfRafters = PartCalculator.calculateNumberOfRafters(carport.getLength());
 
-        List<MaterialVariant> rafterVariants = variantMapper.getAllVariantsByType(MaterialType.RAFTER);
+        List<MaterialVariant> rafterVariants = catalog.getVariantsByType(MaterialType.RAFTER);
 
         MaterialVariant rafterVariant = rafterVariants.stream()
                 .filter(variant -> variant.getVariantLength() != null)
@@ -139,10 +145,10 @@ public class BomService implements IBomService
         return new MaterialLine(rafterVariant, numberOfRafters);
     }
 
-    private List<MaterialLine> calculateRoofTiles(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private List<MaterialLine> calculateRoofTiles(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         List<MaterialLine> roofVariantsNeeded = new ArrayList<>();
-        List<MaterialVariant> roofVariants = variantMapper.getAllVariantsByType(MaterialType.ROOF);
+        List<MaterialVariant> roofVariants = catalog.getVariantsByType(MaterialType.ROOF);
 
         int roofVariantWidth = roofVariants.stream()
                 .filter(materialVariant -> materialVariant.getVariantLength() != null)
@@ -185,10 +191,10 @@ public class BomService implements IBomService
         return roofVariantsNeeded;
     }
 
-    private List<MaterialLine> calculateNumberOfBeams(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private List<MaterialLine> calculateNumberOfBeams(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         List<MaterialLine> beamsNeeded = new ArrayList<>();
-        List<MaterialVariant> beamVariants = variantMapper.getAllVariantsByType(MaterialType.BEAM);
+        List<MaterialVariant> beamVariants = catalog.getVariantsByType(MaterialType.BEAM);
         final int NUMBER_OF_BEAM_ROWS = 2;
         final int MAX_VARIANT_lENGTH = getMaxVariantLength(beamVariants);
         int distanceToCenterPost = PostPlacementCalculatorUtil.calculateCenterPostPlacement(carport);
@@ -239,11 +245,11 @@ public class BomService implements IBomService
         return beamsNeeded;
     }
 
-    private MaterialLine calculateRoofPlateScrews(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private MaterialLine calculateRoofPlateScrews(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         final String PLASTMO_BOTTOM_SCREW_NAME = "Plastmo Bundskruer";
 
-        List<MaterialVariant> fastenerVariants = variantMapper.getAllVariantsByType(MaterialType.FASTENER);
+        List<MaterialVariant> fastenerVariants = catalog.getVariantsByType(MaterialType.FASTENER);
 
         MaterialVariant roofFastenerVariant = fastenerVariants.stream()
                 .filter(materialVariant -> materialVariant != null)
@@ -257,14 +263,14 @@ public class BomService implements IBomService
         return new MaterialLine(roofFastenerVariant, numberOfPackagesNeeded);
     }
 
-    private List<MaterialLine> getFittingsForCarport(int numberOfFittings) throws DatabaseException, MaterialNotFoundException
+    private List<MaterialLine> getFittingsForCarport(MaterialCatalog catalog, int numberOfFittings) throws MaterialNotFoundException
     {
         final String FITTING_RIGHT = "Universal højre";
         final String FITTING_LEFT= "Universal venstre";
         List<MaterialLine> fittings = new ArrayList<>();
 
-        MaterialVariant rightFitting = getFittingsForRafters(FITTING_RIGHT);
-        MaterialVariant leftFitting = getFittingsForRafters(FITTING_LEFT);
+        MaterialVariant rightFitting = getFittingsForRafters(catalog, FITTING_RIGHT);
+        MaterialVariant leftFitting = getFittingsForRafters(catalog, FITTING_LEFT);
 
         fittings.add(new MaterialLine(rightFitting, numberOfFittings));
         fittings.add(new MaterialLine(leftFitting, numberOfFittings));
@@ -272,9 +278,9 @@ public class BomService implements IBomService
         return fittings;
     }
 
-    private MaterialVariant getFittingsForRafters(String fittingDirection) throws DatabaseException, MaterialNotFoundException
+    private MaterialVariant getFittingsForRafters(MaterialCatalog catalog, String fittingDirection) throws MaterialNotFoundException
     {
-        List<MaterialVariant> fittingVariants = variantMapper.getAllVariantsByType(MaterialType.FITTING);
+        List<MaterialVariant> fittingVariants = catalog.getVariantsByType(MaterialType.FITTING);
 
         return fittingVariants.stream()
                 .filter(materialVariant -> materialVariant != null)
@@ -283,9 +289,9 @@ public class BomService implements IBomService
                 .orElseThrow(() -> new MaterialNotFoundException("Kunne ikke finde beslag"));
     }
 
-    private MaterialLine calculateNumberOfStripRolls(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private MaterialLine calculateNumberOfStripRolls(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
-        List<MaterialVariant> stripRollVariants = variantMapper.getAllVariantsByType(MaterialType.METAL_STRAP);
+        List<MaterialVariant> stripRollVariants = catalog.getVariantsByType(MaterialType.METAL_STRAP);
 
         MaterialVariant stripRoolVariant = stripRollVariants.stream()
                 .filter(materialVariant -> materialVariant != null)
@@ -297,7 +303,7 @@ public class BomService implements IBomService
         return new MaterialLine(stripRoolVariant, numberOfStripRoolsNeeded);
     }
 
-    private List<MaterialLine> calculateNumberOfCarriageBoltsAndWashers(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private List<MaterialLine> calculateNumberOfCarriageBoltsAndWashers(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         final String CARRIAGE_BOLT_NAME = "bræddebolt";
         final int CARRIAGE_BOLT_LENGTH_CM = AppProperties.getRequiredInt("carriage.bolt.length.cm");
@@ -306,12 +312,12 @@ public class BomService implements IBomService
 
         List<MaterialLine> boltsAndWashers = new ArrayList<>();
 
-        List<MaterialVariant> beamVariants = variantMapper.getAllVariantsByType(MaterialType.BEAM);
+        List<MaterialVariant> beamVariants = catalog.getVariantsByType(MaterialType.BEAM);
         int beamMaxVariantLength = getMaxVariantLength(beamVariants);
         int numberOfBolts = PartCalculator.calculateNumberOfCarriageBoltsAndWashers(carport, beamMaxVariantLength);
         int numberOfWashers = numberOfBolts;
 
-        List<MaterialVariant> fastenerVariants = variantMapper.getAllVariantsByType(MaterialType.FASTENER);
+        List<MaterialVariant> fastenerVariants = catalog.getVariantsByType(MaterialType.FASTENER);
         MaterialVariant bolt = fastenerVariants.stream()
                 .filter(materialVariant -> materialVariant != null)
                 .filter(materialVariant -> materialVariant.getMaterial().getName().equals(CARRIAGE_BOLT_NAME))
@@ -320,7 +326,7 @@ public class BomService implements IBomService
                 .min(Comparator.comparing(MaterialVariant::getUnitPrice))
                 .orElseThrow(() -> new MaterialNotFoundException("Kunne ikke finde bræddebolt"));
 
-        List<MaterialVariant> washerVariants = variantMapper.getAllVariantsByType(MaterialType.WASHER);
+        List<MaterialVariant> washerVariants = catalog.getVariantsByType(MaterialType.WASHER);
         MaterialVariant washer = washerVariants.stream()
                 .filter(materialVariant -> materialVariant != null)
                 .filter(materialVariant -> materialVariant.getMaterial().getName().equals(WASHER_NAME))
@@ -333,12 +339,12 @@ public class BomService implements IBomService
         return boltsAndWashers;
     }
 
-    private MaterialLine calculateBracketScrews(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private MaterialLine calculateBracketScrews(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         final String BRACKET_SCREW_NAME = "Beslagskruer";
         final int BRACKET_SCREW_LENGTH_CM = AppProperties.getRequiredInt("bracket.screw.length.cm");
 
-        List<MaterialVariant> fastenerVariants = variantMapper.getAllVariantsByType(MaterialType.FASTENER);
+        List<MaterialVariant> fastenerVariants = catalog.getVariantsByType(MaterialType.FASTENER);
 
         MaterialVariant bracketScrewVariant = fastenerVariants.stream()
                 .filter(materialVariant -> materialVariant != null)
@@ -353,10 +359,10 @@ public class BomService implements IBomService
         return new MaterialLine(bracketScrewVariant, bracketScrewPackages);
     }
 
-    private List<MaterialLine> calculateUnderFasciaBoards(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private List<MaterialLine> calculateUnderFasciaBoards(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         List<MaterialLine> underFasciaBoards = new ArrayList<>();
-        List<MaterialVariant> boardsVariants = variantMapper.getAllVariantsByType(MaterialType.UNDER_FASCIA_BOARD);
+        List<MaterialVariant> boardsVariants = catalog.getVariantsByType(MaterialType.UNDER_FASCIA_BOARD);
         int maxVariantLength = getMaxVariantLength(boardsVariants);
 
         MaterialLine frontAndBackEndsLine = calculateBoards(boardsVariants,
@@ -376,10 +382,10 @@ public class BomService implements IBomService
         return underFasciaBoards;
     }
 
-    private List<MaterialLine> calculateOverFasciaBoards(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private List<MaterialLine> calculateOverFasciaBoards(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         List<MaterialLine> overFasciaBoards = new ArrayList<>();
-        List<MaterialVariant> boardVariants = variantMapper.getAllVariantsByType(MaterialType.OVER_FASCIA_BOARD);
+        List<MaterialVariant> boardVariants = catalog.getVariantsByType(MaterialType.OVER_FASCIA_BOARD);
         int maxVariantLength = getMaxVariantLength(boardVariants);
 
         MaterialLine frontLine = calculateBoards(
@@ -401,10 +407,10 @@ public class BomService implements IBomService
         return overFasciaBoards;
     }
 
-    private List<MaterialLine> calculateWaterBoards(Carport carport) throws DatabaseException, MaterialNotFoundException
+    private List<MaterialLine> calculateWaterBoards(MaterialCatalog catalog, Carport carport) throws MaterialNotFoundException
     {
         List<MaterialLine> waterBoards = new ArrayList<>();
-        List<MaterialVariant> boardVariants = variantMapper.getAllVariantsByType(MaterialType.WATER_BOARD);
+        List<MaterialVariant> boardVariants = catalog.getVariantsByType(MaterialType.WATER_BOARD);
         int maxVariantLength = getMaxVariantLength(boardVariants);
 
         MaterialLine frontLine = calculateBoards(
@@ -446,19 +452,23 @@ public class BomService implements IBomService
 
     private MaterialVariant findOptimalVariantLength(List<MaterialVariant> variants, int length) throws MaterialNotFoundException
     {
-        return variants.stream()
-                .filter(variant -> variant.getVariantLength() != null)
-                .filter(variant -> variant.getVariantLength() >= length)
-                .min(Comparator.comparingInt(MaterialVariant::getVariantLength))
-                .orElseThrow(() -> new MaterialNotFoundException("Ingen kombination af materialer passer til længde: " + length + " cm."));
+        // Catalog variants are sorted by length, so the first match is the shortest one that fits
+        for (MaterialVariant variant : variants)
+        {
+            if (variant.getVariantLength() != null && variant.getVariantLength() >= length)
+            {
+                return variant;
+            }
+        }
+        throw new MaterialNotFoundException("Ingen kombination af materialer passer til længde: " + length + " cm.");
     }
 
     private int getMaxVariantLength(List<MaterialVariant> variants) throws MaterialNotFoundException
     {
-        return variants.stream()
-                .filter(materialVariant -> materialVariant.getVariantLength() != null)
-                .mapToInt(MaterialVariant::getVariantLength)
-                .max()
-                .orElseThrow(() -> new MaterialNotFoundException("Ingen materialer fundet"));
+        if (variants.isEmpty() || variants.get(variants.size() - 1).getVariantLength() == null)
+        {
+            throw new MaterialNotFoundException("Ingen materialer fundet");
+        }
+        return variants.get(variants.size() - 1).getVariantLength();
     }
 }
@@ -0,0 +1,94 @@
+package app.services;
+
+import app.entities.Carport;
+import app.entities.MaterialLine;
+import app.entities.MaterialVariant;
+import app.entities.Shed;
+import app.enums.RoofType;
+import app.enums.ShedPlacement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * Precomputed bills of material for one material catalog version.
+ * Each entry only keeps the catalog's variant references and the quantities as parallel arrays;
+ * lookups hand out fresh MaterialLine objects, since callers persist and modify them.
+ */
+public class BomTable
+{
+    private final long catalogVersion;
+    private final Map<BomKey, BomEntry> entries = new HashMap<>();
+
+    public BomTable(long catalogVersion)
+    {
+        this.catalogVersion = catalogVersion;
+    }
+
+    public long getCatalogVersion()
+    {
+        return catalogVersion;
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /***
+     * Only used while the table is being built, before it is published to other threads.
+     */
+    void put(Carport carport, List<MaterialLine> billOfMaterial)
+    {
+        MaterialVariant[] variants = new MaterialVariant[billOfMaterial.size()];
+        int[] quantities = new int[billOfMaterial.size()];
+
+        for (int i = 0; i < billOfMaterial.size(); i++)
+        {
+            variants[i] = billOfMaterial.get(i).getMaterialVariant();
+            quantities[i] = billOfMaterial.get(i).getQuantity();
+        }
+        entries.put(BomKey.from(carport), new BomEntry(variants, quantities));
+    }
+
+    /***
+     * @return a new bill of material for the carport, or null if the dimensions were not precomputed
+     */
+    public List<MaterialLine> lookup(Carport carport)
+    {
+        BomEntry entry = entries.get(BomKey.from(carport));
+
+        if (entry == null)
+        {
+            return null;
+        }
+
+        List<MaterialLine> billOfMaterial = new ArrayList<>(entry.variants().length);
+
+        for (int i = 0; i < entry.variants().length; i++)
+        {
+            billOfMaterial.add(new MaterialLine(entry.variants()[i], entry.quantities()[i]));
+        }
+        return billOfMaterial;
+    }
+
+    private record BomEntry(MaterialVariant[] variants, int[] quantities)
+    {
+    }
+
+    private record BomKey(int length, int width, RoofType roofType, int shedLength, int shedWidth, ShedPlacement shedPlacement)
+    {
+        private static BomKey from(Carport carport)
+        {
+            Shed shed = carport.getShed();
+
+            if (shed == null)
+            {
+                return new BomKey(carport.getLength(), carport.getWidth(), carport.getRoofType(), 0, 0, null);
+            }
+            return new BomKey(carport.getLength(), carport.getWidth(), carport.getRoofType(), shed.getLength(), shed.getWidth(), shed.getShedPlacement());
+        }
+    }
+}
@@ -1,23 +1,36 @@
 package app.services;
 
+import app.dto.CacheStatisticsDTO;
 import app.entities.Carport;
 import app.entities.Shed;
+import app.enums.RoofType;
 import app.enums.ShedPlacement;
 import app.exceptions.DatabaseException;
 import app.persistence.CarportMapper;
 import app.services.svg.CarportSvgSide;
 import app.services.svg.CarportSvgTop;
 import app.util.AppProperties;
+import app.util.LruCache;
+import app.util.RequestMetrics;
 import app.util.ValidationUtil;
 
 public class CarportService implements ICarportService
 {
     private CarportMapper carportMapper;
     private static final int SHED_SIDE_MARGIN = AppProperties.getRequiredInt("carport.post.edge.inset.cm");
+    private static final int DEFAULT_DRAWING_CACHE_SIZE = 500;
+
+    // The drawings only depend on the dimensions, so identical carports share the rendered markup
+    private final LruCache<DrawingKey, String> topDrawingCache;
+    private final LruCache<DrawingKey, String> sideDrawingCache;
 
     public CarportService(CarportMapper carportMapper)
     {
         this.carportMapper = carportMapper;
+
+        int drawingCacheSize = AppProperties.getInt("carport.svg.cache.size", DEFAULT_DRAWING_CACHE_SIZE);
+        this.topDrawingCache = new LruCache<>("carport-svg-top", drawingCacheSize);
+        this.sideDrawingCache = new LruCache<>("carport-svg-side", drawingCacheSize);
     }
 
     @Override
@@ -49,23 +62,47 @@ public class CarportService implements ICarportService
     }
 
     @Override
-    public CarportSvgTop getCarportTopSvgView(Carport carport)
+    public String getCarportTopSvgView(Carport carport)
     {
         if(carport == null)
         {
             throw new IllegalArgumentException("Carport mål skal være udfyldt");
         }
-        return new CarportSvgTop(carport);
+        return topDrawingCache.getOrCompute(DrawingKey.from(carport), key ->
+        {
+            try (RequestMetrics.Span span = RequestMetrics.span("CarportSvgTop"))
+            {
+                return new CarportSvgTop(carport).toString();
+            }
+        });
     }
 
     @Override
-    public CarportSvgSide getCarportSideSvgView(Carport carport)
+    public String getCarportSideSvgView(Carport carport)
     {
         if(carport == null)
         {
             throw new IllegalArgumentException("Carport mål skal være udfyldt");
         }
-        return new CarportSvgSide(carport);
+        return sideDrawingCache.getOrCompute(DrawingKey.from(carport), key ->
+        {
+            try (RequestMetrics.Span span = RequestMetrics.span("CarportSvgSide"))
+            {
+                return new CarportSvgSide(carport).toString();
+            }
+        });
+    }
+
+    @Override
+    public CacheStatisticsDTO getDrawingCacheStatistics()
+    {
+        CacheStatisticsDTO top = topDrawingCache.getStatistics();
+        CacheStatisticsDTO side = sideDrawingCache.getStatistics();
+        long hits = top.hits() + side.hits();
+        long misses = top.misses() + side.misses();
+        double hitRate = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+
+        return new CacheStatisticsDTO("carport-svg", top.size() + side.size(), top.maxSize() + side.maxSize(), hits, misses, top.evictions() + side.evictions(), hitRate);
     }
 
     public ShedPlacement getShedPlacement(int carportWidth, int shedWidth)
@@ -80,4 +117,18 @@ public class CarportService implements ICarportService
 
         return ShedPlacement.LEFT;
     }
+
+    private record DrawingKey(int length, int width, RoofType roofType, int shedLength, int shedWidth, ShedPlacement shedPlacement)
+    {
+        private static DrawingKey from(Carport carport)
+        {
+            Shed shed = carport.getShed();
+
+            if (shed == null)
+            {
+                return new DrawingKey(carport.getLength(), carport.getWidth(), carport.getRoofType(), 0, 0, null);
+            }
+            return new DrawingKey(carport.getLength(), carport.getWidth(), carport.getRoofType(), shed.getLength(), shed.getWidth(), shed.getShedPlacement());
+        }
+    }
 }
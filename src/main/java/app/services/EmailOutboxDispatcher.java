@@ -0,0 +1,221 @@
+package app.services;
+
+import app.dto.EmailDispatchDTO;
+import app.dto.UserDTO;
+import app.entities.OutboxEmail;
+import app.entities.User;
+import app.exceptions.DatabaseException;
+import app.persistence.EmailOutboxMapper;
+import app.persistence.UserMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/***
+ * Sends the emails queued in the outbox from the background, so a slow or failing SendGrid
+ * never holds up a request. Emails are claimed in batches; a failed send is retried with
+ * exponential backoff and given up after maxAttempts. Delivery is at least once: a crash
+ * between sending and marking the email sent means it is sent again.
+ */
+public class EmailOutboxDispatcher
+{
+    private static final int MAX_BATCHES_PER_RUN = 10;
+    private static final int LEASE_SECONDS = 300;
+    private static final long FIRST_RETRY_SECONDS = 30;
+    private static final long MAX_RETRY_SECONDS = 3600;
+
+    private final EmailOutboxMapper emailOutboxMapper;
+    private final UserMapper userMapper;
+    private final IOrderService orderService;
+    private final IEmailService emailService;
+    private final long intervalSeconds;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final AtomicReference<EmailDispatchDTO> lastDispatch = new AtomicReference<>();
+    private ScheduledExecutorService executor;
+
+    public EmailOutboxDispatcher(EmailOutboxMapper emailOutboxMapper, UserMapper userMapper, IOrderService orderService, IEmailService emailService, long intervalSeconds, int batchSize, int maxAttempts)
+    {
+        if (intervalSeconds <= 0 || batchSize <= 0 || maxAttempts <= 0)
+        {
+            throw new IllegalArgumentException("Interval, batchstørrelse og antal forsøg for udbakken skal være større end 0");
+        }
+
+        this.emailOutboxMapper = emailOutboxMapper;
+        this.userMapper = userMapper;
+        this.orderService = orderService;
+        this.emailService = emailService;
+        this.intervalSeconds = intervalSeconds;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public void start()
+    {
+        if (executor != null)
+        {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "email-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::dispatch, 0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void stop()
+    {
+        if (executor == null)
+        {
+            return;
+        }
+
+        executor.shutdown();
+
+        try
+        {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+            {
+                executor.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    public EmailDispatchDTO dispatch()
+    {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        int claimed = 0;
+        int sent = 0;
+        int retried = 0;
+        int givenUp = 0;
+        int batches = 0;
+        boolean failed = false;
+
+        try
+        {
+            List<OutboxEmail> emails;
+
+            do
+            {
+                emails = emailOutboxMapper.claimDueEmails(batchSize, LEASE_SECONDS);
+                claimed += emails.size();
+                batches++;
+
+                List<Integer> sentEmailIds = new ArrayList<>();
+
+                for (OutboxEmail email : emails)
+                {
+                    String error = send(email);
+
+                    if (error == null)
+                    {
+                        sentEmailIds.add(email.getEmailId());
+                    }
+                    else if (email.getAttempts() >= maxAttempts)
+                    {
+                        emailOutboxMapper.markEmailFailed(email.getEmailId(), error);
+                        givenUp++;
+                        Logger.getLogger("web").log(Level.WARNING, String.format("Email %d (%s) opgivet efter %d forsøg: %s",
+                                email.getEmailId(), email.getEmailType(), email.getAttempts(), error));
+                    }
+                    else
+                    {
+                        emailOutboxMapper.rescheduleEmail(email.getEmailId(), getRetryDelaySeconds(email.getAttempts()), error);
+                        retried++;
+                    }
+                }
+                sent += emailOutboxMapper.markEmailsSent(sentEmailIds);
+            }
+            while (emails.size() == batchSize && batches < MAX_BATCHES_PER_RUN);
+        }
+        catch (DatabaseException | RuntimeException e)
+        {
+            // Must not escape, otherwise the executor silently cancels all later runs.
+            // Claimed emails that were not marked are retried when their lease runs out
+            failed = true;
+            Logger.getLogger("web").log(Level.WARNING, "Afsendelse fra udbakken fejlede: " + e.getMessage());
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        EmailDispatchDTO dispatch = new EmailDispatchDTO(startedAt, claimed, sent, retried, givenUp, durationMs, failed);
+        lastDispatch.set(dispatch);
+
+        if (claimed > 0)
+        {
+            Logger.getLogger("web").log(Level.INFO, String.format("Udbakke: %d emails sendt, %d udsat, %d opgivet på %d ms",
+                    sent, retried, givenUp, durationMs));
+        }
+        return dispatch;
+    }
+
+    public EmailDispatchDTO getLastDispatch()
+    {
+        return lastDispatch.get();
+    }
+
+    /***
+     * 30 seconds after the first failed attempt, doubling for each attempt after that, at most an hour.
+     */
+    static long getRetryDelaySeconds(int attempts)
+    {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(FIRST_RETRY_SECONDS << doublings, MAX_RETRY_SECONDS);
+    }
+
+    /***
+     * The email is built from the current user and order when it is sent.
+     * @return null when the email was accepted, otherwise why it was not
+     */
+    private String send(OutboxEmail email)
+    {
+        try
+        {
+            UserDTO user = buildUserDTO(userMapper.getUserById(email.getUserId()));
+
+            boolean accepted = switch (email.getEmailType())
+            {
+                case REQUEST_CONFIRMATION -> emailService.sendRequestConfirmation(user);
+                case OFFER_READY -> emailService.sendOfferReady(user);
+                case ORDER_CONFIRMATION -> emailService.sendOrderConfirmation(user, orderService.getOrderDetailByOrderId(email.getOrderId()));
+            };
+
+            return accepted ? null : "Email blev ikke accepteret af email servicen";
+        }
+        catch (DatabaseException | RuntimeException e)
+        {
+            return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+    }
+
+    private UserDTO buildUserDTO(User user)
+    {
+        return new UserDTO(
+                user.getUserId(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getStreet(),
+                user.getZipCode(),
+                user.getCity(),
+                user.getEmail(),
+                user.getPhoneNumber(),
+                user.getRole()
+        );
+    }
+}
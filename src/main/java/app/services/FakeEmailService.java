@@ -0,0 +1,81 @@
+package app.services;
+
+import app.dto.UserDTO;
+import app.entities.OrderDetail;
+import app.enums.EmailType;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/***
+ * Offline stand-in for SendGridEmailService: logs and remembers each email instead of sending it.
+ * Only used when email.fake.enabled=true, and by tests. It remembers the last MAX_REMEMBERED_EMAILS emails,
+ * so a long running app doesn't keep every email in memory. failNextSends() makes the following sends
+ * fail, to try out the outbox retries without SendGrid.
+ */
+public class FakeEmailService implements IEmailService
+{
+    public record SentEmail(EmailType emailType, String email, Integer orderId)
+    {
+    }
+
+    static final int MAX_REMEMBERED_EMAILS = 100;
+
+    private final Deque<SentEmail> sentEmails = new ArrayDeque<>();
+    private final AtomicInteger sendsToFail = new AtomicInteger();
+
+    @Override
+    public boolean sendRequestConfirmation(UserDTO user)
+    {
+        return send(new SentEmail(EmailType.REQUEST_CONFIRMATION, user.email(), null));
+    }
+
+    @Override
+    public boolean sendOfferReady(UserDTO user)
+    {
+        return send(new SentEmail(EmailType.OFFER_READY, user.email(), null));
+    }
+
+    @Override
+    public boolean sendOrderConfirmation(UserDTO user, OrderDetail orderDetail)
+    {
+        return send(new SentEmail(EmailType.ORDER_CONFIRMATION, user.email(), orderDetail != null ? orderDetail.getOrderId() : null));
+    }
+
+    public void failNextSends(int sends)
+    {
+        sendsToFail.set(sends);
+    }
+
+    public List<SentEmail> getSentEmails()
+    {
+        synchronized (sentEmails)
+        {
+            return List.copyOf(sentEmails);
+        }
+    }
+
+    private boolean send(SentEmail email)
+    {
+        if (sendsToFail.getAndUpdate(remaining -> Math.max(remaining - 1, 0)) > 0)
+        {
+            Logger.getLogger("web").log(Level.INFO, "Fake email fejlede med vilje: " + email);
+            return false;
+        }
+
+        synchronized (sentEmails)
+        {
+            if (sentEmails.size() == MAX_REMEMBERED_EMAILS)
+            {
+                sentEmails.removeFirst();
+            }
+            sentEmails.addLast(email);
+        }
+        Logger.getLogger("web").log(Level.INFO, "Fake email sendt: " + email);
+        return true;
+    }
+}
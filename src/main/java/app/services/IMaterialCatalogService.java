@@ -0,0 +1,15 @@
+package app.services;
+
+import app.entities.MaterialCatalog;
+import app.exceptions.DatabaseException;
+
+public interface IMaterialCatalogService
+{
+    public MaterialCatalog getCatalog() throws DatabaseException;
+    public MaterialCatalog reloadCatalog() throws DatabaseException;
+
+    /***
+     * Drops the current snapshot, so the next getCatalog loads a new one
+     */
+    public void invalidateCatalog();
+}
@@ -1,8 +1,11 @@
 package app.services;
 
+import app.dto.MaterialImportResultDTO;
 import app.entities.MaterialVariant;
+import app.enums.ImportFormat;
 import app.exceptions.DatabaseException;
 
+import java.io.InputStream;
 import java.util.List;
 
 public interface IMaterialService
@@ -16,4 +19,5 @@ public interface IMaterialService
     public MaterialVariant createMaterialVariant(MaterialVariant variant) throws DatabaseException;
     public List<MaterialVariant> searchMaterials(String searchType, String query) throws DatabaseException;
     public MaterialVariant getMaterialVariantById(int materialVariantId) throws DatabaseException;
+    public MaterialImportResultDTO importMaterialVariants(InputStream input, ImportFormat format, boolean onlyIfAllRowsValid) throws DatabaseException;
 }
@@ -3,6 +3,8 @@ package app.services;
 import app.dto.CreateOrderRequestDTO;
 import app.dto.CustomerOfferDTO;
 import app.dto.OrderOverviewDTO;
+import app.dto.OrderOverviewPageDTO;
+import app.dto.OrderPageCursor;
 import app.dto.UserDTO;
 import app.entities.Carport;
 import app.entities.Order;
@@ -22,11 +24,12 @@ public interface IOrderService
     public boolean updateOrderCostPrice(int orderId, double newCostPrice) throws DatabaseException;
     public boolean deleteOrder(int orderId) throws DatabaseException;
     public boolean confirmAndSendOffer(Order order) throws DatabaseException;
+    public boolean acceptOffer(Order order) throws DatabaseException;
     public int getTotalNumberOfOrdersByStatus(OrderStatus orderStatus) throws DatabaseException;
     public OrderDetail getOrderDetailByOrderId(int orderId) throws DatabaseException;
     public List<OrderOverviewDTO> getAllOrdersByStatus(OrderStatus orderStatus) throws DatabaseException;
     public List<OrderOverviewDTO> getAllOrdersByUserIdAndStatus(int userId, OrderStatus orderStatus) throws DatabaseException;
-    public Map<OrderStatus, List<OrderOverviewDTO>> getOrderOverViewsByStatus(List<OrderStatus> orderStatuses) throws DatabaseException;
+    public Map<OrderStatus, OrderOverviewPageDTO> getOrderOverviewPagesByStatus(Map<OrderStatus, OrderPageCursor> cursorsByStatus, int pageSize) throws DatabaseException;
     public CustomerOfferDTO getCustomerOfferByOrderId(int orderId) throws DatabaseException;
 
 }
@@ -0,0 +1,16 @@
+package app.services;
+
+import app.entities.ZipCodeDirectory;
+import app.exceptions.DatabaseException;
+
+public interface IZipCodeService
+{
+    public boolean zipCodeExists(int zipCode) throws DatabaseException;
+
+    /***
+     * Loads the snapshot that every lookup is served from. Only called once at startup, after the
+     * migrations: nothing in the app changes zip codes, so a change made directly in the database
+     * is not seen until the next restart.
+     */
+    public ZipCodeDirectory reloadZipCodes() throws DatabaseException;
+}
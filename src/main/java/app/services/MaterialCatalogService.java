@@ -0,0 +1,75 @@
+package app.services;
+
+import app.entities.MaterialCatalog;
+import app.exceptions.DatabaseException;
+import app.persistence.MaterialVariantMapper;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/***
+ * Holds the current MaterialCatalog as an immutable snapshot that readers get without locking.
+ * Reloads take a ReentrantLock rather than synchronized, because they query the database and a
+ * virtual thread blocking inside synchronized pins its carrier thread.
+ */
+public class MaterialCatalogService implements IMaterialCatalogService
+{
+    private final MaterialVariantMapper materialVariantMapper;
+    private final AtomicReference<MaterialCatalog> currentCatalog = new AtomicReference<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public MaterialCatalogService(MaterialVariantMapper materialVariantMapper)
+    {
+        this.materialVariantMapper = materialVariantMapper;
+    }
+
+    @Override
+    public MaterialCatalog getCatalog() throws DatabaseException
+    {
+        MaterialCatalog catalog = currentCatalog.get();
+
+        if (catalog == null)
+        {
+            MaterialCatalog loadedCatalog = loadCatalog();
+
+            // Another thread may have loaded first - keep whichever snapshot got there first
+            currentCatalog.compareAndSet(null, loadedCatalog);
+            catalog = currentCatalog.get();
+        }
+        return catalog;
+    }
+
+    @Override
+    public MaterialCatalog reloadCatalog() throws DatabaseException
+    {
+        reloadLock.lock();
+
+        try
+        {
+            MaterialCatalog catalog = loadCatalog();
+            currentCatalog.set(catalog);
+
+            Logger.getLogger("web").log(Level.INFO, "Materialekatalog genindlæst, version " + catalog.getVersion());
+            return catalog;
+        }
+        finally
+        {
+            reloadLock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidateCatalog()
+    {
+        currentCatalog.set(null);
+    }
+
+    private MaterialCatalog loadCatalog() throws DatabaseException
+    {
+        return new MaterialCatalog(versionCounter.incrementAndGet(), materialVariantMapper.getAllMaterialVariants());
+    }
+}
@@ -0,0 +1,194 @@
+package app.services;
+
+import app.entities.MaterialCatalog;
+import app.entities.MaterialVariant;
+import app.enums.MaterialCategory;
+import app.enums.MaterialType;
+
+import java.util.*;
+
+/***
+ * Immutable search index over one material catalog snapshot.
+ * Names are indexed by trigram so a substring search only verifies the variants that share
+ * every trigram of the query, instead of scanning the whole catalog.
+ */
+public class MaterialSearchIndex
+{
+    private static final int GRAM_SIZE = 3;
+
+    private final long catalogVersion;
+    private final List<MaterialVariant> variants;
+    private final String[] lowerCaseNames;
+    private final Map<String, int[]> postingsByTrigram;
+    private final Map<MaterialCategory, List<MaterialVariant>> variantsByCategory;
+    private final Map<MaterialType, List<MaterialVariant>> variantsByType;
+
+    public MaterialSearchIndex(MaterialCatalog catalog)
+    {
+        this.catalogVersion = catalog.getVersion();
+
+        List<MaterialVariant> sortedVariants = catalog.getAllVariants();
+        sortedVariants.sort(Comparator.comparingInt(MaterialVariant::getMaterialVariantId));
+        this.variants = Collections.unmodifiableList(sortedVariants);
+
+        this.lowerCaseNames = new String[variants.size()];
+        Map<String, List<Integer>> postings = new HashMap<>();
+        Map<MaterialCategory, List<MaterialVariant>> byCategory = new EnumMap<>(MaterialCategory.class);
+        Map<MaterialType, List<MaterialVariant>> byType = new EnumMap<>(MaterialType.class);
+
+        for (int i = 0; i < variants.size(); i++)
+        {
+            MaterialVariant variant = variants.get(i);
+            String name = variant.getMaterial().getName();
+            lowerCaseNames[i] = name == null ? "" : name.toLowerCase();
+
+            for (String trigram : trigramsOf(lowerCaseNames[i]))
+            {
+                postings.computeIfAbsent(trigram, key -> new ArrayList<>()).add(i);
+            }
+
+            byCategory.computeIfAbsent(variant.getMaterial().getCategory(), key -> new ArrayList<>()).add(variant);
+            byType.computeIfAbsent(variant.getMaterial().getType(), key -> new ArrayList<>()).add(variant);
+        }
+
+        this.postingsByTrigram = new HashMap<>(postings.size() * 2);
+        postings.forEach((trigram, positions) ->
+                postingsByTrigram.put(trigram, positions.stream().mapToInt(Integer::intValue).toArray()));
+
+        this.variantsByCategory = byCategory;
+        this.variantsByType = byType;
+    }
+
+    public long getCatalogVersion()
+    {
+        return catalogVersion;
+    }
+
+    public int size()
+    {
+        return variants.size();
+    }
+
+    public List<MaterialVariant> searchByName(String query)
+    {
+        String needle = query.toLowerCase();
+
+        if (needle.length() < GRAM_SIZE)
+        {
+            // Too short for a trigram - still cheap, since the names are lower-cased up front
+            List<MaterialVariant> matches = new ArrayList<>();
+
+            for (int i = 0; i < lowerCaseNames.length; i++)
+            {
+                if (lowerCaseNames[i].contains(needle))
+                {
+                    matches.add(variants.get(i));
+                }
+            }
+            return matches;
+        }
+
+        int[] candidates = null;
+
+        for (String trigram : trigramsOf(needle))
+        {
+            int[] positions = postingsByTrigram.get(trigram);
+
+            if (positions == null)
+            {
+                return List.of();
+            }
+            candidates = candidates == null ? positions : intersect(candidates, positions);
+
+            if (candidates.length == 0)
+            {
+                return List.of();
+            }
+        }
+
+        List<MaterialVariant> matches = new ArrayList<>();
+
+        for (int position : candidates)
+        {
+            if (lowerCaseNames[position].contains(needle))
+            {
+                matches.add(variants.get(position));
+            }
+        }
+        return matches;
+    }
+
+    public List<MaterialVariant> searchByCategory(String query)
+    {
+        String needle = query.toLowerCase();
+        List<MaterialVariant> matches = new ArrayList<>();
+
+        for (Map.Entry<MaterialCategory, List<MaterialVariant>> entry : variantsByCategory.entrySet())
+        {
+            if (entry.getKey().getDisplayCategory().toLowerCase().contains(needle))
+            {
+                matches.addAll(entry.getValue());
+            }
+        }
+        return sortById(matches);
+    }
+
+    public List<MaterialVariant> searchByType(String query)
+    {
+        String needle = query.toLowerCase();
+        List<MaterialVariant> matches = new ArrayList<>();
+
+        for (Map.Entry<MaterialType, List<MaterialVariant>> entry : variantsByType.entrySet())
+        {
+            if (entry.getKey().getDisplayName().toLowerCase().contains(needle))
+            {
+                matches.addAll(entry.getValue());
+            }
+        }
+        return sortById(matches);
+    }
+
+    private List<MaterialVariant> sortById(List<MaterialVariant> matches)
+    {
+        matches.sort(Comparator.comparingInt(MaterialVariant::getMaterialVariantId));
+        return matches;
+    }
+
+    private static Set<String> trigramsOf(String text)
+    {
+        Set<String> trigrams = new HashSet<>();
+
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++)
+        {
+            trigrams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return trigrams;
+    }
+
+    private static int[] intersect(int[] first, int[] second)
+    {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+
+        while (i < first.length && j < second.length)
+        {
+            if (first[i] == second[j])
+            {
+                result[size++] = first[i];
+                i++;
+                j++;
+            }
+            else if (first[i] < second[j])
+            {
+                i++;
+            }
+            else
+            {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -1,30 +1,45 @@
 package app.services;
 
+import app.dto.MaterialImportResultDTO;
+import app.dto.MaterialImportRowDTO;
 import app.entities.*;
+import app.enums.ImportFormat;
 import app.exceptions.DatabaseException;
-import app.persistence.ConnectionPool;
-import app.persistence.MaterialLineMapper;
-import app.persistence.MaterialMapper;
-import app.persistence.MaterialVariantMapper;
+import app.persistence.*;
+import app.util.MaterialImportReader;
 import app.util.ValidationUtil;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class MaterialService implements IMaterialService
 {
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int MAX_IMPORT_ERRORS_SHOWN = 100;
+
     private MaterialLineMapper materialLineMapper;
     private MaterialVariantMapper materialVariantMapper;
     private MaterialMapper materialMapper;
+    private MaterialImportMapper materialImportMapper;
+    private IMaterialCatalogService catalogService;
     private ConnectionPool connectionPool;
+    private final AtomicReference<MaterialSearchIndex> searchIndex = new AtomicReference<>();
 
-    public MaterialService(MaterialLineMapper materialLineMapper, MaterialVariantMapper materialVariantMapper, MaterialMapper materialMapper, ConnectionPool connectionPool)
+    public MaterialService(MaterialLineMapper materialLineMapper, MaterialVariantMapper materialVariantMapper, MaterialMapper materialMapper, MaterialImportMapper materialImportMapper, IMaterialCatalogService catalogService, ConnectionPool connectionPool)
     {
         this.materialLineMapper = materialLineMapper;
         this.materialVariantMapper = materialVariantMapper;
         this.materialMapper = materialMapper;
+        this.materialImportMapper = materialImportMapper;
+        this.catalogService = catalogService;
         this.connectionPool = connectionPool;
     }
 
@@ -63,7 +78,13 @@ public class MaterialService implements IMaterialService
     @Override
     public boolean deleteMaterialVariant(int materialVariantId) throws DatabaseException
     {
-        return materialVariantMapper.deleteMaterialVariant(materialVariantId);
+        boolean isDeleted = materialVariantMapper.deleteMaterialVariant(materialVariantId);
+
+        if (isDeleted)
+        {
+            reloadCatalogAfterCommit();
+        }
+        return isDeleted;
     }
 
     @Override
@@ -93,7 +114,6 @@ public class MaterialService implements IMaterialService
                 );
 
                 connection.commit();
-                return isUpdated;
             }
             catch (DatabaseException e)
             {
@@ -107,11 +127,16 @@ public class MaterialService implements IMaterialService
         {
             throw new DatabaseException("Fejl ved opdatering af materiale" + e.getMessage());
         }
+
+        reloadCatalogAfterCommit();
+        return isUpdated;
     }
 
     @Override
     public MaterialVariant createMaterialVariant(MaterialVariant variant) throws DatabaseException
     {
+        MaterialVariant materialVariant;
+
         try (Connection connection = connectionPool.getConnection())
         {
             connection.setAutoCommit(false);
@@ -129,7 +154,7 @@ public class MaterialService implements IMaterialService
                         variant.getMaterial().getUsage()
                 );
 
-                MaterialVariant materialVariant = materialVariantMapper.createMaterialVariant(
+                materialVariant = materialVariantMapper.createMaterialVariant(
                         connection,
                         newMaterial.getMaterialId(),
                         variant.getVariantLength(),
@@ -140,7 +165,6 @@ public class MaterialService implements IMaterialService
                 materialVariant.setMaterial(newMaterial);
 
                 connection.commit();
-                return materialVariant;
             }
             catch (DatabaseException e)
             {
@@ -154,6 +178,9 @@ public class MaterialService implements IMaterialService
         {
             throw new DatabaseException("Fejl ved oprettelse af nyt materiale" + e.getMessage());
         }
+
+        reloadCatalogAfterCommit();
+        return materialVariant;
     }
 
     @Override
@@ -171,9 +198,9 @@ public class MaterialService implements IMaterialService
                 }
                 yield materialVariantMapper.searchByMaterialVariantId(Integer.parseInt(query));
             }
-            case "name" -> getMaterialVariantsByName(query);
-            case "category" -> getMaterialVariantsByCategory(query);
-            case "type" -> getMaterialVariantsByType(query);
+            case "name" -> getSearchIndex().searchByName(query);
+            case "category" -> getSearchIndex().searchByCategory(query);
+            case "type" -> getSearchIndex().searchByType(query);
             default -> List.of();
         };
     }
@@ -184,25 +211,142 @@ public class MaterialService implements IMaterialService
         return materialVariantMapper.getVariantWithMaterialById(materialVariantId);
     }
 
-    private List<MaterialVariant> getMaterialVariantsByType(String type) throws DatabaseException
+    /***
+     * Streams the file into a staging table in batches and merges it into material and material_variant
+     * in one transaction, so the catalog never shows half an import. Invalid rows are skipped and reported;
+     * with onlyIfAllRowsValid a single invalid row rolls the whole import back.
+     */
+    @Override
+    public MaterialImportResultDTO importMaterialVariants(InputStream input, ImportFormat format, boolean onlyIfAllRowsValid) throws DatabaseException
     {
-        return materialVariantMapper.getAllMaterialVariants().stream()
-                .filter(materialVariant -> materialVariant.getMaterial().getType().getDisplayName().toLowerCase().contains(type.toLowerCase()))
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        int rowsRead = 0;
+        int rowsStaged = 0;
+        int errorCount = 0;
+        List<MaterialImportRowDTO> errors = new ArrayList<>();
+        List<MaterialImportRowDTO> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        MaterialImportResultDTO result;
+
+        try (MaterialImportReader reader = new MaterialImportReader(input, format);
+             Connection connection = connectionPool.getConnection())
+        {
+            connection.setAutoCommit(false);
+
+            try
+            {
+                materialImportMapper.createStagingTable(connection);
+
+                MaterialImportRowDTO row;
+
+                while ((row = reader.readRow()) != null)
+                {
+                    rowsRead++;
+
+                    if (!row.isValid())
+                    {
+                        errorCount++;
+
+                        if (errors.size() < MAX_IMPORT_ERRORS_SHOWN)
+                        {
+                            errors.add(row);
+                        }
+                        continue;
+                    }
+
+                    batch.add(row);
+
+                    if (batch.size() == IMPORT_BATCH_SIZE)
+                    {
+                        materialImportMapper.stageRows(connection, batch);
+                        rowsStaged += batch.size();
+                        batch.clear();
+                    }
+                }
+
+                if (!batch.isEmpty())
+                {
+                    materialImportMapper.stageRows(connection, batch);
+                    rowsStaged += batch.size();
+                }
+
+                if (rowsStaged == 0 || (onlyIfAllRowsValid && errorCount > 0))
+                {
+                    connection.rollback();
+                    return new MaterialImportResultDTO(rowsRead, 0, 0, 0, 0, 0, errorCount, errors, false, elapsedMs(start));
+                }
+
+                materialImportMapper.removeDuplicateRows(connection);
+                materialImportMapper.analyzeStagingTable(connection);
+                int materialsUpdated = materialImportMapper.updateMaterials(connection);
+                int materialsCreated = materialImportMapper.insertMaterials(connection);
+                materialImportMapper.resolveMaterialIds(connection);
+                int variantsUpdated = materialImportMapper.updateVariants(connection);
+                int variantsCreated = materialImportMapper.insertVariants(connection);
+
+                connection.commit();
+
+                result = new MaterialImportResultDTO(rowsRead, rowsStaged, materialsCreated, materialsUpdated,
+                        variantsCreated, variantsUpdated, errorCount, errors, true, elapsedMs(start));
+            }
+            catch (DatabaseException | IOException | RuntimeException e)
+            {
+                connection.rollback();
+                throw e;
+            }
+        }
+        catch (IOException e)
+        {
+            throw new IllegalArgumentException("Filen kunne ikke læses: " + e.getMessage());
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl ved import af materialer: " + e.getMessage());
+        }
+
+        if (result.materialsCreated() + result.materialsUpdated() + result.variantsCreated() + result.variantsUpdated() > 0)
+        {
+            reloadCatalogAfterCommit();
+        }
+
+        Logger.getLogger("web").log(Level.INFO, String.format("Materialeimport: %d rækker læst, %d varianter oprettet, %d opdateret, %d fejl på %d ms",
+                result.rowsRead(), result.variantsCreated(), result.variantsUpdated(), result.errorCount(), result.durationMs()));
+        return result;
+    }
+
+    /***
+     * Runs after the commit, so a failed reload must not be reported as a failed change. The stale
+     * snapshot is dropped instead, and the next read of the catalog loads it again.
+     */
+    private void reloadCatalogAfterCommit()
+    {
+        try
+        {
+            catalogService.reloadCatalog();
+        }
+        catch (DatabaseException e)
+        {
+            catalogService.invalidateCatalog();
+            Logger.getLogger("web").log(Level.WARNING, "Materialekataloget kunne ikke genindlæses efter en ændring: " + e.getMessage());
+        }
     }
 
-    private List<MaterialVariant> getMaterialVariantsByName(String name) throws DatabaseException
+    private long elapsedMs(long start)
     {
-        return materialVariantMapper.getAllMaterialVariants().stream()
-                .filter(materialVariant -> materialVariant.getMaterial().getName().toLowerCase().contains(name.toLowerCase()))
-                .collect(Collectors.toList());
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
     }
 
-    private List<MaterialVariant> getMaterialVariantsByCategory(String category) throws DatabaseException
+    private MaterialSearchIndex getSearchIndex() throws DatabaseException
     {
-        return materialVariantMapper.getAllMaterialVariants().stream()
-                .filter(materialVariant -> materialVariant.getMaterial().getCategory().getDisplayCategory().toLowerCase().contains(category.toLowerCase()))
-                .collect(Collectors.toList());
+        MaterialCatalog catalog = catalogService.getCatalog();
+        MaterialSearchIndex index = searchIndex.get();
+
+        // The catalog is reloaded on every material change, so a new version means the index is stale
+        if (index == null || index.getCatalogVersion() != catalog.getVersion())
+        {
+            index = new MaterialSearchIndex(catalog);
+            searchIndex.set(index);
+        }
+        return index;
     }
 
     private double calculateLineTotal(MaterialLine materialLine)
@@ -0,0 +1,130 @@
+package app.services;
+
+import app.dto.ExpirySweepDTO;
+import app.exceptions.DatabaseException;
+import app.persistence.OrderMapper;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/***
+ * Runs the expiry sweep for READY offers in the background instead of on every read.
+ * Each run updates at most maxBatchesPerRun x batchSize orders so a large backlog
+ * never holds locks for long; anything left over is handled by the next run.
+ */
+public class OrderExpiryScheduler
+{
+    private static final int MAX_BATCHES_PER_RUN = 20;
+
+    private final OrderMapper orderMapper;
+    private final OrderStatusCounter orderStatusCounter;
+    private final long intervalMinutes;
+    private final int batchSize;
+    private final AtomicReference<ExpirySweepDTO> lastSweep = new AtomicReference<>();
+    private ScheduledExecutorService executor;
+
+    public OrderExpiryScheduler(OrderMapper orderMapper, OrderStatusCounter orderStatusCounter, long intervalMinutes, int batchSize)
+    {
+        if (intervalMinutes <= 0 || batchSize <= 0)
+        {
+            throw new IllegalArgumentException("Interval og batchstørrelse for udløb af tilbud skal være større end 0");
+        }
+
+        this.orderMapper = orderMapper;
+        this.orderStatusCounter = orderStatusCounter;
+        this.intervalMinutes = intervalMinutes;
+        this.batchSize = batchSize;
+    }
+
+    public void start()
+    {
+        if (executor != null)
+        {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "order-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runSweep, 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public void stop()
+    {
+        if (executor == null)
+        {
+            return;
+        }
+
+        executor.shutdown();
+
+        try
+        {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+            {
+                executor.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    public ExpirySweepDTO runSweep()
+    {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        int expiredOrders = 0;
+        int batches = 0;
+        boolean failed = false;
+
+        try
+        {
+            int updatedRows;
+
+            do
+            {
+                updatedRows = orderMapper.updateOrderStatusIfExpired(batchSize);
+                expiredOrders += updatedRows;
+                batches++;
+            }
+            while (updatedRows == batchSize && batches < MAX_BATCHES_PER_RUN);
+
+            if (expiredOrders > 0)
+            {
+                orderStatusCounter.resync();
+            }
+        }
+        catch (DatabaseException | RuntimeException e)
+        {
+            // Must not escape, otherwise the executor silently cancels all later runs
+            failed = true;
+            Logger.getLogger("web").log(Level.WARNING, "Udløb af tilbud fejlede: " + e.getMessage());
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        ExpirySweepDTO sweep = new ExpirySweepDTO(startedAt, expiredOrders, batches, durationMs, failed);
+        lastSweep.set(sweep);
+
+        Logger.getLogger("web").log(Level.INFO,
+                String.format("Udløb af tilbud: %d ordrer sat til EXPIRED i %d batches på %d ms", expiredOrders, batches, durationMs));
+
+        return sweep;
+    }
+
+    public ExpirySweepDTO getLastSweep()
+    {
+        return lastSweep.get();
+    }
+}
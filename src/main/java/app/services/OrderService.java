@@ -2,9 +2,13 @@ package app.services;
 
 import app.dto.CreateOrderRequestDTO;
 import app.dto.CustomerOfferDTO;
+import app.dto.OrderAggregateDTO;
 import app.dto.OrderOverviewDTO;
+import app.dto.OrderOverviewPageDTO;
+import app.dto.OrderPageCursor;
 import app.dto.UserDTO;
 import app.entities.*;
+import app.enums.EmailType;
 import app.enums.OrderStatus;
 import app.exceptions.DatabaseException;
 import app.exceptions.MaterialNotFoundException;
@@ -15,31 +19,30 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 public class OrderService implements IOrderService
 {
-    private UserMapper userMapper;
     private MaterialLineMapper materialLineMapper;
     private ShedMapper shedMapper;
     private CarportMapper carportMapper;
     private OrderMapper orderMapper;
     private IBomService bomService;
-    private IEmailService emailService;
+    private EmailOutboxMapper emailOutboxMapper;
+    private OrderStatusCounter orderStatusCounter;
     private ConnectionPool connectionPool;
 
-    public OrderService(UserMapper userMapper, MaterialLineMapper materialLineMapper, ShedMapper shedMapper, CarportMapper carportMapper, OrderMapper orderMapper, IBomService bomService, IEmailService emailService, ConnectionPool connectionPool)
+    public OrderService(MaterialLineMapper materialLineMapper, ShedMapper shedMapper, CarportMapper carportMapper, OrderMapper orderMapper, IBomService bomService, EmailOutboxMapper emailOutboxMapper, OrderStatusCounter orderStatusCounter, ConnectionPool connectionPool)
     {
-        this.userMapper = userMapper;
         this.materialLineMapper = materialLineMapper;
         this.shedMapper = shedMapper;
         this.carportMapper = carportMapper;
         this.orderMapper = orderMapper;
         this.bomService = bomService;
-        this.emailService = emailService;
+        this.emailOutboxMapper = emailOutboxMapper;
+        this.orderStatusCounter = orderStatusCounter;
         this.connectionPool = connectionPool;
     }
 
@@ -95,17 +98,10 @@ public class OrderService implements IOrderService
                         pricingDetails
                 );
 
-                for(MaterialLine line: bom)
-                {
-                    materialLineMapper.createMaterialLine(
-                            connection,
-                            savedOrder.getOrderId(),
-                            line.getMaterialVariant().getMaterialVariantId(),
-                            line.getQuantity()
-                    );
-                }
+                materialLineMapper.createMaterialLines(connection, savedOrder.getOrderId(), bom);
+                emailOutboxMapper.enqueueEmail(connection, EmailType.REQUEST_CONFIRMATION, customerId, savedOrder.getOrderId());
 
-                connection.commit();
+                orderStatusCounter.commitAndIncrement(connection, savedOrder.getOrderStatus());
                 return savedOrder;
             }
             catch (DatabaseException e)
@@ -129,6 +125,17 @@ public class OrderService implements IOrderService
 
     @Override
     public boolean updateOrder(Order order) throws DatabaseException
+    {
+        return updateOrder(order, null, false);
+    }
+
+    /***
+     * Updates the order and, when emailType is given, queues that email to the customer
+     * in the same transaction, so the email is sent if and only if the change is committed.
+     * With acceptingOffer the update is only made while the row lock shows an offer that is still READY
+     * and not expired, so an offer the expiry sweep or the seller changed meanwhile can't be accepted.
+     */
+    private boolean updateOrder(Order order, EmailType emailType, boolean acceptingOffer) throws DatabaseException
     {
         try (Connection connection = connectionPool.getConnection())
         {
@@ -136,8 +143,19 @@ public class OrderService implements IOrderService
 
             try
             {
+                OrderStatus previousStatus = orderMapper.getOrderStatusForUpdate(connection, order.getOrderId());
+
+                if (acceptingOffer && !isOfferOpen(order, previousStatus))
+                {
+                    throw new DatabaseException("Tilbuddet er udløbet og kan ikke længere accepteres");
+                }
                 orderMapper.updateOrder(connection, order);
-                connection.commit();
+
+                if (emailType != null)
+                {
+                    emailOutboxMapper.enqueueEmail(connection, emailType, order.getCustomerId(), order.getOrderId());
+                }
+                orderStatusCounter.commitAndTransition(connection, previousStatus, order.getOrderStatus());
                 return true;
             }
             catch (DatabaseException e)
@@ -210,15 +228,7 @@ public class OrderService implements IOrderService
 
                 isUpdated = orderMapper.updateOrder(orderId, pricingDetails.getCostPrice());
 
-                for(MaterialLine line : bom)
-                {
-                    materialLineMapper. createMaterialLine(
-                            connection,
-                            orderId,
-                            line.getMaterialVariant().getMaterialVariantId(),
-                            line.getQuantity()
-                    );
-                }
+                materialLineMapper.createMaterialLines(connection, orderId, bom);
                 connection.commit();
                 return isUpdated;
             }
@@ -248,7 +258,14 @@ public class OrderService implements IOrderService
     @Override
     public boolean deleteOrder(int orderId) throws DatabaseException
     {
-        return orderMapper.deleteOrder(orderId);
+        boolean isDeleted = orderMapper.deleteOrder(orderId);
+
+        if (isDeleted)
+        {
+            // Deletes are rare admin actions - recount rather than look up the status beforehand
+            orderStatusCounter.resync();
+        }
+        return isDeleted;
     }
 
     @Override
@@ -258,12 +275,8 @@ public class OrderService implements IOrderService
 
         order.setCreatedAt(Timestamp.valueOf(LocalDateTime.now()));
 
-        if(updateOrder(order))
+        if(updateOrder(order, EmailType.OFFER_READY, false))
         {
-            User user = userMapper.getUserById(order.getCustomerId());
-            UserDTO userDTO = buildAndGetUserDTO(user);
-
-            emailService.sendOfferReady(userDTO);
             isOfferConfirmed = true;
         }
         else
@@ -273,33 +286,53 @@ public class OrderService implements IOrderService
         return isOfferConfirmed;
     }
 
+    @Override
+    public boolean acceptOffer(Order order) throws DatabaseException
+    {
+        order.setOrderStatus(OrderStatus.PAID);
+        return updateOrder(order, EmailType.ORDER_CONFIRMATION, true);
+    }
+
+    private boolean isOfferOpen(Order order, OrderStatus lockedStatus)
+    {
+        OrderTimeLine orderTimeLine = new OrderTimeLine(order.getCustomerRequestCreatedAt(), order.getCreatedAt(), order.getOfferValidDays());
+        return lockedStatus == OrderStatus.READY && !orderTimeLine.isExpired();
+    }
+
     @Override
     public int getTotalNumberOfOrdersByStatus(OrderStatus orderStatus) throws DatabaseException
     {
-        return orderMapper.getNumberOfOrdersByStatus(orderStatus);
+        return orderStatusCounter.getCount(orderStatus);
     }
 
     @Override
     public OrderDetail getOrderDetailByOrderId(int orderId) throws DatabaseException
     {
-        Order order = orderMapper.getOrderById(orderId);
-        User customer = userMapper.getUserById(order.getCustomerId());
+        OrderAggregateDTO orderAggregate;
+        List<MaterialLine> materialLines;
 
-        User seller = null;
-        if(order.getSellerId() != null)
+        try (Connection connection = connectionPool.getConnection())
         {
-            seller = userMapper.getUserById(order.getSellerId());
+            orderAggregate = orderMapper.getOrderAggregateById(connection, orderId);
+            materialLines = materialLineMapper.getMaterialLinesByOrderId(connection, orderId);
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl i forbindelse til databasen: " + e.getMessage());
         }
-
-        Carport carport = carportMapper.getCarportById(order.getCarportId());
-        List<MaterialLine> materialLines = materialLineMapper.getMaterialLinesByOrderId(orderId);
 
         List<MaterialLine> sortedMaterialLines = materialLines.stream()
                 .sorted(Comparator.comparing(line ->
                         line.getMaterialVariant().getMaterial().getCategory()))
                 .collect(Collectors.toList());
 
-        return buildOrderDetail(order, customer, seller, carport, sortedMaterialLines);
+        return buildOrderDetail(
+                orderAggregate.order(),
+                orderAggregate.customer(),
+                orderAggregate.seller(),
+                orderAggregate.carport(),
+                sortedMaterialLines
+        );
     }
 
     @Override
@@ -322,28 +355,40 @@ public class OrderService implements IOrderService
     }
 
     @Override
-    public Map<OrderStatus, List<OrderOverviewDTO>> getOrderOverViewsByStatus(List<OrderStatus> orderStatuses) throws DatabaseException
+    public Map<OrderStatus, OrderOverviewPageDTO> getOrderOverviewPagesByStatus(Map<OrderStatus, OrderPageCursor> cursorsByStatus, int pageSize) throws DatabaseException
     {
-        Map<OrderStatus, List<OrderOverviewDTO>> orderOverviews = new HashMap<>();
-
-        for(OrderStatus status: orderStatuses)
+        if (pageSize <= 0)
         {
-            orderOverviews.put(status, orderMapper.getAllOrderOverviewsByStatus(status));
+            throw new IllegalArgumentException("Sidestørrelsen skal være større end 0");
         }
-        return orderOverviews;
+        return orderMapper.getOrderOverviewPagesByStatuses(cursorsByStatus, pageSize);
     }
 
     @Override
     public CustomerOfferDTO getCustomerOfferByOrderId(int orderId) throws DatabaseException
     {
-        Order order = orderMapper.getOrderById(orderId);
-        Carport carport = carportMapper.getCarportById(order.getCarportId());
-        User customer = userMapper.getUserById(order.getCustomerId());
-        User seller = userMapper.getUserById(order.getSellerId());
+        OrderAggregateDTO orderAggregate;
 
-        CustomerOfferDTO customerOfferDTO = buildAndGetCustomerOfferDTO(order, carport, customer, seller);
+        try (Connection connection = connectionPool.getConnection())
+        {
+            orderAggregate = orderMapper.getOrderAggregateById(connection, orderId);
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException("Fejl i forbindelse til databasen: " + e.getMessage());
+        }
 
-        return customerOfferDTO;
+        if (orderAggregate.seller() == null)
+        {
+            throw new DatabaseException("Der er ingen sælger tilknyttet tilbuddet for ordre: " + orderId);
+        }
+
+        return buildAndGetCustomerOfferDTO(
+                orderAggregate.order(),
+                orderAggregate.carport(),
+                orderAggregate.customer(),
+                orderAggregate.seller()
+        );
     }
 
     private OrderDetail buildOrderDetail(Order order, User customer, User seller, Carport carport, List<MaterialLine> materialLines)
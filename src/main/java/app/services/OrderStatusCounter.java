@@ -0,0 +1,147 @@
+package app.services;
+
+import app.enums.OrderStatus;
+import app.exceptions.DatabaseException;
+import app.persistence.OrderMapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/***
+ * Application-wide number of orders per status, shared by every session.
+ * Loaded once with a single GROUP BY query and afterwards kept up to date in-process
+ * when orders are created or change status, so reading a count never hits the database.
+ * Changes made outside the service layer (the expiry sweep) call resync().
+ * resync() holds the write lock from its query until the counts are set, while a commit and the
+ * update of its count happen together under the read lock. A commit is then either seen by the query
+ * and already counted, or counted after the new counts are set, but never lost or counted twice.
+ */
+public class OrderStatusCounter
+{
+    private final OrderMapper orderMapper;
+    private final Map<OrderStatus, AtomicInteger> counts;
+    private final ReadWriteLock countLock = new ReentrantReadWriteLock();
+    private volatile boolean loaded = false;
+
+    public OrderStatusCounter(OrderMapper orderMapper)
+    {
+        this.orderMapper = orderMapper;
+
+        Map<OrderStatus, AtomicInteger> initialCounts = new EnumMap<>(OrderStatus.class);
+
+        for (OrderStatus status : OrderStatus.values())
+        {
+            initialCounts.put(status, new AtomicInteger());
+        }
+        this.counts = Collections.unmodifiableMap(initialCounts);
+    }
+
+    public int getCount(OrderStatus orderStatus) throws DatabaseException
+    {
+        if (!loaded)
+        {
+            resync();
+        }
+        return counts.get(orderStatus).get();
+    }
+
+    /***
+     * Commits the transaction that created an order with the given status, and counts it
+     */
+    public void commitAndIncrement(Connection connection, OrderStatus orderStatus) throws SQLException
+    {
+        countLock.readLock().lock();
+
+        try
+        {
+            connection.commit();
+            counts.get(orderStatus).incrementAndGet();
+        }
+        finally
+        {
+            countLock.readLock().unlock();
+        }
+    }
+
+    /***
+     * Commits the transaction that changed an order from one status to another, and moves its count
+     */
+    public void commitAndTransition(Connection connection, OrderStatus fromStatus, OrderStatus toStatus) throws SQLException
+    {
+        countLock.readLock().lock();
+
+        try
+        {
+            connection.commit();
+            moveCount(fromStatus, toStatus);
+        }
+        finally
+        {
+            countLock.readLock().unlock();
+        }
+    }
+
+    public void increment(OrderStatus orderStatus)
+    {
+        countLock.readLock().lock();
+
+        try
+        {
+            counts.get(orderStatus).incrementAndGet();
+        }
+        finally
+        {
+            countLock.readLock().unlock();
+        }
+    }
+
+    public void transition(OrderStatus fromStatus, OrderStatus toStatus)
+    {
+        countLock.readLock().lock();
+
+        try
+        {
+            moveCount(fromStatus, toStatus);
+        }
+        finally
+        {
+            countLock.readLock().unlock();
+        }
+    }
+
+    public void resync() throws DatabaseException
+    {
+        countLock.writeLock().lock();
+
+        try
+        {
+            Map<OrderStatus, Integer> databaseCounts = orderMapper.getNumberOfOrdersGroupedByStatus();
+
+            for (Map.Entry<OrderStatus, AtomicInteger> entry : counts.entrySet())
+            {
+                entry.getValue().set(databaseCounts.getOrDefault(entry.getKey(), 0));
+            }
+            loaded = true;
+        }
+        finally
+        {
+            countLock.writeLock().unlock();
+        }
+    }
+
+    private void moveCount(OrderStatus fromStatus, OrderStatus toStatus)
+    {
+        if (fromStatus == toStatus)
+        {
+            return;
+        }
+        counts.get(fromStatus).decrementAndGet();
+        counts.get(toStatus).incrementAndGet();
+    }
+}
@@ -0,0 +1,298 @@
+package app.services;
+
+import app.dto.PasswordHashingStatisticsDTO;
+import app.exceptions.DatabaseException;
+import app.util.LatencyHistogram;
+import app.util.PasswordUtil;
+import app.util.RequestMetrics;
+
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/***
+ * Runs BCrypt on a small pool of its own instead of on the request thread. At most one hash per
+ * thread runs at a time, so a burst of logins cannot take all the CPU from the other pages, and
+ * at most queueCapacity wait behind them - beyond that a login is turned away at once with a
+ * "try again" message rather than left to pile up. The caller waits for its own result, which
+ * costs nothing on a virtual thread.
+ * Hashes made with another cost are re-hashed in the background after a successful login, so
+ * changing the cost moves every active user over without a forced password reset.
+ */
+public class PasswordHasher
+{
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 31;
+    private static final String LOGIN_BUSY_MESSAGE = "Der er mange der logger ind lige nu. Prøv igen om lidt";
+    private static final String REGISTER_BUSY_MESSAGE = "Der er mange der opretter en bruger lige nu. Prøv igen om lidt";
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[abxy]?\\$(\\d{2})\\$.{53}");
+    private static final String BENCHMARK_PASSWORD = "benchmark-password";
+    private static final int BENCHMARK_START_COST = 8;
+
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+    // Saving a rehashed password waits on the database, which must not hold up a hashing thread
+    private final ExecutorService rehashCallbackExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("password-rehash-", 1).factory());
+    private final long timeoutMillis;
+    private final LatencyHistogram hashLatency = new LatencyHistogram();
+    private final LatencyHistogram verifyLatency = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+
+    public PasswordHasher(int cost, int threads, int queueCapacity, long timeoutMillis)
+    {
+        this(cost, createExecutor(threads, queueCapacity), timeoutMillis);
+    }
+
+    PasswordHasher(int cost, ThreadPoolExecutor executor, long timeoutMillis)
+    {
+        if (cost < MIN_COST || cost > MAX_COST)
+        {
+            throw new IllegalArgumentException("BCrypt cost skal være mellem " + MIN_COST + " og " + MAX_COST + ": " + cost);
+        }
+
+        if (timeoutMillis <= 0)
+        {
+            throw new IllegalArgumentException("Timeout for hashing af passwords skal være større end 0");
+        }
+
+        this.cost = cost;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    private static ThreadPoolExecutor createExecutor(int threads, int queueCapacity)
+    {
+        if (threads <= 0 || queueCapacity <= 0)
+        {
+            throw new IllegalArgumentException("Antal tråde og kø til hashing af passwords skal være større end 0");
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable ->
+                {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public int getCost()
+    {
+        return cost;
+    }
+
+    public String hashPassword(String plainPassword) throws DatabaseException
+    {
+        if (plainPassword == null || plainPassword.isEmpty())
+        {
+            throw new IllegalArgumentException("Password kan ikke være tomt");
+        }
+        return run("bcrypt.hash", hashLatency, REGISTER_BUSY_MESSAGE, () -> PasswordUtil.hashPassword(plainPassword, cost));
+    }
+
+    public boolean verifyPassword(String plainPassword, String hashedPassword) throws DatabaseException
+    {
+        return run("bcrypt.verify", verifyLatency, LOGIN_BUSY_MESSAGE, () -> PasswordUtil.verifyPassword(plainPassword, hashedPassword));
+    }
+
+    /***
+     * @return true when the hash was made with another cost than the current one. A hash that is
+     * not BCrypt is left alone, since it cannot have been verified anyway.
+     */
+    public boolean needsRehash(String hashedPassword)
+    {
+        if (hashedPassword == null)
+        {
+            return false;
+        }
+
+        Matcher matcher = BCRYPT_HASH.matcher(hashedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    /***
+     * Hashes the password again with the current cost without making the caller wait. It only runs
+     * while the queue is at most half full, so it never takes the place of a login; a skipped rehash
+     * is simply tried again at the next login.
+     * @param onRehashed is given the new hash on a virtual thread of its own, so it may block
+     */
+    public void rehashInBackground(String plainPassword, Consumer<String> onRehashed)
+    {
+        if (executor.getQueue().size() > executor.getQueue().remainingCapacity())
+        {
+            return;
+        }
+
+        try
+        {
+            executor.execute(() ->
+            {
+                long startedAt = System.nanoTime();
+                String hashedPassword = PasswordUtil.hashPassword(plainPassword, cost);
+                hashLatency.recordNanos(System.nanoTime() - startedAt);
+
+                rehashed.increment();
+                rehashCallbackExecutor.execute(() -> onRehashed.accept(hashedPassword));
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            // The queue filled up in the meantime, the next login tries again
+        }
+    }
+
+    /***
+     * Finds the highest cost whose hash takes no longer than targetMillis on this machine. One hash is
+     * timed at a low cost and the cost is extrapolated from it, since every step doubles the time,
+     * then the result is timed once more to be sure.
+     * @return the cost, never below minCost or above maxCost
+     */
+    public static int benchmarkCost(long targetMillis, int minCost, int maxCost)
+    {
+        if (minCost < MIN_COST || maxCost > MAX_COST || minCost > maxCost)
+        {
+            throw new IllegalArgumentException("BCrypt cost skal være mellem " + MIN_COST + " og " + MAX_COST);
+        }
+
+        // The first hash also pays for class loading and JIT, so it is not timed
+        PasswordUtil.hashPassword(BENCHMARK_PASSWORD, MIN_COST);
+        double startMillis = timeHashMillis(BENCHMARK_START_COST);
+        int cost = BENCHMARK_START_COST + (int) Math.floor(Math.log(targetMillis / Math.max(startMillis, 0.01)) / Math.log(2));
+        cost = Math.max(minCost, Math.min(maxCost, cost));
+
+        double costMillis = timeHashMillis(cost);
+
+        while (costMillis > targetMillis && cost > minCost)
+        {
+            cost--;
+            costMillis /= 2;
+        }
+
+        Logger.getLogger("web").log(Level.INFO, String.format(Locale.ROOT,
+                "BCrypt cost %d valgt, et hash tager ca. %.0f ms (mål %d ms)", cost, costMillis, targetMillis));
+        return cost;
+    }
+
+    private static double timeHashMillis(int cost)
+    {
+        long start = System.nanoTime();
+        PasswordUtil.hashPassword(BENCHMARK_PASSWORD, cost);
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    public PasswordHashingStatisticsDTO getStatistics()
+    {
+        return new PasswordHashingStatisticsDTO(
+                cost,
+                executor.getMaximumPoolSize(),
+                executor.getQueue().size() + executor.getQueue().remainingCapacity(),
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                executor.getCompletedTaskCount(),
+                rejected.sum(),
+                timedOut.sum(),
+                rehashed.sum(),
+                hashLatency.getCount(),
+                hashLatency.getMeanMillis(),
+                hashLatency.getPercentileMillis(95),
+                verifyLatency.getCount(),
+                verifyLatency.getMeanMillis(),
+                verifyLatency.getPercentileMillis(95),
+                queueWait.getPercentileMillis(95)
+        );
+    }
+
+    public void stop()
+    {
+        executor.shutdownNow();
+        rehashCallbackExecutor.shutdown();
+    }
+
+    /***
+     * The span is taken on the caller, so the request's Server-Timing shows the wait in the queue as well.
+     * Overload is reported to the user as a DatabaseException like every other service error, so it is
+     * logged here with the queue depth to tell it apart from a database failure.
+     * @param busyMessage shown to the user when the task is turned away or times out
+     */
+    private <T> T run(String spanName, LatencyHistogram latency, String busyMessage, Callable<T> task) throws DatabaseException
+    {
+        try (RequestMetrics.Span span = RequestMetrics.span(spanName))
+        {
+            long submittedAt = System.nanoTime();
+            Future<T> future;
+
+            try
+            {
+                future = executor.submit(() ->
+                {
+                    long startedAt = System.nanoTime();
+                    queueWait.recordNanos(startedAt - submittedAt);
+
+                    try
+                    {
+                        return task.call();
+                    }
+                    finally
+                    {
+                        latency.recordNanos(System.nanoTime() - startedAt);
+                    }
+                });
+            }
+            catch (RejectedExecutionException e)
+            {
+                rejected.increment();
+                logOverload(spanName + " afvist, køen er fuld");
+                throw new DatabaseException(busyMessage);
+            }
+
+            try
+            {
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            catch (TimeoutException e)
+            {
+                logOverload(spanName + " opgivet efter " + timeoutMillis + " ms");
+
+                // A cancelled task still holds its place in the queue until it is removed
+                future.cancel(true);
+                executor.remove((Runnable) future);
+                timedOut.increment();
+                throw new DatabaseException(busyMessage);
+            }
+            catch (InterruptedException e)
+            {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new DatabaseException(busyMessage);
+            }
+            catch (ExecutionException e)
+            {
+                if (e.getCause() instanceof IllegalArgumentException illegalArgumentException)
+                {
+                    throw illegalArgumentException;
+                }
+                throw new DatabaseException("Fejl ved kontrol af password: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    private void logOverload(String message)
+    {
+        Logger.getLogger("web").log(Level.WARNING, String.format("%s (%d i kø, %d i gang, %d tråde)",
+                message, executor.getQueue().size(), executor.getActiveCount(), executor.getMaximumPoolSize()));
+    }
+}
@@ -0,0 +1,220 @@
+package app.services;
+
+import app.dto.CacheStatisticsDTO;
+import app.entities.Carport;
+import app.entities.MaterialCatalog;
+import app.entities.MaterialLine;
+import app.entities.PricingDetails;
+import app.entities.Shed;
+import app.enums.RoofType;
+import app.exceptions.DatabaseException;
+import app.exceptions.MaterialNotFoundException;
+import app.util.CarportDimensions;
+import app.util.RequestMetrics;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/***
+ * Serves bills of material for the standard form dimensions from a precomputed BomTable
+ * and falls back to the wrapped IBomService for everything else.
+ * The table belongs to one catalog version: as soon as a material changes it is dropped
+ * and, if warm-up is enabled, rebuilt in the background.
+ */
+public class PrecomputedBomService implements IBomService
+{
+    private final IBomService bomService;
+    private final IMaterialCatalogService catalogService;
+    private final ICarportService carportService;
+    private final AtomicReference<BomTable> bomTable = new AtomicReference<>();
+    private final AtomicBoolean warmUpRunning = new AtomicBoolean(false);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile boolean warmUpEnabled = false;
+    private ExecutorService warmUpExecutor;
+
+    public PrecomputedBomService(IBomService bomService, IMaterialCatalogService catalogService, ICarportService carportService)
+    {
+        this.bomService = bomService;
+        this.catalogService = catalogService;
+        this.carportService = carportService;
+    }
+
+    @Override
+    public List<MaterialLine> getBillOfMaterialByCarport(Carport carport) throws DatabaseException, MaterialNotFoundException
+    {
+        try (RequestMetrics.Span span = RequestMetrics.span("getBillOfMaterialByCarport"))
+        {
+            BomTable table = bomTable.get();
+
+            if (table != null)
+            {
+                MaterialCatalog catalog = catalogService.getCatalog();
+
+                if (table.getCatalogVersion() == catalog.getVersion())
+                {
+                    List<MaterialLine> billOfMaterial = table.lookup(carport);
+
+                    if (billOfMaterial != null)
+                    {
+                        hits.increment();
+                        return billOfMaterial;
+                    }
+                }
+                else if (bomTable.compareAndSet(table, null))
+                {
+                    Logger.getLogger("web").log(Level.INFO, "Materialekataloget er ændret, styklistetabellen for version " + table.getCatalogVersion() + " er forkastet");
+
+                    if (warmUpEnabled)
+                    {
+                        scheduleWarmUp();
+                    }
+                }
+            }
+
+            misses.increment();
+            return bomService.getBillOfMaterialByCarport(carport);
+        }
+    }
+
+    @Override
+    public PricingDetails calculateCarportPrice(List<MaterialLine> billOfMaterial)
+    {
+        return bomService.calculateCarportPrice(billOfMaterial);
+    }
+
+    /***
+     * Builds the table in the background now and again after every catalog change.
+     */
+    public void startWarmUp()
+    {
+        if (warmUpExecutor == null)
+        {
+            warmUpExecutor = Executors.newSingleThreadExecutor(runnable ->
+            {
+                Thread thread = new Thread(runnable, "bom-warmup");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        warmUpEnabled = true;
+        scheduleWarmUp();
+    }
+
+    public void stop()
+    {
+        warmUpEnabled = false;
+
+        if (warmUpExecutor != null)
+        {
+            warmUpExecutor.shutdownNow();
+            warmUpExecutor = null;
+        }
+    }
+
+    /***
+     * Computes the bill of material for every dimension combination the carport forms allow.
+     * @return the published table
+     */
+    public BomTable warmUp() throws DatabaseException
+    {
+        long start = System.nanoTime();
+        BomTable table = new BomTable(catalogService.getCatalog().getVersion());
+        int skipped = 0;
+
+        for (RoofType roofType : RoofType.values())
+        {
+            for (int width : CarportDimensions.getCarportWidths())
+            {
+                for (int length : CarportDimensions.getCarportLengths())
+                {
+                    skipped += precompute(table, new Carport(0, length, width, roofType, null));
+
+                    for (int shedWidth : CarportDimensions.getShedWidths())
+                    {
+                        for (int shedLength : CarportDimensions.getShedLengths())
+                        {
+                            Shed shed = carportService.createShedWithPlacement(width, shedWidth, shedLength);
+                            skipped += precompute(table, new Carport(0, length, width, roofType, shed));
+                        }
+                    }
+                }
+            }
+        }
+
+        bomTable.set(table);
+
+        Logger.getLogger("web").log(Level.INFO, String.format("Styklistetabel for katalogversion %d bygget: %d kombinationer (%d sprunget over) på %d ms",
+                table.getCatalogVersion(), table.size(), skipped, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+
+        return table;
+    }
+
+    public CacheStatisticsDTO getStatistics()
+    {
+        BomTable table = bomTable.get();
+        int size = table != null ? table.size() : 0;
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        double hitRate = hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount);
+
+        return new CacheStatisticsDTO("bom-table", size, size, hitCount, missCount, 0, hitRate);
+    }
+
+    private int precompute(BomTable table, Carport carport) throws DatabaseException
+    {
+        try
+        {
+            carportService.validateCarport(carport);
+            table.put(carport, bomService.getBillOfMaterialByCarport(carport));
+            return 0;
+        }
+        catch (IllegalArgumentException | MaterialNotFoundException e)
+        {
+            // Not an orderable combination, e.g. a shed wider than the carport allows
+            return 1;
+        }
+    }
+
+    private void scheduleWarmUp()
+    {
+        ExecutorService executor = warmUpExecutor;
+
+        if (executor == null || !warmUpRunning.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        executor.execute(() ->
+        {
+            boolean built = false;
+
+            try
+            {
+                warmUp();
+                built = true;
+            }
+            catch (DatabaseException | RuntimeException e)
+            {
+                Logger.getLogger("web").log(Level.WARNING, "Kunne ikke bygge styklistetabellen: " + e.getMessage());
+            }
+            finally
+            {
+                warmUpRunning.set(false);
+            }
+
+            // A catalog change while building drops the new table again, and nobody else will rebuild it
+            if (built && warmUpEnabled && bomTable.get() == null)
+            {
+                scheduleWarmUp();
+            }
+        });
+    }
+}
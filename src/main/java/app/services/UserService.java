@@ -6,21 +6,23 @@ import app.entities.User;
 import app.enums.Role;
 import app.exceptions.DatabaseException;
 import app.persistence.UserMapper;
-import app.persistence.ZipCodeMapper;
-import app.util.PasswordUtil;
 import app.util.ValidationUtil;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 public class UserService implements IUserService
 {
     private UserMapper userMapper;
-    private ZipCodeMapper zipCodeMapper;
+    private IZipCodeService zipCodeService;
+    private PasswordHasher passwordHasher;
 
-    public UserService(UserMapper userMapper, ZipCodeMapper zipCodeMapper)
+    public UserService(UserMapper userMapper, IZipCodeService zipCodeService, PasswordHasher passwordHasher)
     {
         this.userMapper = userMapper;
-        this.zipCodeMapper = zipCodeMapper;
+        this.zipCodeService = zipCodeService;
+        this.passwordHasher = passwordHasher;
     }
 
     @Override
@@ -39,12 +41,12 @@ public class UserService implements IUserService
             throw new IllegalArgumentException("De to passwords er ikke ens");
         }
 
-        if (!zipCodeMapper.zipCodeExists(createUserRequestDTO.zipCode()))
+        if (!zipCodeService.zipCodeExists(createUserRequestDTO.zipCode()))
         {
             throw new DatabaseException("Postnummer " + createUserRequestDTO.zipCode()  + " findes ikke");
         }
 
-        String hashedPassword = PasswordUtil.hashPassword(createUserRequestDTO.password1());
+        String hashedPassword = passwordHasher.hashPassword(createUserRequestDTO.password1());
 
         User user = userMapper.createUser(
                 firstName,
@@ -66,14 +68,35 @@ public class UserService implements IUserService
 
         User user = userMapper.getUserByEmail(email);
 
-        if (!PasswordUtil.verifyPassword(password, user.getHashedPassword()))
+        if (!passwordHasher.verifyPassword(password, user.getHashedPassword()))
         {
             throw new DatabaseException("Forkert password. Prøv igen");
         }
 
+        if (passwordHasher.needsRehash(user.getHashedPassword()))
+        {
+            String oldHashedPassword = user.getHashedPassword();
+            passwordHasher.rehashInBackground(password, hashedPassword -> saveRehashedPassword(user.getUserId(), oldHashedPassword, hashedPassword));
+        }
+
         return buildUserDTO(user);
     }
 
+    private void saveRehashedPassword(int userId, String oldHashedPassword, String newHashedPassword)
+    {
+        try
+        {
+            if (!userMapper.updateHashedPassword(userId, oldHashedPassword, newHashedPassword))
+            {
+                Logger.getLogger("web").log(Level.FINE, "Password for bruger " + userId + " blev ændret under rehash, det nye hash er ikke gemt");
+            }
+        }
+        catch (DatabaseException e)
+        {
+            Logger.getLogger("web").log(Level.WARNING, "Kunne ikke gemme nyt password hash for bruger " + userId + ": " + e.getMessage());
+        }
+    }
+
     @Override
     public UserDTO getUserById(int userId) throws DatabaseException
     {
@@ -158,7 +181,7 @@ public class UserService implements IUserService
         ValidationUtil.validateEmail(dto.email());
         ValidationUtil.validatePhoneNumber(dto.phoneNumber());
 
-        if (!zipCodeMapper.zipCodeExists(dto.zipCode()))
+        if (!zipCodeService.zipCodeExists(dto.zipCode()))
         {
             throw new DatabaseException("Postnummer findes ikke: " + dto.zipCode());
         }
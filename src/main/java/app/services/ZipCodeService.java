@@ -0,0 +1,71 @@
+package app.services;
+
+import app.entities.ZipCodeDirectory;
+import app.exceptions.DatabaseException;
+import app.persistence.ZipCodeMapper;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/***
+ * Serves zip code lookups from an in-memory ZipCodeDirectory, loaded at startup after the migrations
+ * have run. The snapshot is held and swapped the same way as in MaterialCatalogService.
+ */
+public class ZipCodeService implements IZipCodeService
+{
+    private final ZipCodeMapper zipCodeMapper;
+    private final AtomicReference<ZipCodeDirectory> currentDirectory = new AtomicReference<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public ZipCodeService(ZipCodeMapper zipCodeMapper)
+    {
+        this.zipCodeMapper = zipCodeMapper;
+    }
+
+    @Override
+    public boolean zipCodeExists(int zipCode) throws DatabaseException
+    {
+        return getDirectory().contains(zipCode);
+    }
+
+    @Override
+    public ZipCodeDirectory reloadZipCodes() throws DatabaseException
+    {
+        reloadLock.lock();
+
+        try
+        {
+            ZipCodeDirectory directory = loadDirectory();
+            currentDirectory.set(directory);
+
+            Logger.getLogger("web").log(Level.INFO, directory.size() + " postnumre indlæst, version " + directory.getVersion());
+            return directory;
+        }
+        finally
+        {
+            reloadLock.unlock();
+        }
+    }
+
+    private ZipCodeDirectory getDirectory() throws DatabaseException
+    {
+        ZipCodeDirectory directory = currentDirectory.get();
+
+        if (directory == null)
+        {
+            // Only when the startup load failed - keep whichever snapshot got there first
+            currentDirectory.compareAndSet(null, loadDirectory());
+            directory = currentDirectory.get();
+        }
+        return directory;
+    }
+
+    private ZipCodeDirectory loadDirectory() throws DatabaseException
+    {
+        return zipCodeMapper.getZipCodeDirectory(versionCounter.incrementAndGet());
+    }
+}
@@ -128,7 +128,7 @@ public class CarportSvgSide
         double firstDistance = firstPostX;
         double firstDistanceInMeters = firstDistance / 100.0;
         double firstMidX = (carportStartX + firstPostSvgX) / 2.0;
-        carportSideSvg.addText(firstMidX, arrowYBottomMargin + 20, 0, String.format("%.2f", firstDistanceInMeters));
+        carportSideSvg.addText(firstMidX, arrowYBottomMargin + 20, 0, firstDistanceInMeters, 2);
 
         for (int i = 0; i < postXPositions.size() - 1; i++)
         {
@@ -143,7 +143,7 @@ public class CarportSvgSide
             double distanceInMeters = distance / 100.0;
             double midX = (xStart + xEnd) / 2.0;
 
-            carportSideSvg.addText(midX, arrowYBottomMargin + 20, 0, String.format("%.2f", distanceInMeters));
+            carportSideSvg.addText(midX, arrowYBottomMargin + 20, 0, distanceInMeters, 2);
         }
 
         double lastPostX = postXPositions.get(postXPositions.size() - 1);
@@ -158,7 +158,7 @@ public class CarportSvgSide
         double lastDistanceInMeters = lastDistance / 100.0;
         double lastMidX = (lastPostSvgX + carportEndX) / 2.0;
 
-        carportSideSvg.addText(lastMidX, arrowYBottomMargin + 20, 0, String.format("%.2f", lastDistanceInMeters));
+        carportSideSvg.addText(lastMidX, arrowYBottomMargin + 20, 0, lastDistanceInMeters, 2);
     }
 
     private void addBeamAndWeatherBoard()
@@ -200,7 +200,7 @@ public class CarportSvgSide
 
             double midX = (x1 + x2) / 2.0;
             double spacing_meters = spacing / 100.0;
-            carportSideSvg.addText(midX, y - 15, 0, String.format("%.2f", spacing_meters));
+            carportSideSvg.addText(midX, y - 15, 0, spacing_meters, 2);
         }
 
         // Left(First) arrow
@@ -247,11 +247,11 @@ public class CarportSvgSide
 
     private void addBeamOrWeatherBoard(double x1, double y1, double x2, double y2, double offset)
     {
-        String points = String.format("%.1f,%.1f %.1f,%.1f %.1f,%.1f %.1f,%.1f",
+        double[] points = {
                 x1, y1,             // Top left
                 x2, y2,             // Top right
                 x2, y2 + offset,    // Bottom right
-                x1, y1 + offset);   // Bottom left
+                x1, y1 + offset};   // Bottom left
 
         carportInnerSvg.addPolygon(points, BASE_STYLE);
     }
@@ -314,6 +314,7 @@ public class CarportSvgSide
 
         return "0 0 " + lengthString + " " + heightString;
     }
+
     @Override
     public String toString() {
         return carportSideSvg.toString();
@@ -136,7 +136,7 @@ public class CarportSvgTop
 
             double midX = (x1 + x2) / 2.0;
             double spacing_meters = spacing / 100.0;
-            carportTopSvg.addText(midX, y - 15, 0, String.format("%.2f", spacing_meters));
+            carportTopSvg.addText(midX, y - 15, 0, spacing_meters, 2);
         }
 
         // Left arrow
@@ -257,6 +257,7 @@ public class CarportSvgTop
 
         return "0 0 " + lengthString + " " + widthString;
     }
+
     @Override
     public String toString() {
         return carportTopSvg.toString();
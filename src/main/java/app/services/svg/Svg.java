@@ -1,18 +1,7 @@
 package app.services.svg;
 
 public class Svg {
-    private static final String SVG_TEMPLATE = "<svg version=\"1.1\"\n" +
-            "     x=\"%d\" y=\"%d\"\n" +
-            "     width=\"%s\" \n" +
-            "     viewBox=\"%s\" \n" +
-            "     preserveAspectRatio=\"xMinYMin\">";
-    private static final String SVG_TEMPLATE_INNER = "<svg version=\"1.1\"\n" +
-            "     x=\"%d\" y=\"%d\"\n" +
-            "     width=\"%d\" \n" +
-            "     height=\"%d\" \n" +
-            "     viewBox=\"%s\" \n" +
-            "     preserveAspectRatio=\"xMinYMin\">";
-    private static final String SVG_RECT_TEMPLATE = "<rect x=\"%f\" y=\"%f\" height=\"%f\" width=\"%f\" style=\"%s\" />";
+    private static final String SVG_CLOSE = "</svg>";
     private static final String SVG_ARROW_DEFS = "<defs>\n" +
             "        <marker\n" +
             "                id=\"beginArrow\"\n" +
@@ -33,50 +22,71 @@ public class Svg {
             "            <path d=\"M0,0 L12,6 L0,12 L0,0 \" style=\"fill: #000000;\" />\n" +
             "        </marker>\n" +
             "    </defs>";
-    private static final String SVG_LINE_TEMPLATE = "<line x1=\"%f\" y1=\"%f\" x2=\"%f\" y2=\"%f\" style=\"%s\"/>";
-    private static final String SVG_TEXT_TEMPLATE = "<text style=\"text-anchor: middle\" transform=\"translate(%.2f,%.2f) rotate(%.2f)\">%s</text>";
-    private static final String SVG_LINE_WITH_ARROWS_TEMPLATE = "<line x1=\"%f\"  y1=\"%f\" x2=\"%f\"   y2=\"%f\"\n" +
-            "          style=\"stroke:#000000;\n" +
-            " marker-start: url(#beginArrow);\n" +
-            "marker-end: url(#endArrow);\"/>";
-    private static final String SVG_POLYGON_TEMPLATE = "<polygon points=\"%s\" style=\"%s\" />";
 
     private StringBuilder svg = new StringBuilder();
 
     public Svg(int x, int y, String width, String viewBox)
     {
-        svg.append(String.format(SVG_TEMPLATE, x, y, width, viewBox));
+        svg.append("<svg version=\"1.1\"\n     x=\"").append(x)
+                .append("\" y=\"").append(y)
+                .append("\"\n     width=\"").append(width)
+                .append("\" \n     viewBox=\"").append(viewBox)
+                .append("\" \n     preserveAspectRatio=\"xMinYMin\">");
     }
 
     public Svg(int x, int y, int length, int width, String viewBox)
     {
-        svg.append(String.format(SVG_TEMPLATE_INNER, x, y, length, width, viewBox));
+        svg.append("<svg version=\"1.1\"\n     x=\"").append(x)
+                .append("\" y=\"").append(y)
+                .append("\"\n     width=\"").append(length)
+                .append("\" \n     height=\"").append(width)
+                .append("\" \n     viewBox=\"").append(viewBox)
+                .append("\" \n     preserveAspectRatio=\"xMinYMin\">");
     }
 
 
     public void addRectangle(double x, double y, double height, double width, String style)
     {
-        svg.append(String.format(SVG_RECT_TEMPLATE, x, y, height, width, style));
-
+        svg.append("<rect x=\"");
+        SvgWriter.appendFixed(svg, x, 6).append("\" y=\"");
+        SvgWriter.appendFixed(svg, y, 6).append("\" height=\"");
+        SvgWriter.appendFixed(svg, height, 6).append("\" width=\"");
+        SvgWriter.appendFixed(svg, width, 6).append("\" style=\"").append(style).append("\" />");
     }
+
     public void addLine(double x1, double y1, double x2, double y2, String style)
     {
-        svg.append(String.format(SVG_LINE_TEMPLATE, x1, y1, x2, y2, style));
+        svg.append("<line x1=\"");
+        SvgWriter.appendFixed(svg, x1, 6).append("\" y1=\"");
+        SvgWriter.appendFixed(svg, y1, 6).append("\" x2=\"");
+        SvgWriter.appendFixed(svg, x2, 6).append("\" y2=\"");
+        SvgWriter.appendFixed(svg, y2, 6).append("\" style=\"").append(style).append("\"/>");
     }
 
     public void addLineWithArrows(double x1, double y1, double x2, double y2)
     {
-        svg.append(String.format(SVG_LINE_WITH_ARROWS_TEMPLATE, x1, y1, x2, y2));
-
+        svg.append("<line x1=\"");
+        SvgWriter.appendFixed(svg, x1, 6).append("\"  y1=\"");
+        SvgWriter.appendFixed(svg, y1, 6).append("\" x2=\"");
+        SvgWriter.appendFixed(svg, x2, 6).append("\"   y2=\"");
+        SvgWriter.appendFixed(svg, y2, 6).append("\"\n          style=\"stroke:#000000;\n marker-start: url(#beginArrow);\nmarker-end: url(#endArrow);\"/>");
     }
+
     public void addText(double x, double y, double rotation, String text)
     {
-        svg.append(String.format(SVG_TEXT_TEMPLATE, x, y, rotation, text));
+        appendTextStart(x, y, rotation);
+        svg.append(text).append("</text>");
+    }
 
+    public void addText(double x, double y, double rotation, double number, int decimals)
+    {
+        appendTextStart(x, y, rotation);
+        SvgWriter.appendFixed(svg, number, decimals).append("</text>");
     }
+
     public void addSvg(Svg innerSvg)
     {
-        svg.append(innerSvg).toString();
+        svg.append(innerSvg.svg).append(SVG_CLOSE);
     }
 
     public void addArrowDefs()
@@ -86,11 +96,43 @@ public class Svg {
 
     public void addPolygon(String points, String style)
     {
-        svg.append(String.format(SVG_POLYGON_TEMPLATE, points, style));
+        svg.append("<polygon points=\"").append(points).append("\" style=\"").append(style).append("\" />");
+    }
+
+    /***
+     * Adds a polygon from x,y pairs, written with one decimal like "%.1f,%.1f"
+     * @param points x1, y1, x2, y2, ...
+     * @param style css style for the polygon
+     */
+    public void addPolygon(double[] points, String style)
+    {
+        svg.append("<polygon points=\"");
+
+        for (int i = 0; i + 1 < points.length; i += 2)
+        {
+            if (i > 0)
+            {
+                svg.append(' ');
+            }
+            SvgWriter.appendFixed(svg, points[i], 1).append(',');
+            SvgWriter.appendFixed(svg, points[i + 1], 1);
+        }
+        svg.append("\" style=\"").append(style).append("\" />");
+    }
+
+    private void appendTextStart(double x, double y, double rotation)
+    {
+        svg.append("<text style=\"text-anchor: middle\" transform=\"translate(");
+        SvgWriter.appendFixed(svg, x, 2).append(',');
+        SvgWriter.appendFixed(svg, y, 2).append(") rotate(");
+        SvgWriter.appendFixed(svg, rotation, 2).append(")\">");
     }
 
     @Override
     public String toString() {
-        return svg.append("</svg>").toString();
+        return new StringBuilder(svg.length() + SVG_CLOSE.length())
+                .append(svg)
+                .append(SVG_CLOSE)
+                .toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package app.services.svg;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+/***
+ * Appends SVG numbers straight into a StringBuilder with fixed precision, giving the
+ * same digits as String.format("%.nf") in Locale.US without parsing a format string
+ * or boxing the double.
+ */
+public final class SvgWriter
+{
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final double MAX_FAST_PATH_VALUE = 1e9;
+    private static final double HALF_WAY_TOLERANCE = 1e-3;
+
+    private SvgWriter()
+    {
+    }
+
+    public static StringBuilder appendFixed(StringBuilder out, double value, int decimals)
+    {
+        if (decimals < 0 || decimals >= POWERS_OF_TEN.length || Double.isNaN(value) || Math.abs(value) >= MAX_FAST_PATH_VALUE)
+        {
+            return out.append(String.format(Locale.US, "%." + decimals + "f", value));
+        }
+
+        long factor = POWERS_OF_TEN[decimals];
+        double absoluteValue = Math.abs(value);
+        double scaled = absoluteValue * factor;
+        long whole = (long) scaled;
+        double remainder = scaled - whole;
+        long rounded;
+
+        if (Math.abs(remainder - 0.5) < HALF_WAY_TOLERANCE)
+        {
+            // Too close to call in binary - round the shortest decimal form half-up like Formatter does
+            rounded = new BigDecimal(Double.toString(absoluteValue))
+                    .setScale(decimals, RoundingMode.HALF_UP)
+                    .unscaledValue()
+                    .longValue();
+        }
+        else
+        {
+            rounded = remainder > 0.5 ? whole + 1 : whole;
+        }
+
+        if (Double.compare(value, 0.0) < 0)
+        {
+            out.append('-');
+        }
+
+        out.append(rounded / factor);
+
+        if (decimals > 0)
+        {
+            out.append('.');
+            long fraction = rounded % factor;
+
+            for (long pad = factor / 10; pad > 1 && fraction < pad; pad /= 10)
+            {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+        return out;
+    }
+}
@@ -61,6 +61,28 @@ public class AppProperties
 
     }
 
+    public static int getInt(String key, int defaultValue)
+    {
+        String property = PROPERTIES.getProperty(key);
+
+        if (property == null || property.isBlank())
+        {
+            return defaultValue;
+        }
+        return getRequiredInt(key);
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue)
+    {
+        String property = PROPERTIES.getProperty(key);
+
+        if (property == null || property.isBlank())
+        {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(property.trim());
+    }
+
     private static String getTrimmedProperty(String key)
     {
         String property = PROPERTIES.getProperty(key);
@@ -14,26 +14,14 @@ public class BeforeHandlersUtil
 
         if (currentUser != null && currentUser.role().name().equals("SALESREP"))
         {
-            Boolean badgeNeedsUpdate = ctx.sessionAttribute("badgeNeedsUpdate");
-            Integer cachedBadgeCount = ctx.sessionAttribute("requestCount");
-
-            if (badgeNeedsUpdate == null || badgeNeedsUpdate || cachedBadgeCount == null)
+            try
             {
-                try
-                {
-                    int requestCount = orderService.getTotalNumberOfOrdersByStatus(OrderStatus.PENDING);
-                    ctx.sessionAttribute("requestCount", requestCount);
-                    ctx.sessionAttribute("badgeNeedsUpdate", false);
-                    ctx.attribute("requestCount", requestCount);
-                }
-                catch (DatabaseException e)
-                {
-                    ctx.attribute("requestCount", 0);
-                }
+                // Served from the shared in-memory counter, so every seller sees the same number without a query
+                ctx.attribute("requestCount", orderService.getTotalNumberOfOrdersByStatus(OrderStatus.PENDING));
             }
-            else
+            catch (DatabaseException e)
             {
-                ctx.attribute("requestCount", cachedBadgeCount);
+                ctx.attribute("requestCount", 0);
             }
         }
     }
@@ -0,0 +1,49 @@
+package app.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/***
+ * The discrete dimensions offered in the carport forms, shared by the controller and the BOM warm-up.
+ */
+public class CarportDimensions
+{
+    private static final int INCREMENT = 30;
+
+    private static final List<Integer> CARPORT_WIDTHS = getDimensionFromTo(240, 600, INCREMENT);
+    private static final List<Integer> CARPORT_LENGTHS = getDimensionFromTo(240, 780, INCREMENT);
+    private static final List<Integer> SHED_WIDTHS = getDimensionFromTo(200, 530, INCREMENT);
+    private static final List<Integer> SHED_LENGTHS = getDimensionFromTo(150, 720, INCREMENT);
+
+    public static List<Integer> getCarportWidths()
+    {
+        return CARPORT_WIDTHS;
+    }
+
+    public static List<Integer> getCarportLengths()
+    {
+        return CARPORT_LENGTHS;
+    }
+
+    public static List<Integer> getShedWidths()
+    {
+        return SHED_WIDTHS;
+    }
+
+    public static List<Integer> getShedLengths()
+    {
+        return SHED_LENGTHS;
+    }
+
+    private static List<Integer> getDimensionFromTo(int from, int to, int increment)
+    {
+        List<Integer> dimensions = new ArrayList<>();
+
+        for(int i = from; i <= to; i+= increment)
+        {
+            dimensions.add(i);
+        }
+        return Collections.unmodifiableList(dimensions);
+    }
+}
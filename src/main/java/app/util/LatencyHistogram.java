@@ -0,0 +1,157 @@
+package app.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/***
+ * Thread-safe latency histogram with fixed bucket bounds in microseconds.
+ * Recording only touches LongAdders, so hot paths never block on each other.
+ */
+public class LatencyHistogram
+{
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+            50, 100, 250, 500,
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 5_000_000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MICROS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram()
+    {
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void recordNanos(long nanos)
+    {
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+
+        buckets[bucketIndex(micros)].increment();
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    /***
+     * Forgets every sample. Not atomic, so a sample recorded meanwhile may be partly kept.
+     */
+    void reset()
+    {
+        for (LongAdder bucket : buckets)
+        {
+            bucket.reset();
+        }
+        count.reset();
+        totalMicros.reset();
+        maxMicros.reset();
+    }
+
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    public double getMeanMillis()
+    {
+        long samples = count.sum();
+        return samples == 0 ? 0 : totalMicros.sum() / 1000.0 / samples;
+    }
+
+    public double getMaxMillis()
+    {
+        return maxMicros.get() / 1000.0;
+    }
+
+    public double getTotalMillis()
+    {
+        return totalMicros.sum() / 1000.0;
+    }
+
+    /***
+     * Approximates a percentile by returning the upper bound of the bucket it falls in.
+     * @param percentile between 0 and 100
+     * @return the percentile in milliseconds
+     */
+    public double getPercentileMillis(double percentile)
+    {
+        long samples = count.sum();
+
+        if (samples == 0)
+        {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(samples * percentile / 100.0);
+        long seen = 0;
+
+        for (int i = 0; i < buckets.length; i++)
+        {
+            seen += buckets[i].sum();
+
+            if (seen >= rank)
+            {
+                return i < BUCKET_BOUNDS_MICROS.length ? BUCKET_BOUNDS_MICROS[i] / 1000.0 : getMaxMillis();
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /***
+     * @return bucket label (upper bound in ms, or "+Inf") mapped to the number of samples in it
+     */
+    public Map<String, Long> getBuckets()
+    {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++)
+        {
+            snapshot.put(String.valueOf(BUCKET_BOUNDS_MICROS[i] / 1000.0), buckets[i].sum());
+        }
+        snapshot.put("+Inf", buckets[BUCKET_BOUNDS_MICROS.length].sum());
+
+        return snapshot;
+    }
+
+    /***
+     * @return the upper bound of every bucket in microseconds, without the last unbounded bucket
+     */
+    public static long[] getBucketBoundsMicros()
+    {
+        return BUCKET_BOUNDS_MICROS.clone();
+    }
+
+    /***
+     * @return the number of samples per bucket, in the order of getBucketBoundsMicros() followed by the unbounded bucket
+     */
+    public long[] getBucketCounts()
+    {
+        long[] counts = new long[buckets.length];
+
+        for (int i = 0; i < buckets.length; i++)
+        {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    private int bucketIndex(long micros)
+    {
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++)
+        {
+            if (micros <= BUCKET_BOUNDS_MICROS[i])
+            {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MICROS.length;
+    }
+}
@@ -0,0 +1,136 @@
+package app.util;
+
+import app.dto.CacheStatisticsDTO;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/***
+ * Bounded least-recently-used cache. Values are computed outside the lock, so a slow
+ * computation never blocks lookups of other keys; two threads missing on the same key
+ * may both compute it, and the last one wins.
+ */
+public class LruCache<K, V>
+{
+    private final String name;
+    private final int maxSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, V> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LruCache(String name, int maxSize)
+    {
+        if (maxSize <= 0)
+        {
+            throw new IllegalArgumentException("Cachens størrelse skal være større end 0");
+        }
+
+        this.name = name;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+            {
+                boolean evict = size() > LruCache.this.maxSize;
+
+                if (evict)
+                {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    public V get(K key)
+    {
+        V value;
+
+        lock.lock();
+        try
+        {
+            value = entries.get(key);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (value != null)
+        {
+            hits.increment();
+        }
+        else
+        {
+            misses.increment();
+        }
+        return value;
+    }
+
+    public void put(K key, V value)
+    {
+        lock.lock();
+        try
+        {
+            entries.put(key, value);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public V getOrCompute(K key, Function<K, V> valueFunction)
+    {
+        V value = get(key);
+
+        if (value == null)
+        {
+            value = valueFunction.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void clear()
+    {
+        lock.lock();
+        try
+        {
+            entries.clear();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public int size()
+    {
+        lock.lock();
+        try
+        {
+            return entries.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public CacheStatisticsDTO getStatistics()
+    {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        double hitRate = lookups == 0 ? 0 : (double) hitCount / lookups;
+
+        return new CacheStatisticsDTO(name, size(), maxSize, hitCount, missCount, evictions.sum(), hitRate);
+    }
+}
@@ -0,0 +1,362 @@
+package app.util;
+
+import app.dto.MaterialImportRowDTO;
+import app.entities.Material;
+import app.entities.MaterialVariant;
+import app.enums.ImportFormat;
+import app.enums.MaterialCategory;
+import app.enums.MaterialType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/***
+ * Reads a supplier price list one row at a time, so an import never holds the whole file in memory.
+ * CSV needs a header row and may be separated by comma or semicolon; JSON is an array of objects.
+ * Both use the column names name, category, type, width, height, unit, usage, length, unitPrice
+ * and piecesPerUnit (case-insensitive). An invalid row is returned with its error instead of its variant.
+ */
+public class MaterialImportReader implements Closeable
+{
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "category", "type", "unit", "usage", "unitprice");
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_UNIT_LENGTH = 20;
+
+    private final ImportFormat format;
+    private final BufferedReader csvReader;
+    private final JsonParser jsonParser;
+    private List<String> csvColumns;
+    private char csvDelimiter;
+    private int lineNumber = 0;
+    private int elementNumber = 0;
+
+    public MaterialImportReader(InputStream input, ImportFormat format) throws IOException
+    {
+        this.format = format;
+
+        if (format == ImportFormat.CSV)
+        {
+            this.csvReader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            this.jsonParser = null;
+            readCsvHeader();
+        }
+        else
+        {
+            this.csvReader = null;
+            this.jsonParser = new JsonFactory().createParser(input);
+
+            if (jsonParser.nextToken() != JsonToken.START_ARRAY)
+            {
+                throw new IllegalArgumentException("JSON filen skal indeholde et array af materialer");
+            }
+        }
+    }
+
+    /***
+     * @return the next row, or null when the file has no more rows
+     */
+    public MaterialImportRowDTO readRow() throws IOException
+    {
+        return format == ImportFormat.CSV ? readCsvRow() : readJsonRow();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (csvReader != null)
+        {
+            csvReader.close();
+        }
+
+        if (jsonParser != null)
+        {
+            jsonParser.close();
+        }
+    }
+
+    private void readCsvHeader() throws IOException
+    {
+        String header = csvReader.readLine();
+        lineNumber++;
+
+        if (header == null || header.isBlank())
+        {
+            throw new IllegalArgumentException("CSV filen mangler en overskriftsrække");
+        }
+
+        if (header.startsWith("\uFEFF"))
+        {
+            header = header.substring(1);
+        }
+
+        csvDelimiter = header.indexOf(';') >= 0 ? ';' : ',';
+        csvColumns = new ArrayList<>();
+
+        for (String column : splitCsvLine(header, new StringBuilder()))
+        {
+            csvColumns.add(column.trim().toLowerCase(Locale.ROOT));
+        }
+
+        for (String requiredColumn : REQUIRED_COLUMNS)
+        {
+            if (!csvColumns.contains(requiredColumn))
+            {
+                throw new IllegalArgumentException("CSV filen mangler kolonnen: " + requiredColumn);
+            }
+        }
+    }
+
+    private MaterialImportRowDTO readCsvRow() throws IOException
+    {
+        String line;
+
+        do
+        {
+            line = csvReader.readLine();
+            lineNumber++;
+
+            if (line == null)
+            {
+                return null;
+            }
+        }
+        while (line.isBlank());
+
+        int rowNumber = lineNumber;
+        StringBuilder record = new StringBuilder(line);
+
+        // A quoted value may contain line breaks, so keep reading until every quote is closed
+        while (hasOpenQuote(record))
+        {
+            String nextLine = csvReader.readLine();
+
+            if (nextLine == null)
+            {
+                return new MaterialImportRowDTO(rowNumber, null, "Et citationstegn er ikke afsluttet");
+            }
+            lineNumber++;
+            record.append('\n').append(nextLine);
+        }
+
+        List<String> values = splitCsvLine(record.toString(), new StringBuilder());
+
+        if (values.size() != csvColumns.size())
+        {
+            return new MaterialImportRowDTO(rowNumber, null, "Rækken har " + values.size() + " kolonner, men overskriften har " + csvColumns.size());
+        }
+
+        Map<String, String> fields = new HashMap<>();
+
+        for (int i = 0; i < values.size(); i++)
+        {
+            fields.put(csvColumns.get(i), values.get(i));
+        }
+        return toRow(rowNumber, fields);
+    }
+
+    private MaterialImportRowDTO readJsonRow() throws IOException
+    {
+        JsonToken token = jsonParser.nextToken();
+
+        if (token == null || token == JsonToken.END_ARRAY)
+        {
+            return null;
+        }
+
+        elementNumber++;
+
+        if (token != JsonToken.START_OBJECT)
+        {
+            jsonParser.skipChildren();
+            return new MaterialImportRowDTO(elementNumber, null, "Elementet er ikke et objekt");
+        }
+
+        Map<String, String> fields = new HashMap<>();
+
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String column = jsonParser.currentName().toLowerCase(Locale.ROOT);
+            JsonToken valueToken = jsonParser.nextToken();
+
+            if (valueToken == JsonToken.START_OBJECT || valueToken == JsonToken.START_ARRAY)
+            {
+                jsonParser.skipChildren();
+                fields.put(column, "");
+            }
+            else
+            {
+                fields.put(column, valueToken == JsonToken.VALUE_NULL ? null : jsonParser.getText());
+            }
+        }
+        return toRow(elementNumber, fields);
+    }
+
+    private MaterialImportRowDTO toRow(int rowNumber, Map<String, String> fields)
+    {
+        try
+        {
+            return new MaterialImportRowDTO(rowNumber, toMaterialVariant(fields), null);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return new MaterialImportRowDTO(rowNumber, null, e.getMessage());
+        }
+    }
+
+    private MaterialVariant toMaterialVariant(Map<String, String> fields)
+    {
+        String name = trimToNull(fields.get("name"));
+        String unit = trimToNull(fields.get("unit"));
+        String usage = trimToNull(fields.get("usage"));
+
+        ValidationUtil.validateMaterialValue(name, "Navn", MAX_NAME_LENGTH);
+        ValidationUtil.validateMaterialValue(unit, "Enhed", MAX_UNIT_LENGTH);
+        ValidationUtil.validateMaterialValue(usage, "Hjælpe tekst");
+
+        MaterialCategory category = parseEnum(MaterialCategory.class, fields.get("category"), "Kategori");
+        MaterialType type = parseEnum(MaterialType.class, fields.get("type"), "Type");
+        Integer width = parseOptionalInt(fields.get("width"), "Bredde");
+        Integer height = parseOptionalInt(fields.get("height"), "Højde");
+        Integer length = parseOptionalInt(fields.get("length"), "Længde");
+        Integer piecesPerUnit = parseOptionalInt(fields.get("piecesperunit"), "Antal per enhed");
+        double unitPrice = parsePrice(fields.get("unitprice"));
+
+        ValidationUtil.validateUnitPrice(unitPrice);
+
+        return new MaterialVariant(0, 0, length, unitPrice, piecesPerUnit,
+                new Material(0, name, category, type, width, height, unit, usage));
+    }
+
+    private Integer parseOptionalInt(String value, String fieldName)
+    {
+        String trimmed = trimToNull(value);
+
+        if (trimmed == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            Integer number = Integer.parseInt(trimmed);
+            ValidationUtil.validateMaterialDimension(number, fieldName);
+            return number;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException(fieldName + " skal være et heltal.");
+        }
+    }
+
+    private double parsePrice(String value)
+    {
+        String trimmed = trimToNull(value);
+
+        if (trimmed == null)
+        {
+            throw new IllegalArgumentException("Pris kan ikke være tom");
+        }
+
+        // Danish price lists write 129,95 - a comma is only a decimal separator when there is no point
+        if (trimmed.indexOf(',') >= 0 && trimmed.indexOf('.') < 0)
+        {
+            trimmed = trimmed.replace(',', '.');
+        }
+
+        try
+        {
+            return Double.parseDouble(trimmed);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Pris skal være et tal.");
+        }
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> enumType, String value, String fieldName)
+    {
+        String trimmed = trimToNull(value);
+
+        if (trimmed != null)
+        {
+            for (E constant : enumType.getEnumConstants())
+            {
+                if (constant.name().equalsIgnoreCase(trimmed))
+                {
+                    return constant;
+                }
+            }
+        }
+        throw new IllegalArgumentException(fieldName + " skal være en af " + Arrays.toString(enumType.getEnumConstants()));
+    }
+
+    private boolean hasOpenQuote(CharSequence record)
+    {
+        boolean open = false;
+
+        for (int i = 0; i < record.length(); i++)
+        {
+            if (record.charAt(i) == '"')
+            {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    private List<String> splitCsvLine(String line, StringBuilder value)
+    {
+        List<String> values = new ArrayList<>();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+
+            if (quoted)
+            {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                {
+                    value.append('"');
+                    i++;
+                }
+                else if (c == '"')
+                {
+                    quoted = false;
+                }
+                else
+                {
+                    value.append(c);
+                }
+            }
+            else if (c == '"')
+            {
+                quoted = true;
+            }
+            else if (c == csvDelimiter || (csvColumns == null && (c == ';' || c == ',')))
+            {
+                values.add(value.toString());
+                value.setLength(0);
+            }
+            else
+            {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private String trimToNull(String value)
+    {
+        if (value == null || value.isBlank())
+        {
+            return null;
+        }
+        return value.trim();
+    }
+}
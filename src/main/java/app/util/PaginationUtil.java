@@ -0,0 +1,113 @@
+package app.util;
+
+import app.dto.OrderOverviewPageDTO;
+import app.dto.OrderPageCursor;
+import app.enums.OrderStatus;
+import io.javalin.http.Context;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PaginationUtil
+{
+    public static final int DEFAULT_PAGE_SIZE = 25;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static int getPageSize(Context ctx)
+    {
+        String size = ctx.queryParam("size");
+
+        if (size == null || !size.matches("\\d{1,4}"))
+        {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(Integer.parseInt(size), MAX_PAGE_SIZE));
+    }
+
+    /***
+     * Every status section on a page is paged independently, with its own cursor parameter.
+     * An unreadable cursor just starts that section from the newest order again.
+     */
+    public static Map<OrderStatus, OrderPageCursor> getCursors(Context ctx, List<OrderStatus> statuses)
+    {
+        Map<OrderStatus, OrderPageCursor> cursors = new LinkedHashMap<>();
+
+        for (OrderStatus status : statuses)
+        {
+            String cursor = ctx.queryParam(getCursorParam(status));
+            OrderPageCursor pageCursor = null;
+
+            if (cursor != null && !cursor.isBlank())
+            {
+                try
+                {
+                    pageCursor = OrderPageCursor.parse(cursor);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    pageCursor = null;
+                }
+            }
+            cursors.put(status, pageCursor);
+        }
+        return cursors;
+    }
+
+    public static void addPageAttributes(Context ctx, String attributeName, OrderStatus status, Map<OrderStatus, OrderOverviewPageDTO> pages, Map<OrderStatus, OrderPageCursor> cursors)
+    {
+        OrderOverviewPageDTO page = pages.get(status);
+
+        ctx.attribute(attributeName, page != null ? page.orders() : List.of());
+        ctx.attribute(attributeName + "NextPage", getNextPageLink(ctx, cursors, status, page));
+        ctx.attribute(attributeName + "FirstPage", getFirstPageLink(ctx, cursors, status));
+    }
+
+    public static String getNextPageLink(Context ctx, Map<OrderStatus, OrderPageCursor> cursors, OrderStatus status, OrderOverviewPageDTO page)
+    {
+        if (page == null || !page.hasNextPage())
+        {
+            return null;
+        }
+
+        Map<OrderStatus, OrderPageCursor> nextCursors = new LinkedHashMap<>(cursors);
+        nextCursors.put(status, page.nextCursor());
+        return buildLink(ctx, nextCursors);
+    }
+
+    public static String getFirstPageLink(Context ctx, Map<OrderStatus, OrderPageCursor> cursors, OrderStatus status)
+    {
+        if (cursors.get(status) == null)
+        {
+            return null;
+        }
+
+        Map<OrderStatus, OrderPageCursor> firstPageCursors = new LinkedHashMap<>(cursors);
+        firstPageCursors.put(status, null);
+        return buildLink(ctx, firstPageCursors);
+    }
+
+    private static String buildLink(Context ctx, Map<OrderStatus, OrderPageCursor> cursors)
+    {
+        StringBuilder link = new StringBuilder(ctx.path())
+                .append("?size=")
+                .append(getPageSize(ctx));
+
+        for (Map.Entry<OrderStatus, OrderPageCursor> entry : cursors.entrySet())
+        {
+            if (entry.getValue() != null)
+            {
+                link.append('&')
+                        .append(getCursorParam(entry.getKey()))
+                        .append('=')
+                        .append(entry.getValue().encode());
+            }
+        }
+        return link.toString();
+    }
+
+    private static String getCursorParam(OrderStatus status)
+    {
+        return status.name().toLowerCase() + "Cursor";
+    }
+}
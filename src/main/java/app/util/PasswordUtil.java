@@ -5,17 +5,25 @@ import org.mindrot.jbcrypt.BCrypt;
 public class PasswordUtil
 {
     public static String hashPassword(String plainPassword)
+    {
+        return hashPassword(plainPassword, 10);
+    }
+
+    /***
+     * @param cost the BCrypt work factor, every step up doubles the time it takes
+     */
+    public static String hashPassword(String plainPassword, int cost)
     {
         if (plainPassword == null || plainPassword.isEmpty())
         {
             throw new IllegalArgumentException("Password kan ikke være tomt");
         }
-        return BCrypt.hashpw(plainPassword, BCrypt.gensalt());
+        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(cost));
     }
 
     public static boolean verifyPassword(String plainPassword, String hashedPassword)
     {
-        if (plainPassword == null || plainPassword == null)
+        if (plainPassword == null || hashedPassword == null)
         {
             return false;
         }
@@ -0,0 +1,228 @@
+package app.util;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/***
+ * Records where the time of a request goes: latency per route, the number of SQL statements
+ * and the time spent in them, and named spans around expensive steps like the bill of material,
+ * the SVG drawings and template rendering. A request is followed through a ThreadLocal, which
+ * works on both platform and virtual threads since a request never changes thread.
+ * Everything is exposed in the Prometheus text format by toPrometheusText().
+ */
+public class RequestMetrics
+{
+    private static final ThreadLocal<RequestTrace> CURRENT_TRACE = new ThreadLocal<>();
+    private static final Map<String, RouteStatistics> ROUTES = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> SPANS = new ConcurrentHashMap<>();
+    private static final LatencyHistogram DB_STATEMENTS = new LatencyHistogram();
+
+    private RequestMetrics()
+    {
+    }
+
+    /***
+     * Timing of one request so far. Only ever touched by the thread handling the request.
+     */
+    public static class RequestTrace
+    {
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Long> spanNanos = new LinkedHashMap<>();
+        private int dbCalls;
+        private long dbNanos;
+
+        public int getDbCalls()
+        {
+            return dbCalls;
+        }
+
+        public double getDbMillis()
+        {
+            return dbNanos / 1_000_000.0;
+        }
+
+        public Map<String, Double> getSpanMillis()
+        {
+            Map<String, Double> spanMillis = new LinkedHashMap<>();
+            spanNanos.forEach((name, nanos) -> spanMillis.put(name, nanos / 1_000_000.0));
+            return spanMillis;
+        }
+    }
+
+    /***
+     * Times a block of code with try-with-resources. Spans with the same name within one request are added up.
+     */
+    public static class Span implements AutoCloseable
+    {
+        private final String name;
+        private final long startNanos = System.nanoTime();
+
+        private Span(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public void close()
+        {
+            long nanos = System.nanoTime() - startNanos;
+            SPANS.computeIfAbsent(name, key -> new LatencyHistogram()).recordNanos(nanos);
+
+            RequestTrace trace = CURRENT_TRACE.get();
+
+            if (trace != null)
+            {
+                trace.spanNanos.merge(name, nanos, Long::sum);
+            }
+        }
+    }
+
+    private static class RouteStatistics
+    {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder dbCalls = new LongAdder();
+        private final LongAdder dbNanos = new LongAdder();
+    }
+
+    public static void startRequest()
+    {
+        CURRENT_TRACE.set(new RequestTrace());
+    }
+
+    /***
+     * Records the request on its route and stops following it.
+     * @param route the route pattern, e.g. "GET /carport-request/details/{id}", so every order shares one histogram
+     * @return the finished trace, or null when no request was started on this thread
+     */
+    public static RequestTrace finishRequest(String route)
+    {
+        RequestTrace trace = CURRENT_TRACE.get();
+        CURRENT_TRACE.remove();
+
+        if (trace == null)
+        {
+            return null;
+        }
+
+        RouteStatistics statistics = ROUTES.computeIfAbsent(route, key -> new RouteStatistics());
+        statistics.latency.recordNanos(System.nanoTime() - trace.startNanos);
+        statistics.dbCalls.add(trace.dbCalls);
+        statistics.dbNanos.add(trace.dbNanos);
+        return trace;
+    }
+
+    public static Span span(String name)
+    {
+        return new Span(name);
+    }
+
+    public static void recordDbCall(long nanos)
+    {
+        DB_STATEMENTS.recordNanos(nanos);
+
+        RequestTrace trace = CURRENT_TRACE.get();
+
+        if (trace != null)
+        {
+            trace.dbCalls++;
+            trace.dbNanos += nanos;
+        }
+    }
+
+    public static String toPrometheusText()
+    {
+        StringBuilder text = new StringBuilder();
+        Map<String, RouteStatistics> routes = new TreeMap<>(ROUTES);
+
+        text.append("# HELP http_server_requests_seconds Request latency per route\n");
+        text.append("# TYPE http_server_requests_seconds histogram\n");
+        routes.forEach((route, statistics) -> appendHistogram(text, "http_server_requests_seconds", routeLabels(route), statistics.latency));
+
+        text.append("# HELP http_server_request_db_calls_total SQL statements executed per route\n");
+        text.append("# TYPE http_server_request_db_calls_total counter\n");
+        routes.forEach((route, statistics) -> appendSample(text, "http_server_request_db_calls_total", routeLabels(route), statistics.dbCalls.sum()));
+
+        text.append("# HELP http_server_request_db_seconds_total Time spent executing SQL statements per route\n");
+        text.append("# TYPE http_server_request_db_seconds_total counter\n");
+        routes.forEach((route, statistics) -> appendSample(text, "http_server_request_db_seconds_total", routeLabels(route), statistics.dbNanos.sum() / 1e9));
+
+        text.append("# HELP db_statement_seconds Execution time of single SQL statements\n");
+        text.append("# TYPE db_statement_seconds histogram\n");
+        appendHistogram(text, "db_statement_seconds", "", DB_STATEMENTS);
+
+        text.append("# HELP span_seconds Time spent in named steps of a request\n");
+        text.append("# TYPE span_seconds histogram\n");
+        new TreeMap<>(SPANS).forEach((name, histogram) -> appendHistogram(text, "span_seconds", "span=\"" + escapeLabel(name) + "\"", histogram));
+
+        return text.toString();
+    }
+
+    /***
+     * Forgets everything recorded so far. Only meant for tests.
+     */
+    static void reset()
+    {
+        ROUTES.clear();
+        SPANS.clear();
+        DB_STATEMENTS.reset();
+        CURRENT_TRACE.remove();
+    }
+
+    private static String routeLabels(String route)
+    {
+        int space = route.indexOf(' ');
+
+        if (space < 0)
+        {
+            return "route=\"" + escapeLabel(route) + "\"";
+        }
+        return "method=\"" + escapeLabel(route.substring(0, space)) + "\",route=\"" + escapeLabel(route.substring(space + 1)) + "\"";
+    }
+
+    private static void appendHistogram(StringBuilder text, String name, String labels, LatencyHistogram histogram)
+    {
+        long[] bounds = LatencyHistogram.getBucketBoundsMicros();
+        long[] counts = histogram.getBucketCounts();
+        String separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+
+        for (int i = 0; i < bounds.length; i++)
+        {
+            cumulative += counts[i];
+            appendSample(text, name + "_bucket", labels + separator + "le=\"" + formatNumber(bounds[i] / 1e6) + "\"", cumulative);
+        }
+        cumulative += counts[bounds.length];
+        appendSample(text, name + "_bucket", labels + separator + "le=\"+Inf\"", cumulative);
+        appendSample(text, name + "_sum", labels, histogram.getTotalMillis() / 1000.0);
+        appendSample(text, name + "_count", labels, cumulative);
+    }
+
+    private static void appendSample(StringBuilder text, String name, String labels, double value)
+    {
+        text.append(name);
+
+        if (!labels.isEmpty())
+        {
+            text.append('{').append(labels).append('}');
+        }
+        text.append(' ').append(formatNumber(value)).append('\n');
+    }
+
+    private static String formatNumber(double value)
+    {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+        {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.ROOT, "%.6f", value).replaceAll("0+$", "");
+    }
+
+    private static String escapeLabel(String value)
+    {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
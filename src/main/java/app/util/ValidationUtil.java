@@ -128,6 +128,32 @@ public class ValidationUtil
         }
     }
 
+    public static void validateMaterialValue(String value, String fieldName, int maxLength)
+    {
+        validateMaterialValue(value, fieldName);
+
+        if (value.length() > maxLength)
+        {
+            throw new IllegalArgumentException(fieldName + " må højst være " + maxLength + " tegn");
+        }
+    }
+
+    public static void validateMaterialDimension(Integer value, String fieldName)
+    {
+        if (value != null && value <= 0)
+        {
+            throw new IllegalArgumentException(fieldName + " skal være større end 0");
+        }
+    }
+
+    public static void validateUnitPrice(double unitPrice)
+    {
+        if (Double.isNaN(unitPrice) || Double.isInfinite(unitPrice) || unitPrice < 0)
+        {
+            throw new IllegalArgumentException("Pris skal være et positivt tal");
+        }
+    }
+
     public static void validateCarportDimensions(int carportWidth, int carportLength)
     {
         if (carportWidth < 240 || carportWidth > 600)
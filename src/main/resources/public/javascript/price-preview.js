@@ -0,0 +1,48 @@
+document.addEventListener("DOMContentLoaded", () => {
+
+    const preview = document.getElementById("pricePreview");
+    const previewPrice = document.getElementById("pricePreviewPrice");
+    const fields = ["carportWidth", "carportLength", "roofType", "shedWidth", "shedLength"]
+        .map(id => document.getElementById(id));
+
+    let timer = null;
+    let controller = null;
+
+    function update()
+    {
+        if (fields.some(field => !field.value))
+        {
+            preview.hidden = true;
+            return;
+        }
+
+        const params = new URLSearchParams();
+        fields.forEach(field => params.append(field.name, field.value));
+
+        // Only the newest selection counts, slower answers for older ones are dropped
+        if (controller)
+        {
+            controller.abort();
+        }
+        controller = new AbortController();
+
+        fetch(preview.dataset.url + "?" + params, {signal: controller.signal})
+            .then(response => response.json().then(body => ({ok: response.ok, body})))
+            .then(({ok, body}) => {
+                previewPrice.textContent = ok ? body.formattedTotalPrice + " kr. inkl. moms" : body.error;
+                preview.hidden = false;
+            })
+            .catch(error => {
+                if (error.name !== "AbortError")
+                {
+                    preview.hidden = true;
+                }
+            });
+    }
+
+    fields.forEach(field => field.addEventListener("change", () => {
+        clearTimeout(timer);
+        timer = setTimeout(update, 150);
+    }));
+    update();
+});
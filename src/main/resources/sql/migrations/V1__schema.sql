@@ -1,6 +1,6 @@
 -- This script was generated by the ERD tool in pgAdmin 4.
 -- Please log an issue at https://github.com/pgadmin-org/pgadmin4/issues/new/choose if you find any bugs, including reproduction steps.
-BEGIN;
+-- V1: the schema. MigrationRunner applies every migration in a transaction of its own.
 
 
 CREATE TABLE IF NOT EXISTS public.zip_code
@@ -142,5 +142,3 @@ ALTER TABLE IF EXISTS public. material_line
        ON DELETE RESTRICT;
 
 CREATE SCHEMA IF NOT EXISTS test;
-
-END;
\ No newline at end of file
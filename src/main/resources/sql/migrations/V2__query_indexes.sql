@@ -0,0 +1,43 @@
+-- V2: secondary indexes for the queries in OrderMapper, MaterialLineMapper and MaterialVariantMapper.
+-- Table names are not schema qualified, so the same script can be run against public and against the test schema.
+
+-- Overview pages, status lists and counts: WHERE order_status = ? ORDER BY request_created_at DESC, order_id DESC.
+-- customer_id is included so the keyset pages are read from the index alone before joining users.
+CREATE INDEX IF NOT EXISTS orders_status_created_idx
+    ON orders (order_status, request_created_at, order_id)
+    INCLUDE (customer_id);
+
+-- A customer's own orders: WHERE customer_id = ? ORDER BY request_created_at DESC
+CREATE INDEX IF NOT EXISTS orders_customer_created_idx
+    ON orders (customer_id, request_created_at);
+
+-- The expiry sweep only looks at READY offers, a small share of all orders, and compares their expiry time
+CREATE INDEX IF NOT EXISTS orders_ready_expiry_idx
+    ON orders ((created_at + make_interval(days => offer_valid_days)))
+    WHERE order_status = 'READY';
+
+-- The bill of material of an order: WHERE ml.order_id = ?, also used by the cascading delete of an order
+CREATE INDEX IF NOT EXISTS material_line_order_idx
+    ON material_line (order_id)
+    INCLUDE (material_line_id, material_variant_id, quantity);
+
+-- Checked by the ON DELETE RESTRICT foreign key every time a variant is deleted
+CREATE INDEX IF NOT EXISTS material_line_variant_idx
+    ON material_line (material_variant_id);
+
+-- Variants of a material: WHERE mv.material_id = ? ORDER BY mv.variant_length NULLS FIRST
+CREATE INDEX IF NOT EXISTS material_variant_material_idx
+    ON material_variant (material_id, variant_length NULLS FIRST);
+
+-- Materials and variants by type, and materials by category: WHERE category = ? ORDER BY type, name
+CREATE INDEX IF NOT EXISTS material_type_idx
+    ON material (type);
+
+CREATE INDEX IF NOT EXISTS material_category_type_name_idx
+    ON material (category, type, name);
+
+-- The planner needs statistics on the expiry expression before it will use the partial index
+ANALYZE orders;
+ANALYZE material_line;
+ANALYZE material_variant;
+ANALYZE material;
@@ -0,0 +1,45 @@
+-- V4: the email outbox. Every statement can be run again, since databases created by hand before the
+-- migrations existed may already have some of it and only have V1 recorded as their baseline.
+
+CREATE TABLE IF NOT EXISTS public.email_outbox
+(
+    email_id serial NOT NULL,
+    email_type character varying(30) COLLATE pg_catalog."default" NOT NULL,
+    user_id integer NOT NULL,
+    order_id integer,
+    status character varying(20) COLLATE pg_catalog."default" NOT NULL DEFAULT 'PENDING'::character varying,
+    attempts integer NOT NULL DEFAULT 0,
+    next_attempt_at timestamp without time zone NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error text COLLATE pg_catalog."default",
+    created_at timestamp without time zone NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at timestamp without time zone,
+    CONSTRAINT email_outbox_pkey PRIMARY KEY (email_id)
+    );
+
+-- The dispatcher polls for pending emails that are due
+CREATE INDEX IF NOT EXISTS email_outbox_pending_idx
+    ON public.email_outbox (next_attempt_at)
+    WHERE status = 'PENDING';
+
+-- ADD CONSTRAINT has no IF NOT EXISTS, so the foreign keys are only added when they are missing
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'email_outbox_user_fk'
+                   AND conrelid = 'public.email_outbox'::regclass) THEN
+        ALTER TABLE public.email_outbox
+            ADD CONSTRAINT email_outbox_user_fk FOREIGN KEY (user_id)
+            REFERENCES public.users (user_id) MATCH SIMPLE
+            ON UPDATE CASCADE
+            ON DELETE CASCADE;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'email_outbox_order_fk'
+                   AND conrelid = 'public.email_outbox'::regclass) THEN
+        ALTER TABLE public.email_outbox
+            ADD CONSTRAINT email_outbox_order_fk FOREIGN KEY (order_id)
+            REFERENCES public."orders" (order_id) MATCH SIMPLE
+            ON UPDATE CASCADE
+            ON DELETE CASCADE;
+    END IF;
+END
+$$;
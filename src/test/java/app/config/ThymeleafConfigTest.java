@@ -0,0 +1,54 @@
+package app.config;
+
+import app.dto.CacheStatisticsDTO;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThymeleafConfigTest
+{
+    @Test
+    void testFindsEveryTemplate()
+    {
+        List<String> templateNames = ThymeleafConfig.findTemplateNames();
+
+        assertTrue(templateNames.contains("index"));
+        assertTrue(templateNames.contains("fragments"));
+        assertTrue(templateNames.stream().noneMatch(name -> name.endsWith(".html")));
+    }
+
+    @Test
+    void testWarmUpCachesTemplatesBeforeFirstRender()
+    {
+        TemplateEngine templateEngine = ThymeleafConfig.templateEngine();
+
+        int warmedUp = ThymeleafConfig.warmUp(templateEngine);
+        CacheStatisticsDTO afterWarmUp = ThymeleafConfig.getCacheStatistics(templateEngine).get(0);
+
+        assertEquals(ThymeleafConfig.findTemplateNames().size(), warmedUp);
+        assertTrue(afterWarmUp.size() >= warmedUp);
+
+        Context context = new Context();
+        context.setVariable("session", Map.of());
+        templateEngine.process("index", context);
+        CacheStatisticsDTO afterRender = ThymeleafConfig.getCacheStatistics(templateEngine).get(0);
+
+        assertEquals(afterWarmUp.misses(), afterRender.misses());
+        assertTrue(afterRender.hits() > afterWarmUp.hits());
+    }
+
+    @Test
+    void testStatisticsCoverTemplateAndExpressionCache()
+    {
+        List<CacheStatisticsDTO> statistics = ThymeleafConfig.getCacheStatistics(ThymeleafConfig.templateEngine());
+
+        assertEquals(2, statistics.size());
+        assertEquals(0, statistics.get(1).hitRate());
+        assertTrue(statistics.get(0).maxSize() > 0);
+    }
+}
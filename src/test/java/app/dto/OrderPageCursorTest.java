@@ -0,0 +1,51 @@
+package app.dto;
+
+import app.enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderPageCursorTest
+{
+    @Test
+    void testEncodeAndParseKeepsMicrosecondPrecision()
+    {
+        OrderPageCursor cursor = new OrderPageCursor(LocalDateTime.of(2025, 11, 18, 14, 30, 5, 123_456_000), 42);
+
+        OrderPageCursor parsed = OrderPageCursor.parse(cursor.encode());
+
+        assertEquals(cursor, parsed);
+        assertEquals("2025-11-18 14:30:05.123456", parsed.getRequestCreatedAtTimestamp().toString());
+    }
+
+    @Test
+    void testCursorBeforeEpochRoundTrips()
+    {
+        OrderPageCursor cursor = new OrderPageCursor(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000), 7);
+
+        assertEquals(cursor, OrderPageCursor.parse(cursor.encode()));
+    }
+
+    @Test
+    void testCursorIsTakenFromOrderOverview()
+    {
+        Timestamp createdAt = Timestamp.valueOf("2025-12-01 09:15:00.000001");
+        OrderOverviewDTO overview = new OrderOverviewDTO(12, "Mads Nielsen", "mads@gmail.com", createdAt, OrderStatus.PENDING);
+
+        OrderPageCursor cursor = OrderPageCursor.of(overview);
+
+        assertEquals(12, cursor.orderId());
+        assertEquals(createdAt, cursor.getRequestCreatedAtTimestamp());
+    }
+
+    @Test
+    void testInvalidCursorThrows()
+    {
+        assertThrows(IllegalArgumentException.class, () -> OrderPageCursor.parse("abc"));
+        assertThrows(IllegalArgumentException.class, () -> OrderPageCursor.parse("123_x"));
+        assertThrows(IllegalArgumentException.class, () -> OrderPageCursor.parse("1_2_3"));
+    }
+}
@@ -0,0 +1,57 @@
+package app.entities;
+
+import app.enums.MaterialCategory;
+import app.enums.MaterialType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaterialCatalogTest
+{
+    private MaterialVariant createVariant(int variantId, MaterialType type, Integer length)
+    {
+        Material material = new Material(variantId, "materiale " + variantId, MaterialCategory.WOOD_AND_ROOFING, type, 45, 195, "stk", "test");
+        return new MaterialVariant(variantId, variantId, length, 10.0, null, material);
+    }
+
+    @Test
+    void testVariantsAreGroupedByTypeAndSortedByLength()
+    {
+        MaterialCatalog catalog = new MaterialCatalog(1, List.of(
+                createVariant(1, MaterialType.BEAM, 600),
+                createVariant(2, MaterialType.RAFTER, 480),
+                createVariant(3, MaterialType.BEAM, 300),
+                createVariant(4, MaterialType.BEAM, null),
+                createVariant(5, MaterialType.BEAM, 480)
+        ));
+
+        List<MaterialVariant> beams = catalog.getVariantsByType(MaterialType.BEAM);
+
+        assertEquals(4, beams.size());
+        assertNull(beams.get(0).getVariantLength());
+        assertEquals(300, beams.get(1).getVariantLength());
+        assertEquals(480, beams.get(2).getVariantLength());
+        assertEquals(600, beams.get(3).getVariantLength());
+        assertEquals(1, catalog.getVariantsByType(MaterialType.RAFTER).size());
+    }
+
+    @Test
+    void testMissingTypeReturnsEmptyList()
+    {
+        MaterialCatalog catalog = new MaterialCatalog(1, List.of(createVariant(1, MaterialType.POST, 300)));
+
+        assertTrue(catalog.getVariantsByType(MaterialType.ROOF).isEmpty());
+    }
+
+    @Test
+    void testCatalogIsImmutable()
+    {
+        MaterialCatalog catalog = new MaterialCatalog(2, List.of(createVariant(1, MaterialType.POST, 300)));
+
+        assertEquals(2, catalog.getVersion());
+        assertThrows(UnsupportedOperationException.class,
+                () -> catalog.getVariantsByType(MaterialType.POST).add(createVariant(2, MaterialType.POST, 420)));
+    }
+}
@@ -0,0 +1,34 @@
+package app.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderTimeLineTest
+{
+    @Test
+    void testOfferWithinItsValidDaysIsNotExpired()
+    {
+        OrderTimeLine orderTimeLine = new OrderTimeLine(null, Timestamp.valueOf(LocalDateTime.now().minusDays(13)), 14);
+
+        assertFalse(orderTimeLine.isExpired());
+    }
+
+    @Test
+    void testOfferPastItsValidDaysIsExpired()
+    {
+        OrderTimeLine orderTimeLine = new OrderTimeLine(null, Timestamp.valueOf(LocalDateTime.now().minusDays(15)), 14);
+
+        assertTrue(orderTimeLine.isExpired());
+    }
+
+    @Test
+    void testOrderWithoutOfferIsNotExpired()
+    {
+        assertFalse(new OrderTimeLine(null, null, 14).isExpired());
+        assertFalse(new OrderTimeLine(null, Timestamp.valueOf(LocalDateTime.now().minusDays(30)), null).isExpired());
+    }
+}
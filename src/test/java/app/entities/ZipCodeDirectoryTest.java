@@ -0,0 +1,39 @@
+package app.entities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipCodeDirectoryTest
+{
+    private final ZipCodeDirectory directory = new ZipCodeDirectory(1,
+            new int[]{800, 1000, 2100, 2200, 9990},
+            new String[]{"Høje Taastrup", "København K", "København Ø", "København N", "Skagen"});
+
+    @Test
+    void testLookupFindsEveryZipCode()
+    {
+        assertEquals(5, directory.size());
+        assertTrue(directory.contains(800));
+        assertTrue(directory.contains(9990));
+        assertEquals("København Ø", directory.getCity(2100));
+        assertEquals("Skagen", directory.getCity(9990));
+    }
+
+    @Test
+    void testUnknownZipCodeIsNotFound()
+    {
+        assertFalse(directory.contains(2150));
+        assertFalse(directory.contains(0));
+        assertFalse(directory.contains(10000));
+        assertNull(directory.getCity(2150));
+    }
+
+    @Test
+    void testUnsortedOrDuplicateZipCodesAreRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ZipCodeDirectory(1, new int[]{2100, 1000}, new String[]{"a", "b"}));
+        assertThrows(IllegalArgumentException.class, () -> new ZipCodeDirectory(1, new int[]{1000, 1000}, new String[]{"a", "b"}));
+        assertThrows(IllegalArgumentException.class, () -> new ZipCodeDirectory(1, new int[]{1000}, new String[]{"a", "b"}));
+    }
+}
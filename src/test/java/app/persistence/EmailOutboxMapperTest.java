@@ -0,0 +1,134 @@
+package app.persistence;
+
+import app.entities.OutboxEmail;
+import app.enums.EmailType;
+import app.exceptions.DatabaseException;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailOutboxMapperTest
+{
+    private static final String USER = "postgres";
+    private static final String PASSWORD = "postgres";
+    private static final String URL = "jdbc:postgresql://localhost:5432/%s?currentSchema=test";
+    private static final String DB = "carport";
+
+    private static final ConnectionPool connectionPool = ConnectionPool.getInstance(USER, PASSWORD, URL, DB);
+    private static EmailOutboxMapper emailOutboxMapper;
+
+    @BeforeAll
+    static void setupClass()
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            try (Statement stmt = connection.createStatement())
+            {
+                stmt.execute("DROP TABLE IF EXISTS test.email_outbox CASCADE");
+                stmt.execute("DROP SEQUENCE IF EXISTS test.email_outbox_email_id_seq CASCADE");
+
+                stmt.execute("CREATE TABLE test.email_outbox AS (SELECT * FROM public.email_outbox) WITH NO DATA");
+                stmt.execute("ALTER TABLE test.email_outbox ADD PRIMARY KEY (email_id)");
+
+                stmt.execute("CREATE SEQUENCE test.email_outbox_email_id_seq");
+                stmt.execute("ALTER TABLE test.email_outbox ALTER COLUMN email_id SET DEFAULT nextval('test.email_outbox_email_id_seq')");
+            }
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            fail("Database setup failed: " + e.getMessage());
+        }
+
+        emailOutboxMapper = new EmailOutboxMapper(connectionPool);
+    }
+
+    @BeforeEach
+    void setUp()
+    {
+        try (Connection connection = connectionPool.getConnection();
+             Statement stmt = connection.createStatement())
+        {
+            stmt.execute("DELETE FROM test.email_outbox");
+            stmt.execute("INSERT INTO test.email_outbox (email_id, email_type, user_id, order_id, status, attempts, next_attempt_at, created_at) VALUES " +
+                    "(1, 'REQUEST_CONFIRMATION', 1, 1, 'PENDING', 0, NOW() - INTERVAL '1 minute', NOW()), " +
+                    "(2, 'OFFER_READY', 1, 1, 'PENDING', 2, NOW() + INTERVAL '1 hour', NOW()), " +
+                    "(3, 'ORDER_CONFIRMATION', 2, 2, 'SENT', 1, NOW() - INTERVAL '1 hour', NOW())");
+            stmt.execute("SELECT setval('test.email_outbox_email_id_seq', COALESCE((SELECT MAX(email_id) + 1 FROM test.email_outbox), 1), false)");
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            fail("Database setup failed: " + e.getMessage());
+        }
+    }
+
+    @Test
+    void testEnqueueEmailIsRolledBackWithTransaction() throws DatabaseException, SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            connection.setAutoCommit(false);
+            emailOutboxMapper.enqueueEmail(connection, EmailType.OFFER_READY, 3, 3);
+            connection.rollback();
+
+            connection.setAutoCommit(true);
+            emailOutboxMapper.enqueueEmail(connection, EmailType.REQUEST_CONFIRMATION, 4, null);
+        }
+
+        List<OutboxEmail> claimed = emailOutboxMapper.claimDueEmails(10, 60);
+
+        assertEquals(2, claimed.size());
+        assertEquals(1, claimed.get(0).getEmailId());
+        assertEquals(4, claimed.get(1).getUserId());
+        assertNull(claimed.get(1).getOrderId());
+    }
+
+    @Test
+    void testClaimedEmailsAreLeasedAndCountAttempts() throws DatabaseException
+    {
+        List<OutboxEmail> claimed = emailOutboxMapper.claimDueEmails(10, 60);
+
+        assertEquals(1, claimed.size());
+        assertEquals(EmailType.REQUEST_CONFIRMATION, claimed.get(0).getEmailType());
+        assertEquals(1, claimed.get(0).getAttempts());
+        assertTrue(emailOutboxMapper.claimDueEmails(10, 60).isEmpty());
+    }
+
+    @Test
+    void testRescheduledEmailIsClaimedAgainWhenDue() throws DatabaseException
+    {
+        emailOutboxMapper.claimDueEmails(10, 60);
+
+        assertTrue(emailOutboxMapper.rescheduleEmail(1, 0, "Timeout"));
+
+        List<OutboxEmail> claimed = emailOutboxMapper.claimDueEmails(10, 60);
+        assertEquals(1, claimed.size());
+        assertEquals(2, claimed.get(0).getAttempts());
+    }
+
+    @Test
+    void testSentAndFailedEmailsAreNotClaimed() throws DatabaseException, SQLException
+    {
+        assertEquals(1, emailOutboxMapper.markEmailsSent(List.of(1)));
+        assertTrue(emailOutboxMapper.markEmailFailed(2, "Opgivet"));
+
+        try (Connection connection = connectionPool.getConnection();
+             Statement stmt = connection.createStatement())
+        {
+            stmt.execute("UPDATE test.email_outbox SET next_attempt_at = NOW() - INTERVAL '1 minute'");
+
+            ResultSet rs = stmt.executeQuery("SELECT status FROM test.email_outbox WHERE email_id = 2");
+            assertTrue(rs.next());
+            assertEquals("FAILED", rs.getString("status"));
+        }
+
+        assertTrue(emailOutboxMapper.claimDueEmails(10, 60).isEmpty());
+    }
+}
@@ -0,0 +1,290 @@
+package app.persistence;
+
+import app.dto.MaterialImportRowDTO;
+import app.entities.Material;
+import app.entities.MaterialVariant;
+import app.enums.MaterialCategory;
+import app.enums.MaterialType;
+import app.exceptions.DatabaseException;
+import org.junit.jupiter.api.*;
+
+import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaterialImportMapperTest
+{
+    private static final String USER = "postgres";
+    private static final String PASSWORD = "postgres";
+    private static final String URL = "jdbc:postgresql://localhost:5432/%s?currentSchema=test";
+    private static final String DB = "carport";
+    private static final int BATCH_SIZE = 1000;
+
+    private static final ConnectionPool connectionPool = ConnectionPool.getInstance(USER, PASSWORD, URL, DB);
+    private static MaterialImportMapper materialImportMapper;
+
+    /***
+     * The counts returned by the merge statements of one import
+     */
+    private record ImportCounts(int duplicatesRemoved, int materialsUpdated, int materialsCreated, int variantsUpdated, int variantsCreated)
+    {
+    }
+
+    @BeforeAll
+    static void setupClass()
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            try (Statement stmt = connection.createStatement())
+            {
+                stmt.execute("DROP TABLE IF EXISTS test.material_variant CASCADE");
+                stmt.execute("DROP TABLE IF EXISTS test.material CASCADE");
+
+                stmt.execute("DROP SEQUENCE IF EXISTS test.material_variant_material_variant_id_seq CASCADE");
+                stmt.execute("DROP SEQUENCE IF EXISTS test.material_material_id_seq CASCADE");
+
+                stmt.execute("CREATE TABLE test.material AS (SELECT * FROM public.material) WITH NO DATA");
+                stmt.execute("CREATE SEQUENCE test.material_material_id_seq");
+                stmt.execute(
+                        "ALTER TABLE test.material " +
+                                "ALTER COLUMN material_id SET DEFAULT nextval('test.material_material_id_seq')"
+                );
+                stmt.execute("ALTER TABLE test.material ADD PRIMARY KEY (material_id)");
+
+                stmt.execute("CREATE TABLE test.material_variant AS (SELECT * FROM public.material_variant) WITH NO DATA");
+                stmt.execute("CREATE SEQUENCE test.material_variant_material_variant_id_seq");
+                stmt.execute(
+                        "ALTER TABLE test.material_variant " +
+                                "ALTER COLUMN material_variant_id SET DEFAULT nextval('test.material_variant_material_variant_id_seq')"
+                );
+                stmt.execute("ALTER TABLE test.material_variant ADD PRIMARY KEY (material_variant_id)");
+                stmt.execute(
+                        "ALTER TABLE test.material_variant ADD CONSTRAINT material_variant_material_fk " +
+                                "FOREIGN KEY (material_id) REFERENCES test.material (material_id) ON DELETE CASCADE"
+                );
+            }
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            fail("Database setup failed: " + e.getMessage());
+        }
+
+        materialImportMapper = new MaterialImportMapper(connectionPool);
+    }
+
+    @BeforeEach
+    void setUp()
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            try (Statement stmt = connection.createStatement())
+            {
+                stmt.execute("DELETE FROM test.material_variant");
+                stmt.execute("DELETE FROM test.material");
+
+                stmt.execute(
+                        "INSERT INTO test.material (material_id, name, category, type, material_width, material_height, unit, usage) VALUES " +
+                                "(1, 'trykimp. Stolpe', 'WOOD_AND_ROOFING', 'POST', 97, 97, 'stk', 'Stolper nedgraves 90 cm. i jord'), " +
+                                "(2, 'Plastmo Bundskruer', 'FITTINGS_AND_FASTENERS', 'FASTENER', null, null, 'pakke', 'Skruer til tagplader')"
+                );
+
+                stmt.execute(
+                        "INSERT INTO test.material_variant (material_variant_id, material_id, variant_length, unit_price, pieces_per_unit) VALUES " +
+                                "(1, 1, 300, 221.85, 1), " +
+                                "(2, 1, 360, 266.21, 1), " +
+                                "(3, 2, null, 149.00, 200)"
+                );
+
+                stmt.execute(
+                        "SELECT setval('test.material_material_id_seq', " +
+                                "COALESCE((SELECT MAX(material_id) + 1 FROM test.material), 1), false)"
+                );
+                stmt.execute(
+                        "SELECT setval('test.material_variant_material_variant_id_seq', " +
+                                "COALESCE((SELECT MAX(material_variant_id) + 1 FROM test.material_variant), 1), false)"
+                );
+            }
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+            fail("Database setup failed: " + e.getMessage());
+        }
+    }
+
+    @Test
+    void testChangedVariantIsUpdatedAndNewVariantIsCreated() throws DatabaseException, SQLException
+    {
+        ImportCounts counts = importRows(List.of(
+                post(1, 300, 249.95),
+                post(2, 360, 266.21),
+                post(3, 420, 310.50)
+        ));
+
+        assertEquals(0, counts.materialsCreated());
+        assertEquals(0, counts.materialsUpdated());
+        assertEquals(1, counts.variantsUpdated());
+        assertEquals(1, counts.variantsCreated());
+
+        assertEquals(249.95, getUnitPrice(1, 300), 0.001);
+        assertEquals(310.50, getUnitPrice(1, 420), 0.001);
+        assertEquals(4, countRows("material_variant"));
+    }
+
+    @Test
+    void testNewMaterialIsCreatedWithItsVariants() throws DatabaseException, SQLException
+    {
+        Material beam = new Material(0, "spærtræ ubh.", MaterialCategory.WOOD_AND_ROOFING, MaterialType.BEAM, 45, 195, "stk", "Remme i sider");
+
+        ImportCounts counts = importRows(List.of(
+                row(1, beam, 360, 190.61, 1),
+                row(2, beam, 600, 479.70, 1)
+        ));
+
+        assertEquals(1, counts.materialsCreated());
+        assertEquals(2, counts.variantsCreated());
+        assertEquals(3, countRows("material"));
+        assertEquals(5, countRows("material_variant"));
+    }
+
+    @Test
+    void testMaterialWithoutSizeIsMatchedAndUpdated() throws DatabaseException, SQLException
+    {
+        Material screws = new Material(0, "Plastmo Bundskruer", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.FASTENER, null, null, "pakke", "Skruer til tagplader, 200 stk.");
+
+        ImportCounts counts = importRows(List.of(row(1, screws, null, 149.00, 200)));
+
+        assertEquals(0, counts.materialsCreated());
+        assertEquals(1, counts.materialsUpdated());
+        assertEquals(0, counts.variantsUpdated());
+        assertEquals(0, counts.variantsCreated());
+        assertEquals(2, countRows("material"));
+    }
+
+    @Test
+    void testLastDuplicateRowInTheFileWins() throws DatabaseException, SQLException
+    {
+        ImportCounts counts = importRows(List.of(
+                post(1, 300, 230.00),
+                post(2, 480, 350.00),
+                post(3, 300, 240.00),
+                post(4, 480, 360.00)
+        ));
+
+        assertEquals(2, counts.duplicatesRemoved());
+        assertEquals(1, counts.variantsUpdated());
+        assertEquals(1, counts.variantsCreated());
+        assertEquals(240.00, getUnitPrice(1, 300), 0.001);
+        assertEquals(360.00, getUnitPrice(1, 480), 0.001);
+    }
+
+    @Test
+    void testUnchangedRowsAreNotWritten() throws DatabaseException, SQLException
+    {
+        ImportCounts counts = importRows(List.of(
+                post(1, 300, 221.85),
+                post(2, 360, 266.21)
+        ));
+
+        assertEquals(0, counts.materialsUpdated());
+        assertEquals(0, counts.variantsUpdated());
+        assertEquals(0, counts.variantsCreated());
+    }
+
+    @Test
+    void testTenThousandRowsAreImportedWithinSeconds()
+    {
+        // 2000 new materials with 5 lengths each, in the order a price list would list them
+        List<MaterialImportRowDTO> rows = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; i++)
+        {
+            Material material = new Material(0, "Brædt " + (i % 2000), MaterialCategory.WOOD_AND_ROOFING, MaterialType.BOARD, 25, 125, "stk", null);
+            rows.add(row(i + 1, material, 300 + (i / 2000) * 60, 50.0 + i % 7, 1));
+        }
+
+        long start = System.nanoTime();
+        ImportCounts counts = assertTimeout(Duration.ofSeconds(5), () -> importRows(rows));
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("10.000 importrækker på " + durationMs + " ms");
+        assertEquals(2000, counts.materialsCreated());
+        assertEquals(10_000, counts.variantsCreated());
+    }
+
+    /***
+     * Runs the same steps as MaterialService.importMaterialVariants, in batches of the same size
+     */
+    private ImportCounts importRows(List<MaterialImportRowDTO> rows) throws DatabaseException, SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            connection.setAutoCommit(false);
+
+            try
+            {
+                materialImportMapper.createStagingTable(connection);
+
+                for (int i = 0; i < rows.size(); i += BATCH_SIZE)
+                {
+                    materialImportMapper.stageRows(connection, rows.subList(i, Math.min(i + BATCH_SIZE, rows.size())));
+                }
+
+                int duplicatesRemoved = materialImportMapper.removeDuplicateRows(connection);
+                materialImportMapper.analyzeStagingTable(connection);
+                int materialsUpdated = materialImportMapper.updateMaterials(connection);
+                int materialsCreated = materialImportMapper.insertMaterials(connection);
+                materialImportMapper.resolveMaterialIds(connection);
+                int variantsUpdated = materialImportMapper.updateVariants(connection);
+                int variantsCreated = materialImportMapper.insertVariants(connection);
+
+                connection.commit();
+                return new ImportCounts(duplicatesRemoved, materialsUpdated, materialsCreated, variantsUpdated, variantsCreated);
+            }
+            catch (DatabaseException e)
+            {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private MaterialImportRowDTO post(int rowNumber, int variantLength, double unitPrice)
+    {
+        Material post = new Material(0, "trykimp. Stolpe", MaterialCategory.WOOD_AND_ROOFING, MaterialType.POST, 97, 97, "stk", "Stolper nedgraves 90 cm. i jord");
+        return row(rowNumber, post, variantLength, unitPrice, 1);
+    }
+
+    private MaterialImportRowDTO row(int rowNumber, Material material, Integer variantLength, double unitPrice, Integer piecesPerUnit)
+    {
+        return new MaterialImportRowDTO(rowNumber, new MaterialVariant(0, 0, variantLength, unitPrice, piecesPerUnit, material), null);
+    }
+
+    private double getUnitPrice(int materialId, int variantLength) throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT unit_price FROM test.material_variant WHERE material_id = ? AND variant_length = ?"))
+        {
+            ps.setInt(1, materialId);
+            ps.setInt(2, variantLength);
+            ResultSet rs = ps.executeQuery();
+            assertTrue(rs.next(), "Varianten blev ikke fundet");
+            return rs.getDouble("unit_price");
+        }
+    }
+
+    private int countRows(String tableName) throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection();
+             Statement stmt = connection.createStatement())
+        {
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM test." + tableName);
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package app.persistence;
 
 import app.entities.MaterialLine;
+import app.entities.MaterialVariant;
 import app.exceptions.DatabaseException;
 import org.junit.jupiter.api.*;
 
@@ -148,6 +149,40 @@ class MaterialLineMapperTest
         }
     }
 
+    @Test
+    void testCreateMaterialLines() throws DatabaseException, SQLException
+    {
+        MaterialVariant post = new MaterialVariant(1, 1, 300, 221.85, 1);
+        MaterialVariant rafter = new MaterialVariant(5, 3, 600, 479.70, 1);
+        List<MaterialLine> bom = List.of(new MaterialLine(post, 4), new MaterialLine(rafter, 12), new MaterialLine(post, 2));
+
+        try (Connection connection = connectionPool.getConnection())
+        {
+            connection.setAutoCommit(false);
+
+            List<MaterialLine> createdLines = materialLineMapper.createMaterialLines(connection, 3, bom);
+
+            connection.commit();
+
+            assertEquals(3, createdLines.size());
+            assertTrue(createdLines.stream().allMatch(line -> line.getMaterialLineId() > 0 && line.getOrderId() == 3));
+        }
+
+        List<MaterialLine> savedLines = materialLineMapper.getMaterialLinesByOrderId(3);
+
+        assertEquals(3, savedLines.size());
+        assertEquals(18, savedLines.stream().mapToInt(MaterialLine::getQuantity).sum());
+    }
+
+    @Test
+    void testCreateMaterialLinesEmpty() throws DatabaseException, SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            assertTrue(materialLineMapper.createMaterialLines(connection, 3, List.of()).isEmpty());
+        }
+    }
+
     @Test
     void testGetMaterialLineById() throws DatabaseException
     {
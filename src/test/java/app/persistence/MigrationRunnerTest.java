@@ -0,0 +1,101 @@
+package app.persistence;
+
+import app.exceptions.DatabaseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationRunnerTest
+{
+    @Test
+    void testMigrationsAreLoadedInVersionOrder() throws DatabaseException
+    {
+        List<MigrationRunner.Migration> migrations = MigrationRunner.loadMigrations();
+
+        for (int i = 0; i < migrations.size(); i++)
+        {
+            assertEquals(i + 1, migrations.get(i).version());
+            assertEquals(64, migrations.get(i).checksum().length());
+        }
+        assertEquals("query indexes", migrations.get(1).description());
+    }
+
+    @Test
+    void testReferenceDataIsSplitIntoCopyBlocks() throws DatabaseException
+    {
+        MigrationRunner.Migration referenceData = MigrationRunner.loadMigrations().get(2);
+
+        List<MigrationRunner.ScriptPart> copies = MigrationRunner.parseScript(referenceData.script()).stream()
+                .filter(MigrationRunner.ScriptPart::isCopy)
+                .toList();
+
+        assertEquals(3, copies.size());
+        assertTrue(copies.get(0).sql().startsWith("COPY zip_code_import (zip_code, city) FROM STDIN"));
+        assertFalse(copies.get(0).sql().endsWith(";"));
+        assertEquals(1147, copies.get(0).copyData().lines().count());
+        assertTrue(copies.get(0).copyData().contains("2100,\"København Ø\"\n"));
+        assertEquals(14, copies.get(1).copyData().lines().count());
+        assertEquals(47, copies.get(2).copyData().lines().count());
+    }
+
+    @Test
+    void testStatementsAroundACopyAreKept()
+    {
+        String script = """
+                CREATE TEMP TABLE t (a integer) ON COMMIT DROP;
+                COPY t (a) FROM STDIN WITH (FORMAT csv);
+                1
+                2
+                \\.
+                INSERT INTO target SELECT a FROM t;
+                """;
+
+        List<MigrationRunner.ScriptPart> parts = MigrationRunner.parseScript(script);
+
+        assertEquals(3, parts.size());
+        assertFalse(parts.get(0).isCopy());
+        assertEquals("COPY t (a) FROM STDIN WITH (FORMAT csv)", parts.get(1).sql());
+        assertEquals("1\n2\n", parts.get(1).copyData());
+        assertEquals("INSERT INTO target SELECT a FROM t;\n", parts.get(2).sql());
+    }
+
+    @Test
+    void testCopyWithoutEndMarkerIsRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> MigrationRunner.parseScript("COPY t (a) FROM STDIN;\n1\n"));
+    }
+
+    @Test
+    void testChangedMigrationIsRejected() throws DatabaseException
+    {
+        List<MigrationRunner.Migration> migrations = MigrationRunner.loadMigrations();
+
+        assertFalse(MigrationRunner.isUpToDate(migrations, Map.of(1, migrations.get(0).checksum())));
+        assertThrows(DatabaseException.class, () -> MigrationRunner.isUpToDate(migrations, Map.of(1, "0".repeat(64))));
+    }
+
+    @Test
+    void testBaselineIsTheOriginalSchema() throws DatabaseException
+    {
+        List<MigrationRunner.Migration> migrations = MigrationRunner.loadMigrations();
+
+        // Databases built by hand only get V1 recorded, so anything added later must be in a later migration
+        assertFalse(migrations.get(0).script().contains("email_outbox"));
+        assertTrue(migrations.stream().anyMatch(migration -> migration.script().contains("CREATE TABLE IF NOT EXISTS public.email_outbox")));
+        assertDoesNotThrow(() -> MigrationRunner.verifyChecksums(migrations, Map.of(1, migrations.get(0).checksum())));
+    }
+
+    @Test
+    void testReferenceDataIsPartOfTheBaselineWhenTheTablesHoldData() throws DatabaseException
+    {
+        List<MigrationRunner.Migration> migrations = MigrationRunner.loadMigrations();
+
+        assertEquals(List.of(1), MigrationRunner.baselineMigrations(migrations, false).stream().map(MigrationRunner.Migration::version).toList());
+        // The indexes and the email outbox are created with IF NOT EXISTS, so they still run on a database built by hand
+        assertEquals(List.of(1, 3), MigrationRunner.baselineMigrations(migrations, true).stream().map(MigrationRunner.Migration::version).toList());
+        assertEquals("reference data", migrations.get(2).description());
+    }
+}
@@ -1,6 +1,9 @@
 package app.persistence;
 
+import app.dto.OrderAggregateDTO;
 import app.dto.OrderOverviewDTO;
+import app.dto.OrderOverviewPageDTO;
+import app.dto.OrderPageCursor;
 import app.entities.Order;
 import app.entities.PricingDetails;
 import app.enums.OrderStatus;
@@ -9,7 +12,9 @@ import org.junit.jupiter.api.*;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -254,6 +259,47 @@ class OrderMapperTest
         assertThrows(DatabaseException.class, () -> orderMapper.getOrderById(999));
     }
 
+    @Test
+    void testGetOrderAggregateById() throws DatabaseException, SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            OrderAggregateDTO aggregate = orderMapper.getOrderAggregateById(connection, 2);
+
+            assertEquals(2, aggregate.order().getOrderId());
+            assertEquals(OrderStatus.READY, aggregate.order().getOrderStatus());
+            assertEquals(3, aggregate.customer().getUserId());
+            assertEquals("København N", aggregate.customer().getCity());
+            assertNotNull(aggregate.seller());
+            assertEquals(2, aggregate.seller().getUserId());
+            assertEquals("sofie.jensen@fog.dk", aggregate.seller().getEmail());
+            assertEquals(2, aggregate.carport().getCarportId());
+            assertEquals(780, aggregate.carport().getLength());
+            assertNull(aggregate.carport().getShed());
+        }
+    }
+
+    @Test
+    void testGetOrderAggregateByIdWithoutSeller() throws DatabaseException, SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            OrderAggregateDTO aggregate = orderMapper.getOrderAggregateById(connection, 1);
+
+            assertEquals(1, aggregate.customer().getUserId());
+            assertNull(aggregate.seller());
+        }
+    }
+
+    @Test
+    void testGetOrderAggregateByIdNotFound() throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            assertThrows(DatabaseException.class, () -> orderMapper.getOrderAggregateById(connection, 999));
+        }
+    }
+
     @Test
     void testGetAllOrders() throws DatabaseException
     {
@@ -428,13 +474,36 @@ class OrderMapperTest
             );
             connection.commit();
         }
-        int updatedRows = orderMapper.updateOrderStatusIfExpired();
+        int updatedRows = orderMapper.updateOrderStatusIfExpired(500);
         assertTrue(updatedRows > 0);
 
         Order expiredOrder = orderMapper.getOrderById(2);
         assertEquals(OrderStatus.EXPIRED, expiredOrder.getOrderStatus());
     }
 
+    @Test
+    void testUpdateOrderStatusIfExpiredInBatches() throws DatabaseException, SQLException
+    {
+        try (Connection connection = connectionPool.getConnection();
+             Statement stmt = connection.createStatement())
+        {
+            stmt.execute(
+                    "UPDATE test.orders " +
+                            "SET order_status = 'READY', created_at = CURRENT_TIMESTAMP - INTERVAL '20 days', " +
+                            "offer_valid_days = 14 " +
+                            "WHERE order_id IN (1, 2)"
+            );
+        }
+
+        assertEquals(1, orderMapper.updateOrderStatusIfExpired(1));
+        assertEquals(1, orderMapper.updateOrderStatusIfExpired(1));
+        assertEquals(0, orderMapper.updateOrderStatusIfExpired(1));
+
+        assertEquals(OrderStatus.EXPIRED, orderMapper.getOrderById(1).getOrderStatus());
+        assertEquals(OrderStatus.EXPIRED, orderMapper.getOrderById(2).getOrderStatus());
+        assertEquals(OrderStatus.ACCEPTED, orderMapper.getOrderById(3).getOrderStatus());
+    }
+
     @Test
     void testCompleteOrderWorkflow() throws DatabaseException, SQLException
     {
@@ -525,6 +594,39 @@ class OrderMapperTest
         assertEquals(OrderStatus. PENDING, pendingOverviews.get(0).orderStatus());
     }
 
+    @Test
+    void testGetOrderOverviewPagesByStatuses() throws DatabaseException, SQLException
+    {
+        try (Connection connection = connectionPool.getConnection();
+             Statement stmt = connection.createStatement())
+        {
+            stmt.execute(
+                    "INSERT INTO test.orders (order_id, customer_id, seller_id, carport_id, request_created_at, order_status, coverage_percentage, cost_price) VALUES " +
+                            "(4, 1, NULL, 1, CURRENT_TIMESTAMP - INTERVAL '2 days', 'PENDING', 40.0, 10000.00), " +
+                            "(5, 3, NULL, 2, CURRENT_TIMESTAMP - INTERVAL '2 days', 'PENDING', 40.0, 10000.00), " +
+                            "(6, 3, NULL, 3, CURRENT_TIMESTAMP - INTERVAL '5 days', 'PENDING', 40.0, 10000.00)"
+            );
+        }
+
+        Map<OrderStatus, OrderPageCursor> cursors = new LinkedHashMap<>();
+        cursors.put(OrderStatus.PENDING, null);
+        cursors.put(OrderStatus.READY, null);
+
+        Map<OrderStatus, OrderOverviewPageDTO> firstPages = orderMapper.getOrderOverviewPagesByStatuses(cursors, 2);
+        OrderOverviewPageDTO firstPending = firstPages.get(OrderStatus.PENDING);
+
+        assertEquals(List.of(1, 5), firstPending.orders().stream().map(OrderOverviewDTO::orderId).toList());
+        assertTrue(firstPending.hasNextPage());
+        assertEquals(1, firstPages.get(OrderStatus.READY).orders().size());
+        assertFalse(firstPages.get(OrderStatus.READY).hasNextPage());
+
+        cursors.put(OrderStatus.PENDING, OrderPageCursor.parse(firstPending.nextCursor().encode()));
+        OrderOverviewPageDTO secondPending = orderMapper.getOrderOverviewPagesByStatuses(cursors, 2).get(OrderStatus.PENDING);
+
+        assertEquals(List.of(4, 6), secondPending.orders().stream().map(OrderOverviewDTO::orderId).toList());
+        assertFalse(secondPending.hasNextPage());
+    }
+
     @Test
     void testGetAllOrderOverviewsByUserId() throws DatabaseException
     {
@@ -571,4 +673,30 @@ class OrderMapperTest
         int rejectedCount = orderMapper.getNumberOfOrdersByStatus(OrderStatus.REJECTED);
         assertEquals(0, rejectedCount);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetNumberOfOrdersGroupedByStatus() throws DatabaseException
+    {
+        Map<OrderStatus, Integer> counts = orderMapper.getNumberOfOrdersGroupedByStatus();
+
+        assertEquals(3, counts.size());
+        assertEquals(1, counts.get(OrderStatus.PENDING));
+        assertEquals(1, counts.get(OrderStatus.READY));
+        assertEquals(1, counts.get(OrderStatus.ACCEPTED));
+        assertNull(counts.get(OrderStatus.REJECTED));
+    }
+
+    @Test
+    void testGetOrderStatusForUpdate() throws DatabaseException, SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            connection.setAutoCommit(false);
+
+            assertEquals(OrderStatus.READY, orderMapper.getOrderStatusForUpdate(connection, 2));
+            assertThrows(DatabaseException.class, () -> orderMapper.getOrderStatusForUpdate(connection, 999));
+
+            connection.rollback();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package app.persistence;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/***
+ * Runs EXPLAIN on the hot mapper queries against a seeded test schema with the V2 indexes,
+ * so a query change that no longer matches its index fails here instead of in production.
+ * The SQL is the mappers' own, so any change to those queries is checked as well.
+ */
+class QueryPlanTest
+{
+    private static final String USER = "postgres";
+    private static final String PASSWORD = "postgres";
+    private static final String URL = "jdbc:postgresql://localhost:5432/%s?currentSchema=test";
+    private static final String DB = "carport";
+    private static final String MIGRATION = "/sql/migrations/V2__query_indexes.sql";
+
+    private static final ConnectionPool connectionPool = ConnectionPool.getInstance(USER, PASSWORD, URL, DB);
+
+    @BeforeAll
+    static void setupClass()
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            try (Statement stmt = connection.createStatement())
+            {
+                stmt.execute("DROP TABLE IF EXISTS test.material_line CASCADE");
+                stmt.execute("DROP TABLE IF EXISTS test.material_variant CASCADE");
+                stmt.execute("DROP TABLE IF EXISTS test.material CASCADE");
+                stmt.execute("DROP TABLE IF EXISTS test.orders CASCADE");
+                stmt.execute("DROP TABLE IF EXISTS test.carport CASCADE");
+                stmt.execute("DROP TABLE IF EXISTS test.users CASCADE");
+                stmt.execute("DROP TABLE IF EXISTS test.zip_code CASCADE");
+
+                stmt.execute("CREATE TABLE test.zip_code AS (SELECT * FROM public.zip_code) WITH NO DATA");
+                stmt.execute("ALTER TABLE test.zip_code ADD PRIMARY KEY (zip_code)");
+                stmt.execute("CREATE TABLE test.users AS (SELECT * FROM public.users) WITH NO DATA");
+                stmt.execute("ALTER TABLE test.users ADD PRIMARY KEY (user_id)");
+                stmt.execute("CREATE TABLE test.carport AS (SELECT * FROM public.carport) WITH NO DATA");
+                stmt.execute("ALTER TABLE test.carport ADD PRIMARY KEY (carport_id)");
+                stmt.execute("CREATE TABLE test.orders AS (SELECT * FROM public.orders) WITH NO DATA");
+                stmt.execute("ALTER TABLE test.orders ADD PRIMARY KEY (order_id)");
+                stmt.execute("CREATE TABLE test.material AS (SELECT * FROM public.material) WITH NO DATA");
+                stmt.execute("ALTER TABLE test.material ADD PRIMARY KEY (material_id)");
+                stmt.execute("CREATE TABLE test.material_variant AS (SELECT * FROM public.material_variant) WITH NO DATA");
+                stmt.execute("ALTER TABLE test.material_variant ADD PRIMARY KEY (material_variant_id)");
+                stmt.execute("CREATE TABLE test.material_line AS (SELECT * FROM public.material_line) WITH NO DATA");
+                stmt.execute("ALTER TABLE test.material_line ADD PRIMARY KEY (material_line_id)");
+
+                stmt.execute("INSERT INTO test.zip_code (zip_code, city) VALUES (1000, 'København K')");
+
+                stmt.execute(
+                        "INSERT INTO test.users (user_id, first_name, last_name, email, phone_number, hashed_password, zip_code, street, role) " +
+                                "SELECT i, 'Kunde', 'Nr. ' || i, 'kunde' || i || '@gmail.com', '20345678', '$2a$10$hash', 1000, 'Bredgade ' || i, 'CUSTOMER' " +
+                                "FROM generate_series(1, 500) AS i"
+                );
+
+                stmt.execute("INSERT INTO test.carport (carport_id, length, width, shed_id, roof_type) VALUES (1, 600, 500, NULL, 'FLAT')");
+
+                // Most orders are old and paid or accepted, only a few are waiting for a seller or the customer
+                stmt.execute(
+                        "INSERT INTO test.orders (order_id, customer_id, seller_id, carport_id, request_created_at, created_at, " +
+                                "offer_valid_days, order_status, customer_comment, coverage_percentage, cost_price) " +
+                                "SELECT i, 1 + i % 500, NULL, 1, LOCALTIMESTAMP - i * INTERVAL '10 minutes', " +
+                                "LOCALTIMESTAMP - i * INTERVAL '10 minutes' + INTERVAL '1 day', 14, " +
+                                "CASE WHEN i % 100 = 0 THEN 'PENDING' " +
+                                "     WHEN i % 100 = 1 THEN 'READY' " +
+                                "     WHEN i % 100 < 5 THEN 'REJECTED' " +
+                                "     WHEN i % 100 < 10 THEN 'EXPIRED' " +
+                                "     WHEN i % 100 < 15 THEN 'CANCELLED' " +
+                                "     WHEN i % 100 < 50 THEN 'ACCEPTED' " +
+                                "     ELSE 'PAID' END, " +
+                                "NULL, 40.0, 15000.0 " +
+                                "FROM generate_series(1, 50000) AS i"
+                );
+
+                stmt.execute(
+                        "INSERT INTO test.material (material_id, name, category, type, material_width, material_height, unit, usage) " +
+                                "SELECT i, 'Materiale ' || i, CASE WHEN i % 12 < 5 THEN 'WOOD_AND_ROOFING' ELSE 'FITTINGS_AND_FASTENERS' END, " +
+                                "(ARRAY['POST', 'RAFTER', 'BEAM', 'ROOF', 'BOARD', 'FASTENER', 'FITTING', 'METAL_STRAP', 'WASHER', " +
+                                "'UNDER_FASCIA_BOARD', 'OVER_FASCIA_BOARD', 'WATER_BOARD'])[1 + i % 12], 45, 195, 'stk', NULL " +
+                                "FROM generate_series(1, 3000) AS i"
+                );
+
+                stmt.execute(
+                        "INSERT INTO test.material_variant (material_variant_id, material_id, variant_length, unit_price, pieces_per_unit) " +
+                                "SELECT i, 1 + i % 3000, 300 + (i % 10) * 60, 100.0, NULL " +
+                                "FROM generate_series(1, 30000) AS i"
+                );
+
+                stmt.execute(
+                        "INSERT INTO test.material_line (material_line_id, order_id, material_variant_id, quantity) " +
+                                "SELECT i, 1 + i % 50000, 1 + i % 30000, 1 + i % 8 " +
+                                "FROM generate_series(1, 200000) AS i"
+                );
+
+                stmt.execute(readMigration());
+
+                // Sets the visibility map, so covering indexes can be read without visiting the table
+                stmt.execute("VACUUM ANALYZE test.orders");
+                stmt.execute("VACUUM ANALYZE test.users");
+                stmt.execute("VACUUM ANALYZE test.material");
+                stmt.execute("VACUUM ANALYZE test.material_variant");
+                stmt.execute("VACUUM ANALYZE test.material_line");
+            }
+        }
+        catch (SQLException | IOException e)
+        {
+            e.printStackTrace();
+            fail("Database setup failed: " + e.getMessage());
+        }
+    }
+
+    @Test
+    void testOrderOverviewPageUsesStatusIndex() throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            String plan = explain(connection, OrderMapper.ORDER_OVERVIEW_PAGES_BY_STATUS_SQL,
+                    connection.createArrayOf("varchar", new String[]{"PAID", "CANCELLED"}),
+                    connection.createArrayOf("timestamp", new String[]{null, "2024-05-01 12:00:00"}),
+                    connection.createArrayOf("integer", new Integer[]{null, 25000}),
+                    10);
+
+            assertUsesIndex(plan, "orders_status_created_idx");
+            assertNoSeqScan(plan, "orders");
+        }
+    }
+
+    @Test
+    void testOrdersByStatusUsesStatusIndex() throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            String plan = explain(connection, OrderMapper.ORDER_OVERVIEWS_BY_STATUS_SQL, "PENDING");
+
+            assertUsesIndex(plan, "orders_status_created_idx");
+            assertNoSeqScan(plan, "orders");
+        }
+    }
+
+    @Test
+    void testCountByStatusUsesStatusIndex() throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            // READY is left out, since the partial expiry index covers exactly those rows
+            String plan = explain(connection, OrderMapper.COUNT_ORDERS_BY_STATUS_SQL, "PENDING");
+
+            assertUsesIndex(plan, "orders_status_created_idx");
+            assertNoSeqScan(plan, "orders");
+        }
+    }
+
+    @Test
+    void testOrdersByCustomerUsesCustomerIndex() throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            String plan = explain(connection, OrderMapper.ORDERS_BY_CUSTOMER_SQL, 42);
+
+            assertUsesIndex(plan, "orders_customer_created_idx");
+            assertNoSeqScan(plan, "orders");
+        }
+    }
+
+    @Test
+    void testExpirySweepUsesPartialReadyIndex() throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            String plan = explain(connection, OrderMapper.EXPIRE_READY_OFFERS_SQL, 500);
+
+            assertUsesIndex(plan, "orders_ready_expiry_idx");
+            assertNoSeqScan(plan, "orders");
+        }
+    }
+
+    @Test
+    void testMaterialLinesByOrderUsesOrderIndex() throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            String plan = explain(connection, MaterialLineMapper.MATERIAL_LINES_BY_ORDER_SQL, 1234);
+
+            assertUsesIndex(plan, "material_line_order_idx");
+            assertNoSeqScan(plan, "material_line");
+            assertNoSeqScan(plan, "material_variant");
+        }
+    }
+
+    @Test
+    void testVariantsByMaterialUseMaterialIndex() throws SQLException
+    {
+        try (Connection connection = connectionPool.getConnection())
+        {
+            String plan = explain(connection, MaterialVariantMapper.VARIANTS_BY_MATERIAL_SQL, 17);
+
+            assertUsesIndex(plan, "material_variant_material_idx");
+            assertNoSeqScan(plan, "material_variant");
+            assertFalse(plan.contains("Sort"), "Varianterne burde komme sorteret fra indekset:\n" + plan);
+        }
+    }
+
+    private static String explain(Connection connection, String sql, Object... parameters) throws SQLException
+    {
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql))
+        {
+            for (int i = 0; i < parameters.length; i++)
+            {
+                ps.setObject(i + 1, parameters[i]);
+            }
+
+            StringBuilder plan = new StringBuilder();
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next())
+            {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+
+    private static void assertUsesIndex(String plan, String indexName)
+    {
+        assertTrue(plan.contains(indexName), "Forventede at " + indexName + " blev brugt:\n" + plan);
+    }
+
+    private static void assertNoSeqScan(String plan, String tableName)
+    {
+        assertFalse(plan.matches("(?s).*Seq Scan on " + tableName + "\\b.*"), "Sekventiel scanning af " + tableName + ":\n" + plan);
+    }
+
+    private static String readMigration() throws IOException
+    {
+        try (InputStream input = QueryPlanTest.class.getResourceAsStream(MIGRATION))
+        {
+            assertNotNull(input, "Migrationen " + MIGRATION + " blev ikke fundet");
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -151,6 +151,18 @@ class UserMapperTest
         assertEquals(Role.CUSTOMER, user.getRole());
     }
 
+    @Test
+    void testUpdateHashedPasswordOnlyReplacesTheExpectedHash() throws DatabaseException
+    {
+        String oldHashedPassword = userMapper.getUserById(1).getHashedPassword();
+
+        assertFalse(userMapper.updateHashedPassword(1, "$2a$10$changedinthemeantime", "$2a$12$rehashedpassword"));
+        assertEquals(oldHashedPassword, userMapper.getUserById(1).getHashedPassword());
+
+        assertTrue(userMapper.updateHashedPassword(1, oldHashedPassword, "$2a$12$rehashedpassword"));
+        assertEquals("$2a$12$rehashedpassword", userMapper.getUserById(1).getHashedPassword());
+    }
+
     @Test
     void testUserWithNonExistingId()
     {
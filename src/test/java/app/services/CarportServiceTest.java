@@ -0,0 +1,59 @@
+package app.services;
+
+import app.dto.CacheStatisticsDTO;
+import app.entities.Carport;
+import app.entities.Shed;
+import app.enums.RoofType;
+import app.enums.ShedPlacement;
+import app.services.svg.CarportSvgTop;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarportServiceTest
+{
+    private ICarportService carportService;
+
+    @BeforeEach
+    void setUp()
+    {
+        carportService = new CarportService(null);
+    }
+
+    @Test
+    void testSameDimensionsReuseCachedDrawing()
+    {
+        Carport first = new Carport(1, 600, 360, RoofType.TRAPEZ_ROOF, new Shed(1, 210, 290, ShedPlacement.FULL_WIDTH));
+        Carport second = new Carport(2, 600, 360, RoofType.TRAPEZ_ROOF, new Shed(2, 210, 290, ShedPlacement.FULL_WIDTH));
+
+        String firstDrawing = carportService.getCarportTopSvgView(first);
+        String secondDrawing = carportService.getCarportTopSvgView(second);
+
+        assertSame(firstDrawing, secondDrawing);
+        assertEquals(new CarportSvgTop(first).toString(), firstDrawing);
+
+        CacheStatisticsDTO statistics = carportService.getDrawingCacheStatistics();
+        assertEquals(1, statistics.hits());
+        assertEquals(1, statistics.misses());
+    }
+
+    @Test
+    void testDifferentShedGivesNewDrawing()
+    {
+        Carport withoutShed = new Carport(1, 600, 360, RoofType.TRAPEZ_ROOF, null);
+        Carport withShed = new Carport(2, 600, 360, RoofType.TRAPEZ_ROOF, new Shed(1, 210, 145, ShedPlacement.LEFT));
+
+        String sideWithoutShed = carportService.getCarportSideSvgView(withoutShed);
+        String sideWithShed = carportService.getCarportSideSvgView(withShed);
+
+        assertNotEquals(sideWithoutShed, sideWithShed);
+        assertEquals(2, carportService.getDrawingCacheStatistics().misses());
+    }
+
+    @Test
+    void testNullCarportThrows()
+    {
+        assertThrows(IllegalArgumentException.class, () -> carportService.getCarportTopSvgView(null));
+    }
+}
@@ -0,0 +1,157 @@
+package app.services;
+
+import app.dto.EmailDispatchDTO;
+import app.entities.OutboxEmail;
+import app.entities.User;
+import app.enums.EmailType;
+import app.enums.Role;
+import app.exceptions.DatabaseException;
+import app.persistence.EmailOutboxMapper;
+import app.persistence.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailOutboxDispatcherTest
+{
+    private static class FakeEmailOutboxMapper extends EmailOutboxMapper
+    {
+        private final List<OutboxEmail> pending = new ArrayList<>();
+        private final List<Integer> sentEmailIds = new ArrayList<>();
+        private final Map<Integer, Long> retryDelays = new HashMap<>();
+        private final List<Integer> failedEmailIds = new ArrayList<>();
+        private int claims = 0;
+
+        FakeEmailOutboxMapper()
+        {
+            super(null);
+        }
+
+        @Override
+        public List<OutboxEmail> claimDueEmails(int batchSize, int leaseSeconds)
+        {
+            claims++;
+            List<OutboxEmail> claimed = new ArrayList<>();
+
+            while (!pending.isEmpty() && claimed.size() < batchSize)
+            {
+                OutboxEmail email = pending.remove(0);
+                email.setAttempts(email.getAttempts() + 1);
+                claimed.add(email);
+            }
+            return claimed;
+        }
+
+        @Override
+        public int markEmailsSent(List<Integer> emailIds)
+        {
+            sentEmailIds.addAll(emailIds);
+            return emailIds.size();
+        }
+
+        @Override
+        public boolean rescheduleEmail(int emailId, long delaySeconds, String error)
+        {
+            retryDelays.put(emailId, delaySeconds);
+            return true;
+        }
+
+        @Override
+        public boolean markEmailFailed(int emailId, String error)
+        {
+            failedEmailIds.add(emailId);
+            return true;
+        }
+    }
+
+    private static class FakeUserMapper extends UserMapper
+    {
+        FakeUserMapper()
+        {
+            super(null);
+        }
+
+        @Override
+        public User getUserById(int userId) throws DatabaseException
+        {
+            if (userId == 404)
+            {
+                throw new DatabaseException("Bruger findes ikke");
+            }
+            return new User(userId, "Hans", "Hansen", null, "Vej 1", 2800, "Lyngby", "hans" + userId + "@mail.dk", "12345678", Role.CUSTOMER);
+        }
+    }
+
+    private FakeEmailOutboxMapper emailOutboxMapper;
+    private FakeEmailService emailService;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp()
+    {
+        emailOutboxMapper = new FakeEmailOutboxMapper();
+        emailService = new FakeEmailService();
+        dispatcher = new EmailOutboxDispatcher(emailOutboxMapper, new FakeUserMapper(), null, emailService, 10, 2, 3);
+    }
+
+    @Test
+    void testDispatchSendsAllDueEmailsInBatches()
+    {
+        emailOutboxMapper.pending.add(new OutboxEmail(1, EmailType.REQUEST_CONFIRMATION, 7, 100, 0));
+        emailOutboxMapper.pending.add(new OutboxEmail(2, EmailType.OFFER_READY, 8, 101, 0));
+        emailOutboxMapper.pending.add(new OutboxEmail(3, EmailType.REQUEST_CONFIRMATION, 9, 102, 0));
+
+        EmailDispatchDTO dispatch = dispatcher.dispatch();
+
+        assertEquals(3, dispatch.sentEmails());
+        assertEquals(2, emailOutboxMapper.claims);
+        assertEquals(List.of(1, 2, 3), emailOutboxMapper.sentEmailIds);
+        assertEquals(EmailType.OFFER_READY, emailService.getSentEmails().get(1).emailType());
+        assertEquals("hans8@mail.dk", emailService.getSentEmails().get(1).email());
+    }
+
+    @Test
+    void testFailedSendIsRescheduledWithBackoff()
+    {
+        emailService.failNextSends(1);
+        emailOutboxMapper.pending.add(new OutboxEmail(1, EmailType.OFFER_READY, 7, 100, 1));
+        emailOutboxMapper.pending.add(new OutboxEmail(2, EmailType.OFFER_READY, 404, 101, 0));
+
+        EmailDispatchDTO dispatch = dispatcher.dispatch();
+
+        assertEquals(0, dispatch.sentEmails());
+        assertEquals(2, dispatch.retriedEmails());
+        assertEquals(60L, emailOutboxMapper.retryDelays.get(1));
+        assertEquals(30L, emailOutboxMapper.retryDelays.get(2));
+        assertTrue(emailService.getSentEmails().isEmpty());
+    }
+
+    @Test
+    void testEmailIsGivenUpAfterMaxAttempts()
+    {
+        emailService.failNextSends(1);
+        emailOutboxMapper.pending.add(new OutboxEmail(1, EmailType.REQUEST_CONFIRMATION, 7, 100, 2));
+
+        EmailDispatchDTO dispatch = dispatcher.dispatch();
+
+        assertEquals(1, dispatch.failedEmails());
+        assertEquals(List.of(1), emailOutboxMapper.failedEmailIds);
+        assertTrue(emailOutboxMapper.retryDelays.isEmpty());
+    }
+
+    @Test
+    void testRetryDelayDoublesUpToOneHour()
+    {
+        assertEquals(30, EmailOutboxDispatcher.getRetryDelaySeconds(1));
+        assertEquals(60, EmailOutboxDispatcher.getRetryDelaySeconds(2));
+        assertEquals(480, EmailOutboxDispatcher.getRetryDelaySeconds(5));
+        assertEquals(3600, EmailOutboxDispatcher.getRetryDelaySeconds(8));
+        assertEquals(3600, EmailOutboxDispatcher.getRetryDelaySeconds(40));
+    }
+}
@@ -0,0 +1,79 @@
+package app.services;
+
+import app.entities.Material;
+import app.entities.MaterialCatalog;
+import app.entities.MaterialVariant;
+import app.enums.MaterialCategory;
+import app.enums.MaterialType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaterialSearchIndexTest
+{
+    private MaterialSearchIndex index;
+
+    private MaterialVariant createVariant(int variantId, String name, MaterialCategory category, MaterialType type)
+    {
+        Material material = new Material(variantId, name, category, type, 45, 195, "stk", "test");
+        return new MaterialVariant(variantId, variantId, 300, 10.0, null, material);
+    }
+
+    @BeforeEach
+    void setUp()
+    {
+        MaterialCatalog catalog = new MaterialCatalog(7, List.of(
+                createVariant(3, "97x97 mm. trykimp. Stolpe", MaterialCategory.WOOD_AND_ROOFING, MaterialType.POST),
+                createVariant(1, "45x195 mm. spærtræ ubh.", MaterialCategory.WOOD_AND_ROOFING, MaterialType.RAFTER),
+                createVariant(2, "45x195 mm. spærtræ ubh.", MaterialCategory.WOOD_AND_ROOFING, MaterialType.BEAM),
+                createVariant(4, "4,5 x 60 mm. skruer 200 stk.", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.FASTENER),
+                createVariant(5, "Universal 190 mm højre", MaterialCategory.FITTINGS_AND_FASTENERS, MaterialType.FITTING)
+        ));
+        index = new MaterialSearchIndex(catalog);
+    }
+
+    private List<Integer> idsOf(List<MaterialVariant> variants)
+    {
+        return variants.stream().map(MaterialVariant::getMaterialVariantId).toList();
+    }
+
+    @Test
+    void testIndexKeepsCatalogVersion()
+    {
+        assertEquals(7, index.getCatalogVersion());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void testSearchByNameIsCaseInsensitiveSubstringMatch()
+    {
+        assertEquals(List.of(1, 2), idsOf(index.searchByName("SPÆRTRÆ")));
+        assertEquals(List.of(3), idsOf(index.searchByName("trykimp")));
+        assertEquals(List.of(1, 2, 3, 4, 5), idsOf(index.searchByName("mm")));
+    }
+
+    @Test
+    void testSearchByNameRequiresWholeQueryNotJustSharedTrigrams()
+    {
+        assertTrue(index.searchByName("195 mm. stolpe").isEmpty());
+        assertTrue(index.searchByName("findes ikke").isEmpty());
+    }
+
+    @Test
+    void testSearchByCategoryMatchesDisplayName()
+    {
+        assertEquals(List.of(4, 5), idsOf(index.searchByCategory("beslag")));
+        assertEquals(List.of(1, 2, 3), idsOf(index.searchByCategory("Træ")));
+    }
+
+    @Test
+    void testSearchByTypeMatchesDisplayName()
+    {
+        assertEquals(List.of(1), idsOf(index.searchByType("spær")));
+        assertEquals(List.of(4), idsOf(index.searchByType("skrue")));
+        assertTrue(index.searchByType("vindue").isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package app.services;
+
+import app.dto.ExpirySweepDTO;
+import app.enums.OrderStatus;
+import app.exceptions.DatabaseException;
+import app.persistence.OrderMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderExpirySchedulerTest
+{
+    private static class FakeOrderMapper extends OrderMapper
+    {
+        private final Deque<Integer> updatedRowsPerBatch;
+        private int calls = 0;
+        private int countQueries = 0;
+
+        FakeOrderMapper(List<Integer> updatedRowsPerBatch)
+        {
+            super(null);
+            this.updatedRowsPerBatch = new ArrayDeque<>(updatedRowsPerBatch);
+        }
+
+        @Override
+        public int updateOrderStatusIfExpired(int batchSize) throws DatabaseException
+        {
+            calls++;
+
+            if (updatedRowsPerBatch.isEmpty())
+            {
+                throw new DatabaseException("Ingen forbindelse");
+            }
+            return updatedRowsPerBatch.pop();
+        }
+
+        @Override
+        public Map<OrderStatus, Integer> getNumberOfOrdersGroupedByStatus()
+        {
+            countQueries++;
+            return Map.of(OrderStatus.EXPIRED, 23);
+        }
+    }
+
+    @Test
+    void testSweepRunsBatchesUntilBatchIsNotFull()
+    {
+        FakeOrderMapper orderMapper = new FakeOrderMapper(List.of(10, 10, 3, 10));
+        OrderExpiryScheduler scheduler = new OrderExpiryScheduler(orderMapper, new OrderStatusCounter(orderMapper), 5, 10);
+
+        ExpirySweepDTO sweep = scheduler.runSweep();
+
+        assertEquals(23, sweep.expiredOrders());
+        assertEquals(3, sweep.batches());
+        assertEquals(3, orderMapper.calls);
+        assertFalse(sweep.failed());
+        assertSame(sweep, scheduler.getLastSweep());
+    }
+
+    @Test
+    void testSweepResyncsStatusCounterOnlyWhenOrdersExpired() throws DatabaseException
+    {
+        FakeOrderMapper orderMapper = new FakeOrderMapper(List.of(0, 3));
+        OrderStatusCounter orderStatusCounter = new OrderStatusCounter(orderMapper);
+        OrderExpiryScheduler scheduler = new OrderExpiryScheduler(orderMapper, orderStatusCounter, 5, 10);
+
+        scheduler.runSweep();
+        assertEquals(0, orderMapper.countQueries);
+
+        scheduler.runSweep();
+        assertEquals(1, orderMapper.countQueries);
+        assertEquals(23, orderStatusCounter.getCount(OrderStatus.EXPIRED));
+    }
+
+    @Test
+    void testSweepRecordsFailureWithoutThrowing()
+    {
+        FakeOrderMapper orderMapper = new FakeOrderMapper(List.of(10));
+        OrderExpiryScheduler scheduler = new OrderExpiryScheduler(orderMapper, new OrderStatusCounter(orderMapper), 5, 10);
+
+        ExpirySweepDTO sweep = scheduler.runSweep();
+
+        assertTrue(sweep.failed());
+        assertEquals(10, sweep.expiredOrders());
+    }
+
+    @Test
+    void testInvalidConfigurationThrows()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new OrderExpiryScheduler(null, null, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new OrderExpiryScheduler(null, null, 5, 0));
+    }
+}
@@ -0,0 +1,134 @@
+package app.services;
+
+import app.enums.OrderStatus;
+import app.exceptions.DatabaseException;
+import app.persistence.OrderMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatusCounterTest
+{
+    private static class FakeOrderMapper extends OrderMapper
+    {
+        private Map<OrderStatus, Integer> counts = Map.of(OrderStatus.PENDING, 4, OrderStatus.READY, 2);
+        private int countQueries = 0;
+        private CountDownLatch queryStarted;
+        private CountDownLatch queryReleased;
+
+        FakeOrderMapper()
+        {
+            super(null);
+        }
+
+        @Override
+        public Map<OrderStatus, Integer> getNumberOfOrdersGroupedByStatus()
+        {
+            countQueries++;
+
+            if (queryStarted != null)
+            {
+                queryStarted.countDown();
+                awaitUninterruptibly(queryReleased);
+            }
+            return counts;
+        }
+    }
+
+    private FakeOrderMapper orderMapper;
+    private OrderStatusCounter orderStatusCounter;
+
+    @BeforeEach
+    void setUp()
+    {
+        orderMapper = new FakeOrderMapper();
+        orderStatusCounter = new OrderStatusCounter(orderMapper);
+    }
+
+    @Test
+    void testCountsAreLoadedOnceOnFirstRead() throws DatabaseException
+    {
+        assertEquals(4, orderStatusCounter.getCount(OrderStatus.PENDING));
+        assertEquals(2, orderStatusCounter.getCount(OrderStatus.READY));
+        assertEquals(0, orderStatusCounter.getCount(OrderStatus.PAID));
+        assertEquals(1, orderMapper.countQueries);
+    }
+
+    @Test
+    void testInProcessUpdatesDoNotQueryDatabase() throws DatabaseException
+    {
+        orderStatusCounter.getCount(OrderStatus.PENDING);
+
+        orderStatusCounter.increment(OrderStatus.PENDING);
+        orderStatusCounter.transition(OrderStatus.PENDING, OrderStatus.READY);
+        orderStatusCounter.transition(OrderStatus.READY, OrderStatus.READY);
+
+        assertEquals(4, orderStatusCounter.getCount(OrderStatus.PENDING));
+        assertEquals(3, orderStatusCounter.getCount(OrderStatus.READY));
+        assertEquals(1, orderMapper.countQueries);
+    }
+
+    @Test
+    void testResyncReplacesDriftedCounts() throws DatabaseException
+    {
+        orderStatusCounter.getCount(OrderStatus.PENDING);
+        orderStatusCounter.increment(OrderStatus.CANCELLED);
+
+        orderMapper.counts = Map.of(OrderStatus.PENDING, 1);
+        orderStatusCounter.resync();
+
+        assertEquals(1, orderStatusCounter.getCount(OrderStatus.PENDING));
+        assertEquals(0, orderStatusCounter.getCount(OrderStatus.READY));
+        assertEquals(0, orderStatusCounter.getCount(OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void testTransitionDuringResyncIsCountedAfterTheNewCounts() throws Exception
+    {
+        orderStatusCounter.getCount(OrderStatus.PENDING);
+        orderMapper.queryStarted = new CountDownLatch(1);
+        orderMapper.queryReleased = new CountDownLatch(1);
+
+        Thread resync = Thread.ofPlatform().start(() ->
+        {
+            try
+            {
+                orderStatusCounter.resync();
+            }
+            catch (DatabaseException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(orderMapper.queryStarted.await(5, TimeUnit.SECONDS));
+
+        // Committed after the count query read the table, so the query doesn't see it
+        Thread transition = Thread.ofPlatform().start(() -> orderStatusCounter.transition(OrderStatus.READY, OrderStatus.PAID));
+        transition.join(100);
+        assertTrue(transition.isAlive(), "transition() skal vente på resync()");
+
+        orderMapper.queryReleased.countDown();
+        resync.join(5000);
+        transition.join(5000);
+
+        assertEquals(1, orderStatusCounter.getCount(OrderStatus.READY));
+        assertEquals(1, orderStatusCounter.getCount(OrderStatus.PAID));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package app.services;
+
+import app.exceptions.DatabaseException;
+import app.util.PasswordUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest
+{
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+
+    @AfterEach
+    void tearDown()
+    {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private void blockExecutor()
+    {
+        executor.execute(() ->
+        {
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Test
+    void testHashIsVerifiedWithTheConfiguredCost() throws DatabaseException
+    {
+        PasswordHasher passwordHasher = new PasswordHasher(4, executor, 5000);
+
+        String hash = passwordHasher.hashPassword("hemmeligt");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(passwordHasher.verifyPassword("hemmeligt", hash));
+        assertFalse(passwordHasher.verifyPassword("forkert", hash));
+        assertEquals(1, passwordHasher.getStatistics().hashCount());
+        assertEquals(2, passwordHasher.getStatistics().verifyCount());
+    }
+
+    @Test
+    void testFullQueueIsRejectedAtOnce()
+    {
+        PasswordHasher passwordHasher = new PasswordHasher(4, executor, 5000);
+        blockExecutor();
+        blockExecutor();
+
+        long start = System.nanoTime();
+        DatabaseException e = assertThrows(DatabaseException.class, () -> passwordHasher.verifyPassword("hemmeligt", "$2a$04$abcdefghijklmnopqrstuu"));
+
+        assertTrue(e.getMessage().contains("logger ind"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(1, passwordHasher.getStatistics().rejectedTasks());
+    }
+
+    @Test
+    void testWaitingIsBoundedByTheTimeout()
+    {
+        PasswordHasher passwordHasher = new PasswordHasher(4, executor, 50);
+        blockExecutor();
+
+        DatabaseException e = assertThrows(DatabaseException.class, () -> passwordHasher.hashPassword("hemmeligt"));
+
+        // Hashing is only used when registering, so the user is not told about logins
+        assertTrue(e.getMessage().contains("opretter en bruger"));
+        assertEquals(1, passwordHasher.getStatistics().timedOutTasks());
+        assertEquals(0, executor.getQueue().size());
+    }
+
+    @Test
+    void testInvalidCostIsRejected()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(3, executor, 5000));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(32, executor, 5000));
+    }
+
+    @Test
+    void testOnlyHashesWithAnotherCostNeedRehash()
+    {
+        PasswordHasher passwordHasher = new PasswordHasher(5, executor, 5000);
+
+        assertTrue(passwordHasher.needsRehash(PasswordUtil.hashPassword("hemmeligt", 4)));
+        assertFalse(passwordHasher.needsRehash(PasswordUtil.hashPassword("hemmeligt", 5)));
+        assertFalse(passwordHasher.needsRehash("ikke et hash"));
+        assertFalse(passwordHasher.needsRehash(null));
+    }
+
+    @Test
+    void testRehashInBackgroundHandsOverTheNewHash() throws InterruptedException
+    {
+        PasswordHasher passwordHasher = new PasswordHasher(5, executor, 5000);
+        AtomicReference<String> newHash = new AtomicReference<>();
+        AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        CountDownLatch rehashed = new CountDownLatch(1);
+
+        passwordHasher.rehashInBackground("hemmeligt", hash ->
+        {
+            newHash.set(hash);
+            callbackThread.set(Thread.currentThread());
+            rehashed.countDown();
+        });
+
+        assertTrue(rehashed.await(5, TimeUnit.SECONDS));
+        assertTrue(newHash.get().startsWith("$2a$05$"));
+        assertTrue(PasswordUtil.verifyPassword("hemmeligt", newHash.get()));
+        // The hash is saved off the hashing pool, so a slow database does not hold up logins
+        assertTrue(callbackThread.get().isVirtual());
+        passwordHasher.stop();
+    }
+
+    @Test
+    void testRehashIsSkippedWhenTheQueueIsBusy()
+    {
+        PasswordHasher passwordHasher = new PasswordHasher(5, executor, 5000);
+        blockExecutor();
+        blockExecutor();
+
+        passwordHasher.rehashInBackground("hemmeligt", hash -> fail("Rehash burde være sprunget over"));
+
+        assertEquals(0, passwordHasher.getStatistics().rejectedTasks());
+        assertEquals(1, executor.getQueue().size());
+    }
+
+    @Test
+    void testBenchmarkedCostStaysWithinBounds()
+    {
+        int cost = PasswordHasher.benchmarkCost(1, 4, 6);
+
+        assertTrue(cost >= 4 && cost <= 6);
+        assertEquals(4, PasswordHasher.benchmarkCost(1, 4, 4));
+        assertThrows(IllegalArgumentException.class, () -> PasswordHasher.benchmarkCost(100, 8, 6));
+    }
+}
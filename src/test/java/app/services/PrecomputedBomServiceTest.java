@@ -0,0 +1,125 @@
+package app.services;
+
+import app.entities.*;
+import app.enums.MaterialCategory;
+import app.enums.MaterialType;
+import app.enums.RoofType;
+import app.exceptions.DatabaseException;
+import app.exceptions.MaterialNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrecomputedBomServiceTest
+{
+    private static class FakeCatalogService implements IMaterialCatalogService
+    {
+        private MaterialCatalog catalog = new MaterialCatalog(1, List.of());
+
+        @Override
+        public MaterialCatalog getCatalog()
+        {
+            return catalog;
+        }
+
+        @Override
+        public MaterialCatalog reloadCatalog()
+        {
+            catalog = new MaterialCatalog(catalog.getVersion() + 1, List.of());
+            return catalog;
+        }
+
+        @Override
+        public void invalidateCatalog()
+        {
+            reloadCatalog();
+        }
+    }
+
+    private static class CountingBomService implements IBomService
+    {
+        private final MaterialVariant post = new MaterialVariant(1, 1, 300, 100.0, null,
+                new Material(1, "97x97 mm. trykimp. Stolpe", MaterialCategory.WOOD_AND_ROOFING, MaterialType.POST, 97, 97, "stk", "Stolper"));
+        private int calls = 0;
+
+        @Override
+        public List<MaterialLine> getBillOfMaterialByCarport(Carport carport) throws DatabaseException, MaterialNotFoundException
+        {
+            calls++;
+            return List.of(new MaterialLine(post, carport.getLength() / 100));
+        }
+
+        @Override
+        public PricingDetails calculateCarportPrice(List<MaterialLine> billOfMaterial)
+        {
+            return new PricingDetails(billOfMaterial.get(0).getQuantity() * 100.0, 40.0);
+        }
+    }
+
+    private FakeCatalogService catalogService;
+    private CountingBomService countingBomService;
+    private PrecomputedBomService precomputedBomService;
+
+    @BeforeEach
+    void setUp()
+    {
+        catalogService = new FakeCatalogService();
+        countingBomService = new CountingBomService();
+        precomputedBomService = new PrecomputedBomService(countingBomService, catalogService, new CarportService(null));
+    }
+
+    @Test
+    void testWarmUpPrecomputesOnlyValidFormCombinations() throws DatabaseException
+    {
+        BomTable table = precomputedBomService.warmUp();
+
+        assertEquals(1, table.getCatalogVersion());
+        assertEquals(countingBomService.calls, table.size());
+        assertTrue(table.size() > 13 * 19 * RoofType.values().length);
+    }
+
+    @Test
+    void testLookupOfFormDimensionsSkipsBomCalculation() throws DatabaseException, MaterialNotFoundException
+    {
+        precomputedBomService.warmUp();
+        int callsAfterWarmUp = countingBomService.calls;
+
+        Carport carport = new Carport(0, 600, 300, RoofType.TRAPEZ_ROOF, null);
+        List<MaterialLine> first = precomputedBomService.getBillOfMaterialByCarport(carport);
+        List<MaterialLine> second = precomputedBomService.getBillOfMaterialByCarport(carport);
+
+        assertEquals(callsAfterWarmUp, countingBomService.calls);
+        assertEquals(6, first.get(0).getQuantity());
+        assertSame(first.get(0).getMaterialVariant(), second.get(0).getMaterialVariant());
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(1.0, precomputedBomService.getStatistics().hitRate());
+    }
+
+    @Test
+    void testUnknownDimensionsFallBackToBomService() throws DatabaseException, MaterialNotFoundException
+    {
+        precomputedBomService.warmUp();
+        int callsAfterWarmUp = countingBomService.calls;
+
+        List<MaterialLine> billOfMaterial = precomputedBomService.getBillOfMaterialByCarport(new Carport(0, 615, 300, RoofType.FLAT, null));
+
+        assertEquals(callsAfterWarmUp + 1, countingBomService.calls);
+        assertEquals(6, billOfMaterial.get(0).getQuantity());
+    }
+
+    @Test
+    void testCatalogChangeInvalidatesTable() throws DatabaseException, MaterialNotFoundException
+    {
+        precomputedBomService.warmUp();
+        catalogService.reloadCatalog();
+        int callsAfterWarmUp = countingBomService.calls;
+
+        precomputedBomService.getBillOfMaterialByCarport(new Carport(0, 600, 300, RoofType.FLAT, null));
+
+        assertEquals(callsAfterWarmUp + 1, countingBomService.calls);
+        assertEquals(0, precomputedBomService.getStatistics().size());
+    }
+}
@@ -0,0 +1,74 @@
+package app.services.svg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SvgWriterTest
+{
+    private String appendFixed(double value, int decimals)
+    {
+        return SvgWriter.appendFixed(new StringBuilder(), value, decimals).toString();
+    }
+
+    @Test
+    void testMatchesStringFormatForRandomCoordinates()
+    {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++)
+        {
+            double value = (random.nextDouble() - 0.2) * 2000;
+
+            assertEquals(String.format(Locale.US, "%f", value), appendFixed(value, 6));
+            assertEquals(String.format(Locale.US, "%.2f", value), appendFixed(value, 2));
+            assertEquals(String.format(Locale.US, "%.1f", value), appendFixed(value, 1));
+        }
+    }
+
+    @Test
+    void testMatchesStringFormatForHalfWayAndEdgeValues()
+    {
+        double[] values = {0, -0.0, 0.5, 1.005, 2.675, 0.125, 0.25, -0.004, -1.5, 3.3333335, 1.0000005, 780, 52.5, 0.05, 999_999.9999995};
+
+        for (double value : values)
+        {
+            assertEquals(String.format(Locale.US, "%f", value), appendFixed(value, 6), "value " + value);
+            assertEquals(String.format(Locale.US, "%.2f", value), appendFixed(value, 2), "value " + value);
+            assertEquals(String.format(Locale.US, "%.1f", value), appendFixed(value, 1), "value " + value);
+        }
+    }
+
+    @Test
+    void testToStringCanBeCalledMoreThanOnce()
+    {
+        Svg svg = new Svg(0, 0, "100%", "0 0 100 100");
+        svg.addRectangle(1.5, 2, 3, 4, "fill:none");
+
+        String first = svg.toString();
+
+        assertEquals(first, svg.toString());
+        assertTrue(first.endsWith("</svg>"));
+        assertFalse(first.endsWith("</svg></svg>"));
+    }
+
+    @Test
+    void testNestedSvgIsWrittenWithFixedPrecision()
+    {
+        Svg outer = new Svg(0, 0, "100%", "0 0 1000 400");
+        Svg inner = new Svg(150, 50, 780, 600, "0 0 780 600");
+        inner.addLine(0, 0, 780.25, 600, "stroke:#000000");
+        inner.addPolygon(new double[]{0, 0, 10.25, 0, 10.25, 19.5, 0, 19.5}, "fill:none");
+        outer.addArrowDefs();
+        outer.addSvg(inner);
+        outer.addLineWithArrows(10, 20, 30, 40);
+        outer.addText(12.345, 6, -90, 3.456, 2);
+        outer.addText(12.345, 6, 0, "Spær");
+
+        assertTrue(outer.toString().contains("<polygon points=\"0.0,0.0 10.3,0.0 10.3,19.5 0.0,19.5\""));
+        assertTrue(outer.toString().contains("translate(12.35,6.00) rotate(-90.00)\">3.46</text>"));
+    }
+}
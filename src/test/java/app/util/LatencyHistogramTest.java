@@ -0,0 +1,70 @@
+package app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest
+{
+    @Test
+    void testEmptyHistogram()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMeanMillis());
+        assertEquals(0, histogram.getPercentileMillis(99));
+    }
+
+    @Test
+    void testRecordsIntoCorrectBuckets()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(40));
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        histogram.recordNanos(TimeUnit.SECONDS.toNanos(10));
+
+        Map<String, Long> buckets = histogram.getBuckets();
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(1, buckets.get("0.05"));
+        assertEquals(1, buckets.get("2.5"));
+        assertEquals(1, buckets.get("+Inf"));
+        assertEquals(10_000.0, histogram.getMaxMillis());
+    }
+
+    @Test
+    void testPercentileUsesBucketUpperBound()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < 99; i++)
+        {
+            histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(200));
+        }
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(40));
+
+        assertEquals(0.25, histogram.getPercentileMillis(50));
+        assertEquals(0.25, histogram.getPercentileMillis(99));
+        assertEquals(50.0, histogram.getPercentileMillis(100));
+    }
+
+    @Test
+    void testResetForgetsEverySample()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        histogram.recordNanos(TimeUnit.SECONDS.toNanos(10));
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMillis());
+        assertEquals(0, histogram.getTotalMillis());
+        assertEquals(0, histogram.getBuckets().get("+Inf"));
+    }
+}
@@ -0,0 +1,50 @@
+package app.util;
+
+import app.dto.CacheStatisticsDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest
+{
+    @Test
+    void testEvictsLeastRecentlyUsedEntry()
+    {
+        LruCache<Integer, String> cache = new LruCache<>("test", 2);
+
+        cache.put(1, "en");
+        cache.put(2, "to");
+        cache.get(1);
+        cache.put(3, "tre");
+
+        assertEquals("en", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("tre", cache.get(3));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getStatistics().evictions());
+    }
+
+    @Test
+    void testGetOrComputeOnlyComputesOnMiss()
+    {
+        LruCache<Integer, String> cache = new LruCache<>("test", 10);
+        int[] computations = {0};
+
+        cache.getOrCompute(7, key -> "værdi " + (++computations[0]));
+        String cached = cache.getOrCompute(7, key -> "værdi " + (++computations[0]));
+
+        assertEquals("værdi 1", cached);
+        assertEquals(1, computations[0]);
+
+        CacheStatisticsDTO statistics = cache.getStatistics();
+        assertEquals(1, statistics.hits());
+        assertEquals(1, statistics.misses());
+        assertEquals(0.5, statistics.hitRate());
+    }
+
+    @Test
+    void testInvalidSizeThrows()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<Integer, String>("test", 0));
+    }
+}
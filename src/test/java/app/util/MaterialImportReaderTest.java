@@ -0,0 +1,139 @@
+package app.util;
+
+import app.dto.MaterialImportRowDTO;
+import app.entities.MaterialVariant;
+import app.enums.ImportFormat;
+import app.enums.MaterialCategory;
+import app.enums.MaterialType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaterialImportReaderTest
+{
+    private static final String CSV_HEADER = "name;category;type;width;height;unit;usage;length;unitPrice;piecesPerUnit\n";
+
+    @Test
+    void testReadsSemicolonCsvWithQuotesAndDecimalComma() throws IOException
+    {
+        String csv = "﻿" + CSV_HEADER +
+                "97x97 mm. trykimp. Stolpe;WOOD_AND_ROOFING;POST;97;97;stk;\"Stolper; nedgraves 90 cm\";300;129,95;1\n" +
+                "\n" +
+                "\"Skruer \"\"4,5x60\"\"\";fittings_and_fasteners;fastener;;;pakke;\"Til\nbeslag\";;89.5;200\n";
+
+        List<MaterialImportRowDTO> rows = readAll(csv, ImportFormat.CSV);
+
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).isValid());
+        assertEquals(2, rows.get(0).rowNumber());
+
+        MaterialVariant post = rows.get(0).materialVariant();
+        assertEquals(129.95, post.getUnitPrice(), 0.001);
+        assertEquals(300, post.getVariantLength());
+        assertEquals(MaterialType.POST, post.getMaterial().getType());
+        assertEquals("Stolper; nedgraves 90 cm", post.getMaterial().getUsage());
+
+        MaterialVariant screws = rows.get(1).materialVariant();
+        assertEquals(4, rows.get(1).rowNumber());
+        assertEquals("Skruer \"4,5x60\"", screws.getMaterial().getName());
+        assertEquals(MaterialCategory.FITTINGS_AND_FASTENERS, screws.getMaterial().getCategory());
+        assertEquals("Til\nbeslag", screws.getMaterial().getUsage());
+        assertNull(screws.getVariantLength());
+        assertNull(screws.getMaterial().getMaterialWidth());
+        assertEquals(200, screws.getPiecesPerUnit());
+    }
+
+    @Test
+    void testInvalidRowsAreReportedWithoutStoppingTheImport() throws IOException
+    {
+        String csv = "name,category,type,unit,usage,length,unitPrice\n" +
+                "Spærtræ,WOOD_AND_ROOFING,RAFTER,stk,Spær,480,-5\n" +
+                "Spærtræ,WOOD_AND_ROOFING,TAGRENDE,stk,Spær,480,50\n" +
+                "Spærtræ,WOOD_AND_ROOFING,RAFTER,stk,Spær,0,50\n" +
+                "Spærtræ,WOOD_AND_ROOFING,RAFTER,stk\n" +
+                "Spærtræ,WOOD_AND_ROOFING,RAFTER,stk,Spær,480,50\n";
+
+        List<MaterialImportRowDTO> rows = readAll(csv, ImportFormat.CSV);
+
+        assertEquals(5, rows.size());
+        assertEquals("Pris skal være et positivt tal", rows.get(0).error());
+        assertTrue(rows.get(1).error().startsWith("Type skal være en af"));
+        assertEquals("Længde skal være større end 0", rows.get(2).error());
+        assertEquals(5, rows.get(3).rowNumber());
+        assertFalse(rows.get(3).isValid());
+        assertTrue(rows.get(4).isValid());
+    }
+
+    @Test
+    void testMissingRequiredColumnIsRejectedWhenOpened()
+    {
+        String csv = "name,category,type,unit,usage\n";
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new MaterialImportReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV));
+        assertEquals("CSV filen mangler kolonnen: unitprice", e.getMessage());
+    }
+
+    @Test
+    void testReadsJsonArray() throws IOException
+    {
+        String json = """
+                [
+                  {"name": "Trapezplade", "category": "WOOD_AND_ROOFING", "type": "ROOF", "unit": "stk",
+                   "usage": "Tag", "length": 600, "unitPrice": 199.0, "piecesPerUnit": 1, "width": null},
+                  {"name": "Trapezplade", "category": "WOOD_AND_ROOFING", "type": "ROOF", "unit": "stk"},
+                  "ikke et materiale"
+                ]
+                """;
+
+        List<MaterialImportRowDTO> rows = readAll(json, ImportFormat.JSON);
+
+        assertEquals(3, rows.size());
+        assertEquals(600, rows.get(0).materialVariant().getVariantLength());
+        assertEquals(199.0, rows.get(0).materialVariant().getUnitPrice());
+        assertNull(rows.get(0).materialVariant().getMaterial().getMaterialWidth());
+        assertEquals(2, rows.get(1).rowNumber());
+        assertFalse(rows.get(1).isValid());
+        assertEquals("Elementet er ikke et objekt", rows.get(2).error());
+    }
+
+    @Test
+    void testReadsTenThousandRows() throws IOException
+    {
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+
+        for (int i = 1; i <= 10_000; i++)
+        {
+            csv.append("Bræt ").append(i).append(";WOOD_AND_ROOFING;BOARD;19;100;stk;Beklædning;")
+                    .append(180 + i % 400).append(';').append(i % 100).append(",50;1\n");
+        }
+
+        List<MaterialImportRowDTO> rows = readAll(csv.toString(), ImportFormat.CSV);
+
+        assertEquals(10_000, rows.size());
+        assertTrue(rows.stream().allMatch(MaterialImportRowDTO::isValid));
+        assertEquals(10_001, rows.get(9_999).rowNumber());
+    }
+
+    private List<MaterialImportRowDTO> readAll(String content, ImportFormat format) throws IOException
+    {
+        List<MaterialImportRowDTO> rows = new ArrayList<>();
+
+        try (MaterialImportReader reader = new MaterialImportReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format))
+        {
+            MaterialImportRowDTO row;
+
+            while ((row = reader.readRow()) != null)
+            {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
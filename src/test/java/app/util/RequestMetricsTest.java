@@ -0,0 +1,102 @@
+package app.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestMetricsTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        RequestMetrics.reset();
+    }
+
+    @Test
+    void testDbCallsAndSpansAreAddedToTheCurrentRequest()
+    {
+        RequestMetrics.startRequest();
+        RequestMetrics.recordDbCall(TimeUnit.MILLISECONDS.toNanos(2));
+        RequestMetrics.recordDbCall(TimeUnit.MILLISECONDS.toNanos(3));
+
+        try (RequestMetrics.Span span = RequestMetrics.span("ctx.render"))
+        {
+            assertNotNull(span);
+        }
+
+        try (RequestMetrics.Span span = RequestMetrics.span("ctx.render"))
+        {
+            assertNotNull(span);
+        }
+
+        RequestMetrics.RequestTrace trace = RequestMetrics.finishRequest("GET /carport-request/details/{id}");
+
+        assertEquals(2, trace.getDbCalls());
+        assertEquals(5.0, trace.getDbMillis(), 0.001);
+        assertEquals(1, trace.getSpanMillis().size());
+        assertTrue(trace.getSpanMillis().containsKey("ctx.render"));
+    }
+
+    @Test
+    void testWorkOutsideARequestIsNotTraced()
+    {
+        RequestMetrics.recordDbCall(1000);
+        assertNull(RequestMetrics.finishRequest("GET /"));
+
+        RequestMetrics.startRequest();
+        RequestMetrics.RequestTrace trace = RequestMetrics.finishRequest("GET /");
+
+        assertEquals(0, trace.getDbCalls());
+        assertNull(RequestMetrics.finishRequest("GET /"));
+    }
+
+    @Test
+    void testPrometheusTextHasCumulativeBucketsPerRoute()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            RequestMetrics.startRequest();
+            RequestMetrics.recordDbCall(TimeUnit.MILLISECONDS.toNanos(1));
+            RequestMetrics.finishRequest("GET /carport-request/details/{id}");
+        }
+
+        try (RequestMetrics.Span span = RequestMetrics.span("getBillOfMaterialByCarport"))
+        {
+            assertNotNull(span);
+        }
+
+        String text = RequestMetrics.toPrometheusText();
+
+        assertTrue(text.contains("# TYPE http_server_requests_seconds histogram\n"));
+        assertTrue(text.contains("http_server_requests_seconds_bucket{method=\"GET\",route=\"/carport-request/details/{id}\",le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("http_server_requests_seconds_count{method=\"GET\",route=\"/carport-request/details/{id}\"} 3\n"));
+        assertTrue(text.contains("http_server_request_db_calls_total{method=\"GET\",route=\"/carport-request/details/{id}\"} 3\n"));
+        assertTrue(text.contains("http_server_request_db_seconds_total{method=\"GET\",route=\"/carport-request/details/{id}\"} 0.003\n"));
+        assertTrue(text.contains("span_seconds_count{span=\"getBillOfMaterialByCarport\"} 1\n"));
+        assertTrue(text.contains("le=\"0.00005\""));
+    }
+
+    @Test
+    void testResetForgetsDbStatements()
+    {
+        RequestMetrics.recordDbCall(TimeUnit.MILLISECONDS.toNanos(4));
+        assertTrue(RequestMetrics.toPrometheusText().contains("db_statement_seconds_count 1\n"));
+
+        RequestMetrics.reset();
+
+        assertTrue(RequestMetrics.toPrometheusText().contains("db_statement_seconds_count 0\n"));
+        assertTrue(RequestMetrics.toPrometheusText().contains("db_statement_seconds_sum 0\n"));
+    }
+
+    @Test
+    void testLabelValuesAreEscaped()
+    {
+        RequestMetrics.startRequest();
+        RequestMetrics.finishRequest("GET /search\"x\\");
+
+        assertTrue(RequestMetrics.toPrometheusText().contains("route=\"/search\\\"x\\\\\""));
+    }
+}